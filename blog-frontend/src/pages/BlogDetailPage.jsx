@@ -64,8 +64,8 @@ const BlogDetailPage = () => {
         
         if (isMounted) {
           // Load like count
-          const count = await engagementApiService.getLikesCount(id);
-          setLikeCount(count);
+          const stats = await engagementApiService.getBlogStats(id);
+          setLikeCount(stats.likeCount);
         }
       } catch (e) {
         // ignore engagement errors
@@ -84,8 +84,8 @@ const BlogDetailPage = () => {
     const loadLikeStatus = async () => {
       if (isAuthenticated) {
         try {
-          const liked = await engagementApiService.isLiked(id);
-          setIsLiked(liked);
+          const stats = await engagementApiService.getBlogStats(id);
+          setIsLiked(Boolean(stats.liked));
         } catch (e) {
           // ignore errors
         }
@@ -106,8 +106,8 @@ const BlogDetailPage = () => {
       setIsLiked(newIsLiked);
       
       // Update like count
-      const newCount = await engagementApiService.getLikesCount(id);
-      setLikeCount(newCount);
+      const stats = await engagementApiService.getBlogStats(id);
+      setLikeCount(stats.likeCount);
       
       // Also refresh blog data to keep it in sync
       const blogData = isAuthenticated
@@ -177,6 +177,16 @@ export const engagementApiService = {
     const res = await engagementApi.get(`/blogs/${blogId}/likes/status`);
     return res.data; // returns boolean
   },
+  getLikedBlogIds: async (blogIds) => {
+    const res = await engagementApi.get(`/blogs/likes/status`, {
+      params: { blogIds: blogIds.join(",") },
+    });
+    return res.data; // returns the ids among blogIds the user has liked
+  },
+  getBlogStats: async (blogId) => {
+    const res = await engagementApi.get(`/public/blogs/${blogId}/stats`);
+    return res.data; // { likeCount, viewCount, commentCount, liked (when logged in) }
+  },
   getLikesCount: async (blogId) => {
     const res = await engagementApi.get(`/public/blogs/${blogId}/likes/count`);
     return res.data;
@@ -197,6 +207,16 @@ export const engagementApiService = {
     return res.data;
   },
 
+  // Live counts: calls onCounts({ blogId, likeCount, viewCount, commentCount })
+  // whenever a blog's counts change. Returns a function that closes the stream.
+  subscribeToCounts: (blogIds, onCounts) => {
+    const source = new EventSource(
+      `${API_GATEWAY_URL}/engagement/public/blogs/stats/stream?blogIds=${blogIds.join(",")}`
+    );
+    source.addEventListener("counts", (event) => onCounts(JSON.parse(event.data)));
+    return () => source.close();
+  },
+
   // Comments - Enhanced API methods for nested comment functionality
   getComments: async (blogId) => {
     try {
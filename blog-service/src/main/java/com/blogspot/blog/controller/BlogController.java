@@ -1,10 +1,15 @@
 package com.blogspot.blog.controller;
 
 import com.blogspot.blog.dto.BlogCreateDto;
+import com.blogspot.blog.dto.BlogImportResultDto;
+import com.blogspot.blog.dto.BlogListItemDto;
 import com.blogspot.blog.dto.BlogResponseDto;
 import com.blogspot.blog.dto.BlogUpdateDto;
+import com.blogspot.blog.dto.CursorPageDto;
 import com.blogspot.blog.exception.BlogNotFoundException;
 import com.blogspot.blog.exception.UnauthorizedAccessException;
+import com.blogspot.blog.service.BlogExportService;
+import com.blogspot.blog.service.BlogImportService;
 import com.blogspot.blog.service.BlogService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,21 +17,39 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import com.blogspot.blog.dto.BlogSummaryInternalDto;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/blogs")
 @RequiredArgsConstructor
 @Slf4j
 public class BlogController {
 
+    private static final int MAX_FEED_SIZE = 50;
+    private static final int MAX_TRENDING_LIMIT = 50;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    // Deepest result the search index ranks; keeps page * size within a bounded top-k heap
+    private static final int MAX_SEARCH_WINDOW = 10_000;
+    private static final String SORT_BY_RELEVANCE = "relevance";
+    private static final String SORT_BY_CREATED_AT = "createdAt";
+
     private final BlogService blogService;
+    private final BlogImportService blogImportService;
+    private final BlogExportService blogExportService;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
@@ -62,6 +85,90 @@ public class BlogController {
         }
     }
 
+    @GetMapping("/public/summaries")
+    public ResponseEntity<Page<BlogListItemDto>> getPublishedSummaries(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+        try {
+            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+            Pageable pageable = PageRequest.of(page, size, sort);
+            return ResponseEntity.ok(blogService.getPublishedSummaries(pageable));
+        } catch (Exception e) {
+            log.error("Error fetching published blog summaries: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/public/author/{authorId}/summaries")
+    public ResponseEntity<Page<BlogListItemDto>> getPublishedSummariesByAuthor(
+            @PathVariable Long authorId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDir) {
+        try {
+            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+            Pageable pageable = PageRequest.of(page, size, sort);
+            return ResponseEntity.ok(blogService.getPublishedSummariesByAuthor(authorId, pageable));
+        } catch (Exception e) {
+            log.error("Error fetching blog summaries by author: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/public/feed")
+    public ResponseEntity<CursorPageDto<BlogResponseDto>> getPublishedFeed(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        if (size < 1 || size > MAX_FEED_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(blogService.getPublishedFeed(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error fetching published feed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/public/trending")
+    public ResponseEntity<List<BlogResponseDto>> getTrendingBlogs(
+            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_TRENDING_LIMIT) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(blogService.getTrendingBlogs(limit));
+        } catch (Exception e) {
+            log.error("Error fetching trending blogs: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/public/author/{authorId}/feed")
+    public ResponseEntity<CursorPageDto<BlogResponseDto>> getAuthorFeed(
+            @PathVariable Long authorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        if (size < 1 || size > MAX_FEED_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(blogService.getAuthorFeed(authorId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error fetching author feed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     public ResponseEntity<Page<BlogResponseDto>> getAllBlogs(
@@ -157,9 +264,12 @@ public class BlogController {
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = SORT_BY_RELEVANCE) String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir,
             @RequestHeader("Authorization") String token) {
+        if (!isValidSearchPage(page, size, sortBy)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
             Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
@@ -177,8 +287,11 @@ public class BlogController {
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = SORT_BY_RELEVANCE) String sortBy,
             @RequestParam(defaultValue = "desc") String sortDir) {
+        if (!isValidSearchPage(page, size, sortBy)) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
             Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
@@ -227,4 +340,61 @@ public class BlogController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @PostMapping(value = "/admin/import", consumes = {"application/x-ndjson", "application/json", "text/plain"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BlogImportResultDto> importBlogs(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "false") boolean suppressEvents,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+        if (!blogService.isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        try {
+            return ResponseEntity.ok(blogImportService.importNdjson(request.getInputStream(), !suppressEvents));
+        } catch (Exception e) {
+            log.error("Error importing blogs: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/admin/imports")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<BlogImportResultDto>> getImports(
+            @RequestHeader(value = "Authorization", required = false) String token) {
+        if (!blogService.isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(blogImportService.getImports());
+    }
+
+    @GetMapping(value = "/admin/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportBlogs(
+            @RequestParam(required = false) Long authorId,
+            @RequestParam(required = false) Boolean published,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestHeader(value = "Authorization", required = false) String token) {
+        if (!blogService.isAdmin(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        StreamingResponseBody body = out -> blogExportService.export(authorId, published, from, to, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"blogs.ndjson\"")
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * Search ranks by relevance or sorts by creation date only, and pages no deeper than
+     * {@link #MAX_SEARCH_WINDOW} results.
+     */
+    private boolean isValidSearchPage(int page, int size, String sortBy) {
+        if (!SORT_BY_RELEVANCE.equals(sortBy) && !SORT_BY_CREATED_AT.equals(sortBy)) {
+            return false;
+        }
+        return page >= 0 && size >= 1 && size <= MAX_SEARCH_PAGE_SIZE
+                && (long) page * size + size <= MAX_SEARCH_WINDOW;
+    }
 }
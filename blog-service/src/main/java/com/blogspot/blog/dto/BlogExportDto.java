@@ -0,0 +1,30 @@
+package com.blogspot.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One line of a blog export. A superset of {@link BlogImportDto}, so an export can be
+ * fed back into the bulk import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlogExportDto {
+    private Long id;
+    private String title;
+    private String content;
+    private String summary;
+    private List<String> imageUrls;
+    private Long authorId;
+    private String authorUsername;
+    private Boolean isPublished;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
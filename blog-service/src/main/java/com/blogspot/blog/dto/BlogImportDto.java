@@ -0,0 +1,28 @@
+package com.blogspot.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One line of a bulk import. Unlike {@link BlogCreateDto} the author is given explicitly,
+ * and the original publish state and creation date may be carried over.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlogImportDto {
+    private String title;
+    private String content;
+    private String summary;
+    private List<String> imageUrls;
+    private Long authorId;
+    private String authorUsername;
+    private Boolean isPublished;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,38 @@
+package com.blogspot.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of a bulk import; also the final report once {@code running} is false.
+ * Only the first errors are listed, {@code failed} counts all of them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlogImportResultDto {
+    private String importId;
+    private boolean running;
+    private LocalDateTime startedAt;
+    private long linesRead;
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+    @Builder.Default
+    private List<LineError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
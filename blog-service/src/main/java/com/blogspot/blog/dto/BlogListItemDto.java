@@ -0,0 +1,29 @@
+package com.blogspot.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compact list representation of a blog, without content or images.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlogListItemDto {
+    private Long id;
+    private String title;
+    private String summary;
+    private Long authorId;
+    private String authorUsername;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Boolean isPublished;
+    private Integer likeCount;
+    private Integer commentCount;
+    private Integer viewCount;
+}
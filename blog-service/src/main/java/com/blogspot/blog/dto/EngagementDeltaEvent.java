@@ -0,0 +1,15 @@
+package com.blogspot.blog.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO representing a change in a blog's engagement, consumed from Kafka.
+ * Published by engagement-service after every committed like, unlike, view and comment write.
+ */
+public record EngagementDeltaEvent(
+        @JsonProperty("blogId") String blogId,
+        @JsonProperty("type") String type,
+        @JsonProperty("delta") int delta,
+        @JsonProperty("occurredAt") long occurredAt
+) {
+}
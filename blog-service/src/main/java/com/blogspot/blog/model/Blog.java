@@ -5,12 +5,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "blogs")
+@Table(name = "blogs", indexes = {
+    // Back the keyset feeds: (filter columns..., created_at, id) matches their ORDER BY
+    @Index(name = "idx_blogs_published_created", columnList = "is_published, created_at, id"),
+    @Index(name = "idx_blogs_author_published_created", columnList = "author_id, is_published, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,6 +35,11 @@ public class Blog {
     @Column(columnDefinition = "TEXT")
     private String summary;
 
+    // True when summary is an excerpt of the content rather than written by the author;
+    // such a summary is regenerated whenever the blog is updated
+    @Column(name = "summary_generated")
+    private Boolean summaryGenerated;
+
     @Column(name = "author_id", nullable = false)
     private Long authorId;
 
@@ -49,6 +59,7 @@ public class Blog {
     @ElementCollection
     @CollectionTable(name = "blog_images", joinColumns = @JoinColumn(name = "blog_id"))
     @Column(name = "image_url", columnDefinition = "TEXT")
+    @BatchSize(size = 50)
     private List<String> imageUrls;
 
     // Engagement counts are now handled by engagement-service
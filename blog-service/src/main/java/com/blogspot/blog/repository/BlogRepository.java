@@ -1,20 +1,27 @@
 package com.blogspot.blog.repository;
 
 import com.blogspot.blog.model.Blog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BlogRepository extends JpaRepository<Blog, Long> {
 
     Page<Blog> findByIsPublishedTrue(Pageable pageable);
+
+    long countByIsPublishedTrue();
     
     Page<Blog> findByAuthorId(Long authorId, Pageable pageable);
     
@@ -29,4 +36,65 @@ public interface BlogRepository extends JpaRepository<Blog, Long> {
     Optional<Blog> findByIdAndIsPublishedTrue(Long id);
     
     boolean existsByIdAndAuthorId(Long id, Long authorId);
+
+    // List projections that skip the content column and images
+    @Query(value = "SELECT b.id AS id, b.title AS title, b.summary AS summary, b.authorId AS authorId, " +
+                   "b.authorUsername AS authorUsername, b.createdAt AS createdAt, b.updatedAt AS updatedAt, " +
+                   "b.isPublished AS isPublished FROM Blog b WHERE b.isPublished = true",
+           countQuery = "SELECT COUNT(b) FROM Blog b WHERE b.isPublished = true")
+    Page<BlogSummaryView> findPublishedSummaries(Pageable pageable);
+
+    @Query(value = "SELECT b.id AS id, b.title AS title, b.summary AS summary, b.authorId AS authorId, " +
+                   "b.authorUsername AS authorUsername, b.createdAt AS createdAt, b.updatedAt AS updatedAt, " +
+                   "b.isPublished AS isPublished FROM Blog b WHERE b.authorId = :authorId AND b.isPublished = true",
+           countQuery = "SELECT COUNT(b) FROM Blog b WHERE b.authorId = :authorId AND b.isPublished = true")
+    Page<BlogSummaryView> findPublishedSummariesByAuthor(@Param("authorId") Long authorId, Pageable pageable);
+
+    // Keyset (cursor) feeds ordered by createdAt desc, id desc. The Pageable only carries the limit.
+    @Query("SELECT b FROM Blog b WHERE b.isPublished = true ORDER BY b.createdAt DESC, b.id DESC")
+    List<Blog> findPublishedFeed(Pageable pageable);
+
+    @Query("SELECT b FROM Blog b WHERE b.isPublished = true " +
+           "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Blog> findPublishedFeedAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT b FROM Blog b WHERE b.authorId = :authorId AND b.isPublished = true ORDER BY b.createdAt DESC, b.id DESC")
+    List<Blog> findAuthorFeed(@Param("authorId") Long authorId, Pageable pageable);
+
+    @Query("SELECT b FROM Blog b WHERE b.authorId = :authorId AND b.isPublished = true " +
+           "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Blog> findAuthorFeedAfter(@Param("authorId") Long authorId, @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id, Pageable pageable);
+
+    // Batched scans used to build and catch up the search index
+    List<Blog> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<Blog> findByUpdatedAtAfterAndIdGreaterThanOrderByIdAsc(LocalDateTime updatedAt, Long id, Pageable pageable);
+
+    @Query("SELECT b.id FROM Blog b")
+    List<Long> findAllIds();
+
+    /**
+     * Streams matching blogs with their images in id order for export. Null filters match
+     * everything. Ordering by id keeps the joined image rows of a blog adjacent, which is
+     * what lets Hibernate assemble each blog while streaming. The MySQL driver streams rows one at a time (fetch size
+     * {@code Integer.MIN_VALUE}), so the result set is never buffered; the stream must be
+     * consumed inside a transaction and closed.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Blog b LEFT JOIN FETCH b.imageUrls " +
+           "WHERE (:authorId IS NULL OR b.authorId = :authorId) " +
+           "AND (:published IS NULL OR b.isPublished = :published) " +
+           "AND (:from IS NULL OR b.createdAt >= :from) " +
+           "AND (:to IS NULL OR b.createdAt < :to) " +
+           "ORDER BY b.id")
+    Stream<Blog> streamForExport(@Param("authorId") Long authorId,
+                                 @Param("published") Boolean published,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to);
 }
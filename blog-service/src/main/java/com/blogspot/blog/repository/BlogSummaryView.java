@@ -0,0 +1,18 @@
+package com.blogspot.blog.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the columns needed to render a blog in a list. Queries returning
+ * this never read {@code content} or the {@code blog_images} collection.
+ */
+public interface BlogSummaryView {
+    Long getId();
+    String getTitle();
+    String getSummary();
+    Long getAuthorId();
+    String getAuthorUsername();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+    Boolean getIsPublished();
+}
@@ -0,0 +1,47 @@
+package com.blogspot.blog.search;
+
+import com.blogspot.blog.model.Blog;
+
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Forward-index entry for a single blog: the fields needed for filtering and
+ * sorting plus its term frequencies, so the document can be removed from the
+ * posting lists when it is updated or deleted.
+ */
+public record IndexedDocument(
+        long id,
+        boolean published,
+        long createdAt,
+        int length,
+        Map<String, Integer> termFrequencies
+) {
+
+    /** Title terms count more than body terms when ranking. */
+    static final int TITLE_WEIGHT = 3;
+
+    public static IndexedDocument of(Blog blog) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : Tokenizer.tokenize(blog.getTitle())) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String term : Tokenizer.tokenize(blog.getContent())) {
+            frequencies.merge(term, 1, Integer::sum);
+            length++;
+        }
+        long createdAt = blog.getCreatedAt() != null
+                ? blog.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli()
+                : 0L;
+        return new IndexedDocument(
+                blog.getId(),
+                Boolean.TRUE.equals(blog.getIsPublished()),
+                createdAt,
+                length,
+                frequencies
+        );
+    }
+}
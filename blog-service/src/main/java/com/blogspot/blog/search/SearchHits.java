@@ -0,0 +1,9 @@
+package com.blogspot.blog.search;
+
+import java.util.List;
+
+/**
+ * One page of matching blog ids, in rank order, plus the total number of matches.
+ */
+public record SearchHits(List<Long> ids, long total) {
+}
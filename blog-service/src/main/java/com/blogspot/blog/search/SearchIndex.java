@@ -0,0 +1,201 @@
+package com.blogspot.blog.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over blog titles and content.
+ * <p>
+ * Each term maps to a posting list of (blog id, term frequency). Queries require
+ * every query term to match and are ranked with BM25. Documents are replaced
+ * wholesale on update, using the forward index to drop their old postings.
+ */
+public class SearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private long totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(IndexedDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.id());
+            documents.put(document.id(), document);
+            totalLength += document.length();
+            document.termFrequencies().forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(document.id(), frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(long id) {
+        IndexedDocument existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        totalLength -= existing.length();
+        for (String term : existing.termFrequencies().keySet()) {
+            Map<Long, Integer> list = postings.get(term);
+            if (list != null) {
+                list.remove(id);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Set<Long> documentIds() {
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(documents.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a point-in-time copy of all documents, e.g. for writing a segment file.
+     * Documents themselves are never mutated once indexed, so a shallow copy is enough.
+     */
+    public List<IndexedDocument> snapshot() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(documents.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchHits search(String query, boolean publishedOnly, SearchOrder order, int offset, int limit) {
+        if (offset < 0 || offset > Integer.MAX_VALUE - Math.max(limit, 0)) {
+            throw new IllegalArgumentException("Search offset out of range: " + offset);
+        }
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return new SearchHits(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<Long, Integer> list = postings.get(term);
+                if (list == null) {
+                    return new SearchHits(List.of(), 0);
+                }
+                lists.add(list);
+            }
+            // Drive the intersection from the rarest term
+            lists.sort(Comparator.comparingInt(Map::size));
+
+            int docCount = documents.size();
+            double avgLength = docCount == 0 ? 0 : (double) totalLength / docCount;
+            double[] idf = new double[lists.size()];
+            for (int i = 0; i < lists.size(); i++) {
+                int df = lists.get(i).size();
+                idf[i] = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+            }
+
+            Comparator<Hit> comparator = comparator(order);
+            int window = offset + limit;
+            // Min-heap of the best `window` hits seen so far, worst hit at the head
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(window, 1024) + 1, comparator.reversed());
+            long total = 0;
+
+            candidates:
+            for (Map.Entry<Long, Integer> candidate : lists.get(0).entrySet()) {
+                IndexedDocument document = documents.get(candidate.getKey());
+                if (publishedOnly && !document.published()) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * (avgLength == 0 ? 1 : document.length() / avgLength));
+                double score = 0;
+                for (int i = 0; i < lists.size(); i++) {
+                    Integer frequency = i == 0 ? candidate.getValue() : lists.get(i).get(document.id());
+                    if (frequency == null) {
+                        continue candidates;
+                    }
+                    score += idf[i] * (frequency * (K1 + 1)) / (frequency + norm);
+                }
+                total++;
+                top.offer(new Hit(document.id(), score, document.createdAt()));
+                if (top.size() > window) {
+                    top.poll();
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(comparator);
+            List<Long> ids = new ArrayList<>(Math.max(0, ranked.size() - offset));
+            for (int i = offset; i < ranked.size(); i++) {
+                ids.add(ranked.get(i).id());
+            }
+            return new SearchHits(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void putAll(Collection<IndexedDocument> documents) {
+        for (IndexedDocument document : documents) {
+            put(document);
+        }
+    }
+
+    private static Comparator<Hit> comparator(SearchOrder order) {
+        Comparator<Hit> byId = Comparator.comparingLong(Hit::id).reversed();
+        return switch (order) {
+            case NEWEST -> Comparator.comparingLong(Hit::createdAt).reversed().thenComparing(byId);
+            case OLDEST -> Comparator.comparingLong(Hit::createdAt).thenComparing(Comparator.comparingLong(Hit::id));
+            default -> Comparator.comparingDouble(Hit::score).reversed().thenComparing(byId);
+        };
+    }
+
+    private record Hit(long id, double score, long createdAt) {
+    }
+}
@@ -0,0 +1,168 @@
+package com.blogspot.blog.search;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Persists the search index as segment files in a local directory.
+ * <p>
+ * Each segment is a full snapshot: a term dictionary followed by every document's
+ * forward-index entry, with terms stored as dictionary ordinals. Segments are
+ * written to a temporary file and atomically moved into place; older segments are
+ * deleted once a newer one has been written.
+ */
+@Slf4j
+public class SearchIndexStore {
+
+    private static final int MAGIC = 0x424C4958; // "BLIX"
+    private static final int VERSION = 1;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+
+    public SearchIndexStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public record Segment(long snapshotAt, List<IndexedDocument> documents) {
+    }
+
+    public Optional<Segment> loadLatest() {
+        Optional<Path> latest = latestSegment();
+        if (latest.isEmpty()) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(latest.get())))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.warn("Ignoring search index segment {} with unknown format", latest.get());
+                return Optional.empty();
+            }
+            long snapshotAt = in.readLong();
+
+            int termCount = in.readInt();
+            String[] terms = new String[termCount];
+            for (int i = 0; i < termCount; i++) {
+                terms[i] = in.readUTF();
+            }
+
+            int documentCount = in.readInt();
+            List<IndexedDocument> documents = new ArrayList<>(documentCount);
+            for (int i = 0; i < documentCount; i++) {
+                long id = in.readLong();
+                boolean published = in.readBoolean();
+                long createdAt = in.readLong();
+                int length = in.readInt();
+                int distinctTerms = in.readInt();
+                Map<String, Integer> frequencies = new HashMap<>(distinctTerms * 2);
+                for (int j = 0; j < distinctTerms; j++) {
+                    frequencies.put(terms[in.readInt()], in.readInt());
+                }
+                documents.add(new IndexedDocument(id, published, createdAt, length, frequencies));
+            }
+            return Optional.of(new Segment(snapshotAt, documents));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to read search index segment {}: {}", latest.get(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void write(long snapshotAt, Collection<IndexedDocument> documents) throws IOException {
+        Files.createDirectories(directory);
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (IndexedDocument document : documents) {
+            for (String term : document.termFrequencies().keySet()) {
+                dictionary.putIfAbsent(term, dictionary.size());
+            }
+        }
+
+        Path temp = Files.createTempFile(directory, PREFIX, ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(snapshotAt);
+
+                out.writeInt(dictionary.size());
+                for (String term : dictionary.keySet()) {
+                    out.writeUTF(term);
+                }
+
+                out.writeInt(documents.size());
+                for (IndexedDocument document : documents) {
+                    out.writeLong(document.id());
+                    out.writeBoolean(document.published());
+                    out.writeLong(document.createdAt());
+                    out.writeInt(document.length());
+                    out.writeInt(document.termFrequencies().size());
+                    for (Map.Entry<String, Integer> entry : document.termFrequencies().entrySet()) {
+                        out.writeInt(dictionary.get(entry.getKey()));
+                        out.writeInt(entry.getValue());
+                    }
+                }
+            }
+            Path target = directory.resolve(PREFIX + snapshotAt + SUFFIX);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            deleteOlderThan(target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Optional<Path> latestSegment() {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(SearchIndexStore::isSegment)
+                    .max((a, b) -> Long.compare(generation(a), generation(b)));
+        } catch (IOException e) {
+            log.warn("Failed to list search index directory {}: {}", directory, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void deleteOlderThan(Path current) {
+        long currentGeneration = generation(current);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(SearchIndexStore::isSegment).toList()) {
+                if (generation(file) < currentGeneration) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to clean up old search index segments: {}", e.getMessage());
+        }
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static long generation(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.blogspot.blog.search;
+
+public enum SearchOrder {
+    RELEVANCE,
+    NEWEST,
+    OLDEST
+}
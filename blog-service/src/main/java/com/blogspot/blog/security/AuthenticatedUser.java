@@ -0,0 +1,25 @@
+package com.blogspot.blog.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Principal built from verified JWT claims. Carries the user id and role so
+ * that authorization checks don't need a round trip to user-service.
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+    private final String role;
+
+    public AuthenticatedUser(Long id, String username, String role,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, "", authorities);
+        this.id = id;
+        this.role = role;
+    }
+}
@@ -2,6 +2,7 @@ package com.blogspot.blog.security;
 
 import com.blogspot.blog.dto.UserDto;
 import com.blogspot.blog.service.UserServiceClient;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -40,4 +41,23 @@ public class CustomUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("User not found: " + username);
         }
     }
+
+    /**
+     * Builds the principal from verified token claims. Tokens issued before user id and
+     * role claims were added fall back to {@link #loadUserByUsername(String)}.
+     */
+    public UserDetails loadUserFromClaims(Claims claims) {
+        String username = claims.getSubject();
+        Number userId = claims.get(JwtService.USER_ID_CLAIM, Number.class);
+        String role = claims.get(JwtService.ROLE_CLAIM, String.class);
+        if (userId == null || role == null) {
+            return loadUserByUsername(username);
+        }
+        return new AuthenticatedUser(
+                userId.longValue(),
+                username,
+                role,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
+        );
+    }
 }
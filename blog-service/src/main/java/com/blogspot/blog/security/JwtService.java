@@ -16,6 +16,9 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String ROLE_CLAIM = "role";
+
     @Value("${spring.security.oauth2.jwt.secret}")
     private String secretKey;
 
@@ -55,7 +58,10 @@ public class JwtService {
         return extractClaim(token, Claims::getExpiration);
     }
 
-    private Claims extractAllClaims(String token) {
+    /**
+     * Parses the token and returns its claims. The signature and expiry are verified during this process.
+     */
+    public Claims extractAllClaims(String token) {
         return Jwts.parserBuilder()
                 .setSigningKey(getSignInKey())
                 .build()
@@ -0,0 +1,294 @@
+package com.blogspot.blog.service;
+
+import com.blogspot.blog.dto.BlogImportDto;
+import com.blogspot.blog.dto.BlogImportResultDto;
+import com.blogspot.blog.dto.NewBlogPostEvent;
+import com.blogspot.blog.model.Blog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bulk-loads blogs from newline-delimited JSON, one {@link BlogImportDto} per line.
+ * <p>
+ * The body is read line by line and written in chunks of {@code blog.import.chunk-size}
+ * blogs, each chunk in its own transaction using JDBC batch inserts for {@code blogs},
+ * {@code blog_images} and (unless suppressed) the outbox. Memory use is bounded by the
+ * chunk size regardless of the body size. Invalid lines are reported and skipped; a chunk
+ * the database rejects is reported line by line and the import carries on.
+ */
+@Service
+@Slf4j
+public class BlogImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int TITLE_MAX_LENGTH = 255;
+
+    private static final String INSERT_BLOG =
+            "INSERT INTO blogs (title, content, summary, summary_generated, author_id, author_username, created_at, "
+                    + "updated_at, is_published) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_IMAGE = "INSERT INTO blog_images (blog_id, image_url) VALUES (?, ?)";
+    private static final String INSERT_OUTBOX =
+            "INSERT INTO outbox_events (topic, message_key, payload, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final BlogSearchService blogSearchService;
+    private final FeedCacheService feedCacheService;
+    private final int chunkSize;
+
+    private final Map<String, Progress> imports = new ConcurrentHashMap<>();
+
+    public BlogImportService(JdbcTemplate jdbcTemplate,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             BlogSearchService blogSearchService,
+                             FeedCacheService feedCacheService,
+                             @Value("${blog.import.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.blogSearchService = blogSearchService;
+        this.feedCacheService = feedCacheService;
+        this.chunkSize = chunkSize;
+    }
+
+    private static class Progress {
+        final String importId = UUID.randomUUID().toString();
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startNanos = System.nanoTime();
+        final List<BlogImportResultDto.LineError> errors = Collections.synchronizedList(new ArrayList<>());
+        volatile boolean running = true;
+        volatile long linesRead;
+        volatile long imported;
+        volatile long failed;
+        volatile long elapsedMillis;
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BlogImportResultDto.LineError(line, message));
+            }
+        }
+
+        BlogImportResultDto toDto() {
+            List<BlogImportResultDto.LineError> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = new ArrayList<>(errors);
+            }
+            return BlogImportResultDto.builder()
+                    .importId(importId)
+                    .running(running)
+                    .startedAt(startedAt)
+                    .linesRead(linesRead)
+                    .imported(imported)
+                    .failed(failed)
+                    .elapsedMillis(running ? (System.nanoTime() - startNanos) / 1_000_000 : elapsedMillis)
+                    .errors(errorsCopy)
+                    .build();
+        }
+    }
+
+    private record ParsedLine(long line, BlogImportDto blog) {
+    }
+
+    /**
+     * Imports every line of {@code body}. Runs on the calling thread; progress is visible
+     * through {@link #getImports()} while it runs.
+     */
+    public BlogImportResultDto importNdjson(InputStream body, boolean publishEvents) throws IOException {
+        Progress progress = new Progress();
+        // Keep only the finished report of the previous imports around
+        imports.values().removeIf(previous -> !previous.running);
+        imports.put(progress.importId, progress);
+        log.info("Starting blog import {} (publishEvents={})", progress.importId, publishEvents);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<ParsedLine> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                progress.linesRead = lineNumber;
+                if (line.isBlank()) {
+                    continue;
+                }
+                BlogImportDto blog;
+                try {
+                    blog = objectMapper.readValue(line, BlogImportDto.class);
+                } catch (JsonProcessingException e) {
+                    progress.fail(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                    continue;
+                }
+                String invalid = validate(blog);
+                if (invalid != null) {
+                    progress.fail(lineNumber, invalid);
+                    continue;
+                }
+                chunk.add(new ParsedLine(lineNumber, blog));
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, publishEvents, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, publishEvents, progress);
+            }
+        } finally {
+            progress.elapsedMillis = (System.nanoTime() - progress.startNanos) / 1_000_000;
+            progress.running = false;
+            if (progress.imported > 0) {
+                feedCacheService.invalidate();
+            }
+            log.info("Finished blog import {}: {} imported, {} failed in {} ms",
+                    progress.importId, progress.imported, progress.failed, progress.elapsedMillis);
+        }
+        return progress.toDto();
+    }
+
+    public List<BlogImportResultDto> getImports() {
+        return imports.values().stream().map(Progress::toDto).toList();
+    }
+
+    private void writeChunk(List<ParsedLine> chunk, boolean publishEvents, Progress progress) {
+        try {
+            List<Blog> written = transactionTemplate.execute(status -> insertChunk(chunk, publishEvents));
+            progress.imported += written.size();
+        } catch (Exception e) {
+            String message = "Batch insert failed: " + e.getMessage();
+            for (ParsedLine parsed : chunk) {
+                progress.fail(parsed.line(), message);
+            }
+            log.warn("Blog import {} failed to write lines {}-{}: {}", progress.importId,
+                    chunk.get(0).line(), chunk.get(chunk.size() - 1).line(), e.getMessage());
+            return;
+        }
+        log.debug("Blog import {}: {} lines read, {} imported, {} failed",
+                progress.importId, progress.linesRead, progress.imported, progress.failed);
+    }
+
+    private List<Blog> insertChunk(List<ParsedLine> chunk, boolean publishEvents) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Blog> blogs = new ArrayList<>(chunk.size());
+        for (ParsedLine parsed : chunk) {
+            BlogImportDto dto = parsed.blog();
+            LocalDateTime createdAt = dto.getCreatedAt() != null ? dto.getCreatedAt() : now;
+            Blog blog = Blog.builder()
+                    .title(dto.getTitle())
+                    .content(dto.getContent())
+                    .authorId(dto.getAuthorId())
+                    .authorUsername(dto.getAuthorUsername())
+                    .createdAt(createdAt)
+                    .updatedAt(createdAt)
+                    .isPublished(dto.getIsPublished() == null || dto.getIsPublished())
+                    .imageUrls(dto.getImageUrls())
+                    .build();
+            BlogService.applySummary(blog, dto.getSummary());
+            blogs.add(blog);
+        }
+
+        // Connector/J returns the generated keys of a batched multi-row insert in row order
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_BLOG, Statement.RETURN_GENERATED_KEYS)) {
+                for (Blog blog : blogs) {
+                    statement.setString(1, blog.getTitle());
+                    statement.setString(2, blog.getContent());
+                    statement.setString(3, blog.getSummary());
+                    statement.setBoolean(4, blog.getSummaryGenerated());
+                    statement.setLong(5, blog.getAuthorId());
+                    statement.setString(6, blog.getAuthorUsername());
+                    statement.setTimestamp(7, Timestamp.valueOf(blog.getCreatedAt()));
+                    statement.setTimestamp(8, Timestamp.valueOf(blog.getUpdatedAt()));
+                    statement.setBoolean(9, blog.getIsPublished());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (Blog blog : blogs) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("Missing generated id for imported blog");
+                        }
+                        blog.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+
+        List<Object[]> images = new ArrayList<>();
+        List<Object[]> events = new ArrayList<>();
+        Timestamp createdAt = Timestamp.valueOf(now);
+        for (Blog blog : blogs) {
+            if (blog.getImageUrls() != null) {
+                for (String url : blog.getImageUrls()) {
+                    images.add(new Object[]{blog.getId(), url});
+                }
+            }
+            if (publishEvents && blog.getIsPublished()) {
+                events.add(new Object[]{OutboxService.NEW_BLOG_POSTS_TOPIC, blog.getId().toString(),
+                        toPayload(blog), createdAt});
+            }
+        }
+        if (!images.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IMAGE, images);
+        }
+        if (!events.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_OUTBOX, events);
+        }
+        for (Blog blog : blogs) {
+            blogSearchService.indexAfterCommit(blog);
+        }
+        return blogs;
+    }
+
+    private String toPayload(Blog blog) {
+        try {
+            return objectMapper.writeValueAsString(new NewBlogPostEvent(
+                    blog.getId().toString(), blog.getAuthorId().toString(), blog.getTitle()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize new blog post event", e);
+        }
+    }
+
+    private static String validate(BlogImportDto blog) {
+        if (blog.getTitle() == null || blog.getTitle().isBlank()) {
+            return "Title is required";
+        }
+        if (blog.getTitle().length() > TITLE_MAX_LENGTH) {
+            return "Title must be at most " + TITLE_MAX_LENGTH + " characters";
+        }
+        if (blog.getContent() == null || blog.getContent().isBlank()) {
+            return "Content is required";
+        }
+        if (blog.getAuthorId() == null) {
+            return "Author id is required";
+        }
+        if (blog.getAuthorUsername() == null || blog.getAuthorUsername().isBlank()) {
+            return "Author username is required";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,95 @@
+package com.blogspot.blog.service;
+
+import com.blogspot.blog.dto.BlogResponseDto;
+import com.blogspot.blog.dto.BlogStatsDto;
+import com.blogspot.blog.model.Blog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link BlogResponseDto}s, fetching engagement counts for up to 100 blogs per
+ * engagement-service call.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BlogResponseAssembler {
+
+    // Largest id list engagement-service accepts in one stats request
+    private static final int MAX_STATS_BATCH = 100;
+
+    private final EngagementServiceClient engagementServiceClient;
+
+    public List<BlogResponseDto> toResponseDtos(List<Blog> blogs) {
+        Map<Long, BlogStatsDto> stats = fetchStats(blogs.stream().map(Blog::getId).collect(Collectors.toList()));
+        List<BlogResponseDto> dtos = new ArrayList<>(blogs.size());
+        for (Blog blog : blogs) {
+            dtos.add(toResponseDto(blog, stats.get(blog.getId())));
+        }
+        return dtos;
+    }
+
+    public Map<Long, BlogStatsDto> fetchStats(List<Long> blogIds) {
+        if (blogIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (blogIds.size() == 1) {
+            return fetchChunk(blogIds);
+        }
+        // engagement-service answers at most MAX_STATS_BATCH ids per call
+        Map<Long, BlogStatsDto> byBlogId = new HashMap<>();
+        for (int from = 0; from < blogIds.size(); from += MAX_STATS_BATCH) {
+            byBlogId.putAll(fetchChunk(blogIds.subList(from, Math.min(from + MAX_STATS_BATCH, blogIds.size()))));
+        }
+        return byBlogId;
+    }
+
+    private Map<Long, BlogStatsDto> fetchChunk(List<Long> blogIds) {
+        try {
+            List<BlogStatsDto> stats = blogIds.size() == 1
+                    ? Collections.singletonList(engagementServiceClient.getBlogStats(blogIds.get(0)))
+                    : engagementServiceClient.getBlogStats(blogIds);
+            Map<Long, BlogStatsDto> byBlogId = new HashMap<>();
+            if (stats != null) {
+                for (BlogStatsDto stat : stats) {
+                    if (stat != null) {
+                        byBlogId.put(stat.getBlogId(), stat);
+                    }
+                }
+            }
+            return byBlogId;
+        } catch (Exception e) {
+            // Blogs are still returned, without engagement counts, if engagement-service fails
+            log.warn("Failed to fetch engagement counts for {} blogs ({} to {}): {}", blogIds.size(),
+                    blogIds.get(0), blogIds.get(blogIds.size() - 1), e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    public BlogResponseDto toResponseDto(Blog blog, BlogStatsDto stats) {
+        return BlogResponseDto.builder()
+                .id(blog.getId())
+                .title(blog.getTitle())
+                .content(blog.getContent())
+                .summary(blog.getSummary())
+                .authorId(blog.getAuthorId())
+                .authorUsername(blog.getAuthorUsername())
+                .createdAt(blog.getCreatedAt())
+                .updatedAt(blog.getUpdatedAt())
+                .isPublished(blog.getIsPublished())
+                // Copy so the DTO stays usable after the persistence context closes
+                .imageUrls(blog.getImageUrls() != null ? new ArrayList<>(blog.getImageUrls()) : null)
+                .likeCount(stats != null ? (int) stats.getLikeCount() : 0)
+                .viewCount(stats != null ? (int) stats.getViewCount() : 0)
+                .commentCount(stats != null ? (int) stats.getCommentCount() : 0)
+                .build();
+    }
+}
@@ -0,0 +1,202 @@
+package com.blogspot.blog.service;
+
+import com.blogspot.blog.model.Blog;
+import com.blogspot.blog.repository.BlogRepository;
+import com.blogspot.blog.search.IndexedDocument;
+import com.blogspot.blog.search.SearchHits;
+import com.blogspot.blog.search.SearchIndex;
+import com.blogspot.blog.search.SearchIndexStore;
+import com.blogspot.blog.search.SearchOrder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Owns the blog full-text index: loads it from the latest segment file (or rebuilds it
+ * from {@link BlogRepository}) at startup, keeps it in sync with committed blog writes
+ * and periodically snapshots it back to disk.
+ * <p>
+ * Writes committed while the startup scan runs are held back and applied in commit order
+ * once it finishes; otherwise the scan could put a row it read before a newer write over
+ * that write's document.
+ */
+@Service
+@Slf4j
+public class BlogSearchService {
+
+    private static final int BATCH_SIZE = 500;
+
+    // Re-index rows touched shortly before the snapshot was taken; writes committed
+    // while the snapshot was being copied may otherwise be missing from it.
+    private static final long CATCH_UP_MARGIN_MILLIS = 10 * 60 * 1000;
+
+    private final BlogRepository blogRepository;
+    private final SearchIndexStore store;
+    private final SearchIndex index = new SearchIndex();
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private volatile boolean ready;
+
+    // Index updates committed before initialization finished; null once it has
+    private List<Runnable> deferred = new ArrayList<>();
+
+    public BlogSearchService(BlogRepository blogRepository,
+                             @Value("${blog.search.index-dir:data/search-index}") String indexDir) {
+        this.blogRepository = blogRepository;
+        this.store = new SearchIndexStore(Paths.get(indexDir));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public SearchHits search(String query, boolean publishedOnly, SearchOrder order, int page, int size) {
+        return index.search(query, publishedOnly, order, Math.multiplyExact(page, size), size);
+    }
+
+    /**
+     * Indexes the blog once the surrounding transaction commits, so rolled-back writes never
+     * become searchable.
+     */
+    public void indexAfterCommit(Blog blog) {
+        IndexedDocument document = IndexedDocument.of(blog);
+        TransactionHooks.afterCommit(() -> apply(() -> index.put(document)));
+    }
+
+    public void removeAfterCommit(Long blogId) {
+        TransactionHooks.afterCommit(() -> apply(() -> index.remove(blogId)));
+    }
+
+    private void apply(Runnable update) {
+        synchronized (this) {
+            if (deferred != null) {
+                deferred.add(update);
+                return;
+            }
+        }
+        update.run();
+        dirty.set(true);
+    }
+
+    /**
+     * Applies the updates held back during initialization and stops deferring new ones.
+     */
+    private synchronized void replayDeferred() {
+        deferred.forEach(Runnable::run);
+        if (!deferred.isEmpty()) {
+            dirty.set(true);
+        }
+        deferred = null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        long start = System.currentTimeMillis();
+        try {
+            Optional<SearchIndexStore.Segment> segment = store.loadLatest();
+            if (segment.isPresent()) {
+                index.putAll(segment.get().documents());
+                catchUp(segment.get().snapshotAt());
+                log.info("Loaded search index with {} blogs from segment in {} ms",
+                        index.size(), System.currentTimeMillis() - start);
+            } else {
+                rebuild();
+                log.info("Rebuilt search index with {} blogs in {} ms",
+                        index.size(), System.currentTimeMillis() - start);
+            }
+            replayDeferred();
+            ready = true;
+            snapshot();
+        } catch (Exception e) {
+            log.error("Failed to initialize search index, falling back to database search: {}", e.getMessage(), e);
+            synchronized (this) {
+                // The index is not used; stop collecting updates for it
+                deferred = null;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${blog.search.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (!ready || !dirty.getAndSet(false)) {
+            return;
+        }
+        long snapshotAt = System.currentTimeMillis();
+        try {
+            store.write(snapshotAt, index.snapshot());
+            log.debug("Wrote search index segment with {} blogs", index.size());
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Failed to write search index segment: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    private void rebuild() {
+        index.clear();
+        long lastId = 0;
+        List<Blog> batch;
+        do {
+            batch = blogRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, BATCH_SIZE));
+            for (Blog blog : batch) {
+                index.put(IndexedDocument.of(blog));
+                lastId = blog.getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        dirty.set(true);
+    }
+
+    /**
+     * Brings a loaded segment up to date: re-indexes blogs modified since the snapshot and
+     * drops blogs that no longer exist.
+     */
+    private void catchUp(long snapshotAt) {
+        LocalDateTime since = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(snapshotAt - CATCH_UP_MARGIN_MILLIS), ZoneId.systemDefault());
+        long lastId = 0;
+        int updated = 0;
+        List<Blog> batch;
+        do {
+            batch = blogRepository.findByUpdatedAtAfterAndIdGreaterThanOrderByIdAsc(
+                    since, lastId, PageRequest.of(0, BATCH_SIZE));
+            for (Blog blog : batch) {
+                index.put(IndexedDocument.of(blog));
+                lastId = blog.getId();
+                updated++;
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        Set<Long> existing = new HashSet<>(blogRepository.findAllIds());
+        int removed = 0;
+        for (Long id : index.documentIds()) {
+            if (!existing.contains(id)) {
+                index.remove(id);
+                removed++;
+            }
+        }
+        if (updated > 0 || removed > 0) {
+            dirty.set(true);
+        }
+        log.info("Search index catch-up: {} blogs re-indexed, {} removed", updated, removed);
+    }
+}
@@ -1,33 +1,58 @@
 package com.blogspot.blog.service;
 
 import com.blogspot.blog.dto.BlogCreateDto;
+import com.blogspot.blog.dto.BlogListItemDto;
 import com.blogspot.blog.dto.BlogResponseDto;
+import com.blogspot.blog.dto.BlogStatsDto;
 import com.blogspot.blog.dto.BlogUpdateDto;
+import com.blogspot.blog.dto.CursorPageDto;
+import com.blogspot.blog.dto.FeedCursor;
 import com.blogspot.blog.dto.NewBlogPostEvent;
 import com.blogspot.blog.dto.UserDto;
 import com.blogspot.blog.exception.BlogNotFoundException;
 import com.blogspot.blog.exception.UnauthorizedAccessException;
 import com.blogspot.blog.model.Blog;
 import com.blogspot.blog.repository.BlogRepository;
+import com.blogspot.blog.repository.BlogSummaryView;
+import com.blogspot.blog.search.SearchHits;
+import com.blogspot.blog.search.SearchOrder;
+import com.blogspot.blog.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BlogService {
 
+    private static final int EXCERPT_LENGTH = 200;
+    private static final Pattern HTML_TAG = Pattern.compile("<[^>]*>");
+
     private final BlogRepository blogRepository;
     private final UserServiceClient userServiceClient;
-    private final EngagementServiceClient engagementServiceClient;
-    private final KafkaTemplate<String, NewBlogPostEvent> kafkaTemplate;
+    private final BlogResponseAssembler blogResponseAssembler;
+    private final BlogSearchService blogSearchService;
+    private final FeedCacheService feedCacheService;
+    private final TrendingService trendingService;
+    private final OutboxService outboxService;
 
     /**
      * Helper method to format the Authorization header properly
@@ -43,6 +68,45 @@ public class BlogService {
         }
         return "Bearer " + cleanToken;
     }
+
+    /**
+     * Resolves the caller from the principal the JWT filter builds out of the token's
+     * user id and role claims. Only tokens without those claims fall back to user-service.
+     */
+    private UserDto resolveUser(String token) {
+        String authHeader = formatAuthorizationHeader(token);
+        if (authHeader == null) {
+            return null;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return UserDto.builder()
+                    .id(principal.getId())
+                    .username(principal.getUsername())
+                    .role(principal.getRole())
+                    .build();
+        }
+        ResponseEntity<UserDto> userResponse = userServiceClient.getUserProfile(authHeader);
+        if (userResponse.getStatusCode().is2xxSuccessful()) {
+            return userResponse.getBody();
+        }
+        return null;
+    }
+
+    /**
+     * Whether the caller is an admin. Admin endpoints check this themselves: method
+     * security is not enabled in this service, so {@code @PreAuthorize} is not enforced.
+     */
+    public boolean isAdmin(String token) {
+        try {
+            UserDto user = resolveUser(token);
+            return user != null && "ADMIN".equals(user.getRole());
+        } catch (Exception e) {
+            log.warn("Could not resolve caller for admin check: {}", e.getMessage());
+            return false;
+        }
+    }
+
     @Transactional(readOnly = true)
     public Blog findAnyById(Long id) {
         try {
@@ -56,41 +120,34 @@ public class BlogService {
     @Transactional
     public BlogResponseDto createBlog(BlogCreateDto blogCreateDto, String token) {
         try {
-            String authHeader = formatAuthorizationHeader(token);
-            ResponseEntity<UserDto> userResponse = userServiceClient.getUserProfile(authHeader);
-            if (userResponse.getStatusCode().is2xxSuccessful() && userResponse.getBody() != null) {
-                UserDto user = userResponse.getBody();
+            UserDto user = resolveUser(token);
+            if (user != null) {
                 
                 Blog blog = Blog.builder()
                         .title(blogCreateDto.getTitle())
                         .content(blogCreateDto.getContent())
-                        .summary(blogCreateDto.getSummary())
                         .imageUrls(blogCreateDto.getImageUrls())
                         .authorId(user.getId())
                         .authorUsername(user.getUsername())
                         .isPublished(true)
                         // Engagement counts are handled by engagement-service
                         .build();
+                applySummary(blog, blogCreateDto.getSummary());
 
                 Blog savedBlog = blogRepository.save(blog);
+                blogSearchService.indexAfterCommit(savedBlog);
                 
-                // Publish new blog post event to Kafka
-                try {
-                    NewBlogPostEvent event = new NewBlogPostEvent(
-                            savedBlog.getId().toString(),
-                            savedBlog.getAuthorId().toString(),
-                            savedBlog.getTitle()
-                    );
-                    kafkaTemplate.send("new-blog-posts", event);
-                    log.info("Published new blog post event for blog: {} by author: {}", 
-                            savedBlog.getId(), savedBlog.getAuthorId());
-                } catch (Exception e) {
-                    log.error("Failed to publish new blog post event for blog: {}. Error: {}", 
-                            savedBlog.getId(), e.getMessage(), e);
-                    // Don't fail the blog creation if Kafka publishing fails
-                }
-                
-                return convertToResponseDto(savedBlog);
+                // Published to Kafka by the outbox relay once this transaction commits
+                outboxService.enqueue(OutboxService.NEW_BLOG_POSTS_TOPIC, savedBlog.getId().toString(),
+                        new NewBlogPostEvent(
+                                savedBlog.getId().toString(),
+                                savedBlog.getAuthorId().toString(),
+                                savedBlog.getTitle()
+                        ));
+
+                BlogResponseDto response = convertToResponseDto(savedBlog);
+                feedCacheService.onBlogSaved(response, false);
+                return response;
             } else {
                 throw new UnauthorizedAccessException("Invalid token or user not found");
             }
@@ -102,21 +159,81 @@ public class BlogService {
 
     @Transactional(readOnly = true)
     public Page<BlogResponseDto> getAllPublishedBlogs(Pageable pageable) {
+        pageable = withIdTieBreak(pageable);
+        Page<BlogResponseDto> cached = feedCacheService.getPage(pageable);
+        if (cached != null) {
+            return cached;
+        }
         Page<Blog> blogs = blogRepository.findByIsPublishedTrue(pageable);
-        return blogs.map(this::convertToResponseDto);
+        return convertPage(blogs);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BlogListItemDto> getPublishedSummaries(Pageable pageable) {
+        return convertSummaryPage(blogRepository.findPublishedSummaries(pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<BlogListItemDto> getPublishedSummariesByAuthor(Long authorId, Pageable pageable) {
+        return convertSummaryPage(blogRepository.findPublishedSummariesByAuthor(authorId, pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<BlogResponseDto> getPublishedFeed(String cursor, int size) {
+        // Fetch one extra row to learn whether another slice exists, without a COUNT query
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Blog> blogs;
+        if (cursor == null || cursor.isBlank()) {
+            blogs = blogRepository.findPublishedFeed(limit);
+        } else {
+            FeedCursor position = FeedCursor.decode(cursor);
+            blogs = blogRepository.findPublishedFeedAfter(position.createdAt(), position.id(), limit);
+        }
+        return toCursorPage(blogs, size);
+    }
+
+    /**
+     * Returns the hottest published blogs by time-decayed engagement. The ranking is read
+     * with some headroom because it may still hold blogs that were unpublished since.
+     */
+    @Transactional(readOnly = true)
+    public List<BlogResponseDto> getTrendingBlogs(int limit) {
+        List<Long> ids = trendingService.topBlogIds(limit * 2);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Blog> byId = blogRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Blog::getId, Function.identity()));
+        List<Blog> blogs = ids.stream()
+                .map(byId::get)
+                .filter(blog -> blog != null && Boolean.TRUE.equals(blog.getIsPublished()))
+                .limit(limit)
+                .collect(Collectors.toList());
+        return blogResponseAssembler.toResponseDtos(blogs);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageDto<BlogResponseDto> getAuthorFeed(Long authorId, String cursor, int size) {
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Blog> blogs;
+        if (cursor == null || cursor.isBlank()) {
+            blogs = blogRepository.findAuthorFeed(authorId, limit);
+        } else {
+            FeedCursor position = FeedCursor.decode(cursor);
+            blogs = blogRepository.findAuthorFeedAfter(authorId, position.createdAt(), position.id(), limit);
+        }
+        return toCursorPage(blogs, size);
     }
 
     @Transactional(readOnly = true)
     public Page<BlogResponseDto> getAllBlogs(Pageable pageable, String token) {
         try {
-            String authHeader = formatAuthorizationHeader(token);
-            ResponseEntity<UserDto> userResponse = userServiceClient.getUserProfile(authHeader);
-            if (userResponse.getStatusCode().is2xxSuccessful() && userResponse.getBody() != null) {
-                UserDto user = userResponse.getBody();
+            UserDto user = resolveUser(token);
+            if (user != null) {
                 if ("ADMIN".equals(user.getRole())) {
                     // Admin can see all blogs (published and unpublished)
                     Page<Blog> blogs = blogRepository.findAll(pageable);
-                    return blogs.map(this::convertToResponseDto);
+                    return convertPage(blogs);
                 } else {
                     // Normal users can only see published blogs
                     return getAllPublishedBlogs(pageable);
@@ -133,10 +250,8 @@ public class BlogService {
     public BlogResponseDto getBlogById(Long id, String token) {
         Blog blog;
         try {
-            String authHeader = formatAuthorizationHeader(token);
-            ResponseEntity<UserDto> userResponse = userServiceClient.getUserProfile(authHeader);
-            if (userResponse.getStatusCode().is2xxSuccessful() && userResponse.getBody() != null) {
-                UserDto user = userResponse.getBody();
+            UserDto user = resolveUser(token);
+            if (user != null) {
                 if ("ADMIN".equals(user.getRole())) {
                     // Admin can see any blog (published or unpublished)
                     blog = blogRepository.findById(id)
@@ -166,64 +281,78 @@ public class BlogService {
     @Transactional(readOnly = true)
     public Page<BlogResponseDto> getBlogsByAuthor(Long authorId, Pageable pageable, String token) {
         try {
-            String authHeader = formatAuthorizationHeader(token);
-            ResponseEntity<UserDto> userResponse = userServiceClient.getUserProfile(authHeader);
-            if (userResponse.getStatusCode().is2xxSuccessful() && userResponse.getBody() != null) {
-                UserDto user = userResponse.getBody();
+            UserDto user = resolveUser(token);
+            if (user != null) {
                 if ("ADMIN".equals(user.getRole()) || user.getId().equals(authorId)) {
                     // Admin can see all blogs by any author, users can see all their own blogs
                     Page<Blog> blogs = blogRepository.findByAuthorId(authorId, pageable);
-                    return blogs.map(this::convertToResponseDto);
+                    return convertPage(blogs);
                 } else {
                     // Other users can only see published blogs by this author
                     Page<Blog> blogs = blogRepository.findByAuthorIdAndIsPublishedTrue(authorId, pageable);
-                    return blogs.map(this::convertToResponseDto);
+                    return convertPage(blogs);
                 }
             }
             // No token - only show published blogs
             Page<Blog> blogs = blogRepository.findByAuthorIdAndIsPublishedTrue(authorId, pageable);
-            return blogs.map(this::convertToResponseDto);
+            return convertPage(blogs);
         } catch (Exception e) {
             log.error("Error fetching blogs by author: {}", e.getMessage());
             Page<Blog> blogs = blogRepository.findByAuthorIdAndIsPublishedTrue(authorId, pageable);
-            return blogs.map(this::convertToResponseDto);
+            return convertPage(blogs);
         }
     }
 
     @Transactional(readOnly = true)
     public Page<BlogResponseDto> searchBlogs(String keyword, Pageable pageable, String token) {
+        boolean publishedOnly = true;
         try {
-            String authHeader = formatAuthorizationHeader(token);
-            ResponseEntity<UserDto> userResponse = userServiceClient.getUserProfile(authHeader);
-            if (userResponse.getStatusCode().is2xxSuccessful() && userResponse.getBody() != null) {
-                UserDto user = userResponse.getBody();
-                if ("ADMIN".equals(user.getRole())) {
-                    // Admin can search all blogs
-                    Page<Blog> blogs = blogRepository.findByTitleContainingOrContentContaining(keyword, keyword, pageable);
-                    return blogs.map(this::convertToResponseDto);
-                } else {
-                    // Normal users can only search published blogs
-                    Page<Blog> blogs = blogRepository.findByTitleContainingOrContentContainingAndIsPublishedTrue(keyword, keyword, pageable);
-                    return blogs.map(this::convertToResponseDto);
-                }
-            }
-            // No token - only search published blogs
-            Page<Blog> blogs = blogRepository.findByTitleContainingOrContentContainingAndIsPublishedTrue(keyword, keyword, pageable);
-            return blogs.map(this::convertToResponseDto);
+            UserDto user = resolveUser(token);
+            // Admin can search all blogs, everyone else only published blogs
+            publishedOnly = user == null || !"ADMIN".equals(user.getRole());
         } catch (Exception e) {
-            log.error("Error searching blogs: {}", e.getMessage());
-            Page<Blog> blogs = blogRepository.findByTitleContainingOrContentContainingAndIsPublishedTrue(keyword, keyword, pageable);
-            return blogs.map(this::convertToResponseDto);
+            log.error("Error resolving user for search: {}", e.getMessage());
+        }
+
+        SearchOrder order = toSearchOrder(pageable.getSort());
+        if (!blogSearchService.isReady()) {
+            // Index is still loading - fall back to scanning the table
+            Pageable fallback = order == SearchOrder.RELEVANCE
+                    ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("createdAt").descending())
+                    : pageable;
+            Page<Blog> blogs = publishedOnly
+                    ? blogRepository.findByTitleContainingOrContentContainingAndIsPublishedTrue(keyword, keyword, fallback)
+                    : blogRepository.findByTitleContainingOrContentContaining(keyword, keyword, fallback);
+            return convertPage(blogs);
+        }
+
+        SearchHits hits = blogSearchService.search(keyword, publishedOnly, order,
+                pageable.getPageNumber(), pageable.getPageSize());
+        Map<Long, Blog> byId = blogRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Blog::getId, Function.identity()));
+        List<Blog> blogs = hits.ids().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return convertPage(new PageImpl<>(blogs, pageable, hits.total()));
+    }
+
+    /**
+     * Search results are ranked by relevance unless the caller explicitly sorts by creation date.
+     */
+    private SearchOrder toSearchOrder(Sort sort) {
+        Sort.Order createdAt = sort.getOrderFor("createdAt");
+        if (createdAt == null) {
+            return SearchOrder.RELEVANCE;
         }
+        return createdAt.isAscending() ? SearchOrder.OLDEST : SearchOrder.NEWEST;
     }
 
     @Transactional
     public BlogResponseDto updateBlog(Long id, BlogUpdateDto blogUpdateDto, String token) {
         try {
-            String authHeader = formatAuthorizationHeader(token);
-            ResponseEntity<UserDto> userResponse = userServiceClient.getUserProfile(authHeader);
-            if (userResponse.getStatusCode().is2xxSuccessful() && userResponse.getBody() != null) {
-                UserDto user = userResponse.getBody();
+            UserDto user = resolveUser(token);
+            if (user != null) {
                 
                 Blog blog = blogRepository.findById(id)
                         .orElseThrow(() -> new BlogNotFoundException(id));
@@ -232,6 +361,7 @@ public class BlogService {
                 if (!"ADMIN".equals(user.getRole()) && !blog.getAuthorId().equals(user.getId())) {
                     throw new UnauthorizedAccessException("You can only update your own blogs");
                 }
+                boolean wasPublished = Boolean.TRUE.equals(blog.getIsPublished());
                 
                 // Update fields if provided
                 if (blogUpdateDto.getTitle() != null) {
@@ -241,7 +371,11 @@ public class BlogService {
                     blog.setContent(blogUpdateDto.getContent());
                 }
                 if (blogUpdateDto.getSummary() != null) {
-                    blog.setSummary(blogUpdateDto.getSummary());
+                    applySummary(blog, blogUpdateDto.getSummary());
+                } else if (Boolean.TRUE.equals(blog.getSummaryGenerated())
+                        || blog.getSummary() == null || blog.getSummary().isBlank()) {
+                    // Keep a generated excerpt in step with the (possibly edited) content
+                    applySummary(blog, null);
                 }
                 if (blogUpdateDto.getImageUrls() != null) {
                     blog.setImageUrls(blogUpdateDto.getImageUrls());
@@ -254,7 +388,10 @@ public class BlogService {
                 }
                 
                 Blog updatedBlog = blogRepository.save(blog);
-                return convertToResponseDto(updatedBlog);
+                blogSearchService.indexAfterCommit(updatedBlog);
+                BlogResponseDto response = convertToResponseDto(updatedBlog);
+                feedCacheService.onBlogSaved(response, wasPublished);
+                return response;
             } else {
                 throw new UnauthorizedAccessException("Invalid token or user not found");
             }
@@ -269,10 +406,8 @@ public class BlogService {
     @Transactional
     public void deleteBlog(Long id, String token) {
         try {
-            String authHeader = formatAuthorizationHeader(token);
-            ResponseEntity<UserDto> userResponse = userServiceClient.getUserProfile(authHeader);
-            if (userResponse.getStatusCode().is2xxSuccessful() && userResponse.getBody() != null) {
-                UserDto user = userResponse.getBody();
+            UserDto user = resolveUser(token);
+            if (user != null) {
                 
                 Blog blog = blogRepository.findById(id)
                         .orElseThrow(() -> new BlogNotFoundException(id));
@@ -283,6 +418,9 @@ public class BlogService {
                 }
                 
                 blogRepository.delete(blog);
+                blogSearchService.removeAfterCommit(blog.getId());
+                feedCacheService.onBlogDeleted(blog.getId(), Boolean.TRUE.equals(blog.getIsPublished()));
+                trendingService.removeAfterCommit(blog.getId());
             } else {
                 throw new UnauthorizedAccessException("Invalid token or user not found");
             }
@@ -295,45 +433,88 @@ public class BlogService {
     }
 
     private BlogResponseDto convertToResponseDto(Blog blog) {
-        try {
-            // Fetch engagement counts from engagement-service
-            Long likeCount = engagementServiceClient.getLikeCount(blog.getId());
-            Long viewCount = engagementServiceClient.getViewCount(blog.getId());
-            Long commentCount = engagementServiceClient.getCommentCount(blog.getId());
-            
-            return BlogResponseDto.builder()
-                    .id(blog.getId())
-                    .title(blog.getTitle())
-                    .content(blog.getContent())
-                    .summary(blog.getSummary())
-                    .authorId(blog.getAuthorId())
-                    .authorUsername(blog.getAuthorUsername())
-                    .createdAt(blog.getCreatedAt())
-                    .updatedAt(blog.getUpdatedAt())
-                    .isPublished(blog.getIsPublished())
-                    .imageUrls(blog.getImageUrls())
-                    .likeCount(likeCount != null ? likeCount.intValue() : 0)
-                    .viewCount(viewCount != null ? viewCount.intValue() : 0)
-                    .commentCount(commentCount != null ? commentCount.intValue() : 0)
-                    .build();
-        } catch (Exception e) {
-            log.warn("Failed to fetch engagement counts for blog {}: {}", blog.getId(), e.getMessage());
-            // Return blog without engagement counts if engagement-service is unavailable
-            return BlogResponseDto.builder()
-                    .id(blog.getId())
-                    .title(blog.getTitle())
-                    .content(blog.getContent())
-                    .summary(blog.getSummary())
-                    .authorId(blog.getAuthorId())
-                    .authorUsername(blog.getAuthorUsername())
-                    .createdAt(blog.getCreatedAt())
-                    .updatedAt(blog.getUpdatedAt())
-                    .isPublished(blog.getIsPublished())
-                    .imageUrls(blog.getImageUrls())
-                    .likeCount(0)
-                    .viewCount(0)
-                    .commentCount(0)
+        return blogResponseAssembler.toResponseDtos(Collections.singletonList(blog)).get(0);
+    }
+
+    /**
+     * Appends id, in the direction of the first sort property, so that blogs with equal sort
+     * values keep a stable order across pages (and match the feed cache and keyset feeds).
+     */
+    private static Pageable withIdTieBreak(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.isUnsorted() || sort.getOrderFor("id") != null) {
+            return pageable;
+        }
+        Sort.Direction direction = sort.iterator().next().getDirection();
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort.and(Sort.by(direction, "id")));
+    }
+
+    /**
+     * Converts a page of blogs, fetching engagement counts for the whole page in one call.
+     */
+    private Page<BlogResponseDto> convertPage(Page<Blog> blogs) {
+        return new PageImpl<>(blogResponseAssembler.toResponseDtos(blogs.getContent()),
+                blogs.getPageable(), blogs.getTotalElements());
+    }
+
+    private Page<BlogListItemDto> convertSummaryPage(Page<BlogSummaryView> summaries) {
+        Map<Long, BlogStatsDto> stats = blogResponseAssembler.fetchStats(summaries.getContent().stream()
+                .map(BlogSummaryView::getId)
+                .collect(Collectors.toList()));
+        return summaries.map(summary -> {
+            BlogStatsDto stat = stats.get(summary.getId());
+            return BlogListItemDto.builder()
+                    .id(summary.getId())
+                    .title(summary.getTitle())
+                    .summary(summary.getSummary())
+                    .authorId(summary.getAuthorId())
+                    .authorUsername(summary.getAuthorUsername())
+                    .createdAt(summary.getCreatedAt())
+                    .updatedAt(summary.getUpdatedAt())
+                    .isPublished(summary.getIsPublished())
+                    .likeCount(stat != null ? (int) stat.getLikeCount() : 0)
+                    .viewCount(stat != null ? (int) stat.getViewCount() : 0)
+                    .commentCount(stat != null ? (int) stat.getCommentCount() : 0)
                     .build();
+        });
+    }
+
+    /**
+     * Sets the author's summary, or a plain-text excerpt of the blog's content when none was
+     * provided. Computed on write so list reads never need to touch the content column.
+     */
+    static void applySummary(Blog blog, String summary) {
+        boolean generated = summary == null || summary.isBlank();
+        blog.setSummary(generated ? excerpt(blog.getContent()) : summary);
+        blog.setSummaryGenerated(generated);
+    }
+
+    static String excerpt(String content) {
+        if (content == null) {
+            return null;
+        }
+        String text = HTML_TAG.matcher(content).replaceAll(" ").replaceAll("\\s+", " ").trim();
+        if (text.length() <= EXCERPT_LENGTH) {
+            return text;
+        }
+        int cut = text.lastIndexOf(' ', EXCERPT_LENGTH);
+        return text.substring(0, cut > EXCERPT_LENGTH / 2 ? cut : EXCERPT_LENGTH) + "...";
+    }
+
+    private CursorPageDto<BlogResponseDto> toCursorPage(List<Blog> blogs, int size) {
+        boolean hasNext = blogs.size() > size;
+        List<Blog> slice = hasNext ? blogs.subList(0, size) : blogs;
+        List<BlogResponseDto> content = blogResponseAssembler.toResponseDtos(slice);
+        String nextCursor = null;
+        if (hasNext) {
+            Blog last = slice.get(slice.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
         }
+        return CursorPageDto.<BlogResponseDto>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
     }
 }
@@ -1,18 +1,19 @@
 package com.blogspot.blog.service;
 
+import com.blogspot.blog.dto.BlogStatsDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 @FeignClient(name = "engagement-service")
 public interface EngagementServiceClient {
 
-    @GetMapping("/api/engagement/public/blogs/{blogId}/likes/count")
-    Long getLikeCount(@PathVariable("blogId") Long blogId);
-
-    @GetMapping("/api/engagement/public/blogs/{blogId}/views/count")
-    Long getViewCount(@PathVariable("blogId") Long blogId);
+    @GetMapping("/api/engagement/public/blogs/{blogId}/stats")
+    BlogStatsDto getBlogStats(@PathVariable("blogId") Long blogId);
 
-    @GetMapping("/api/engagement/public/blogs/{blogId}/comments/count")
-    Long getCommentCount(@PathVariable("blogId") Long blogId);
+    @GetMapping("/api/engagement/public/blogs/stats")
+    List<BlogStatsDto> getBlogStats(@RequestParam("blogIds") List<Long> blogIds);
 }
@@ -0,0 +1,287 @@
+package com.blogspot.blog.service;
+
+import com.blogspot.blog.dto.BlogResponseDto;
+import com.blogspot.blog.dto.BlogStatsDto;
+import com.blogspot.blog.model.Blog;
+import com.blogspot.blog.repository.BlogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the head of the public feed (published blogs, newest first) as fully assembled
+ * {@link BlogResponseDto}s.
+ * <p>
+ * The cache holds the first {@code pages * pageSize} blogs and serves any page that
+ * falls entirely inside that window. A page reaching past the window goes to the
+ * database even when the window holds the whole feed, so a small feed never hides blogs
+ * written elsewhere behind a cached short or empty page. Pages of the default size are prebuilt, so a hit
+ * returns an existing object. Blog writes of this instance are applied incrementally
+ * after commit, and engagement counts are refreshed on a fixed interval. The whole window
+ * is also reloaded every {@code reload-ms}, which bounds how long writes made on other
+ * instances take to show up.
+ */
+@Service
+@Slf4j
+public class FeedCacheService {
+
+    // Same order as the keyset feeds, so cached and database pages agree on ties
+    public static final Sort FEED_SORT = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private static final Comparator<BlogResponseDto> NEWEST_FIRST =
+            Comparator.comparing(BlogResponseDto::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(BlogResponseDto::getId, Comparator.reverseOrder());
+
+    private final BlogRepository blogRepository;
+    private final BlogResponseAssembler blogResponseAssembler;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int pageSize;
+    private final int capacity;
+    private final long reloadMillis;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot;
+    // Set when the window lost entries that may have to be backfilled from the database
+    private volatile boolean reloadNeeded = true;
+    // Bumped on every applied write; lets a reload detect writes it may have missed
+    private long writeVersion;
+    private volatile long reloadedAt;
+
+    private record Snapshot(List<BlogResponseDto> items, long total, List<Page<BlogResponseDto>> defaultPages) {
+    }
+
+    public FeedCacheService(BlogRepository blogRepository,
+                            BlogResponseAssembler blogResponseAssembler,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${blog.feed-cache.page-size:10}") int pageSize,
+                            @Value("${blog.feed-cache.pages:5}") int pages,
+                            @Value("${blog.feed-cache.reload-ms:60000}") long reloadMillis) {
+        this.blogRepository = blogRepository;
+        this.blogResponseAssembler = blogResponseAssembler;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.pageSize = pageSize;
+        this.capacity = pageSize * pages;
+        this.reloadMillis = reloadMillis;
+        this.hits = Counter.builder("blog.feed.cache.requests").tag("result", "hit")
+                .description("Public feed page requests served from the cache").register(meterRegistry);
+        this.misses = Counter.builder("blog.feed.cache.requests").tag("result", "miss")
+                .description("Public feed page requests that went to the database").register(meterRegistry);
+        Gauge.builder("blog.feed.cache.size", this, cache -> {
+            Snapshot current = cache.snapshot;
+            return current != null ? current.items().size() : 0;
+        }).description("Blogs held in the public feed cache").register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached page, or null if the request is not for the default feed order or
+     * reaches beyond the cached window.
+     */
+    public Page<BlogResponseDto> getPage(Pageable pageable) {
+        if (!FEED_SORT.equals(pageable.getSort())) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        if (current == null) {
+            misses.increment();
+            return null;
+        }
+        // In long, so a huge page number cannot overflow into the window
+        long from = pageable.getOffset();
+        long to = from + pageable.getPageSize();
+        if (to > current.items().size()) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (pageable.getPageSize() == pageSize && pageable.getPageNumber() < current.defaultPages().size()) {
+            return current.defaultPages().get(pageable.getPageNumber());
+        }
+        return new PageImpl<>(current.items().subList((int) from, (int) to), pageable, current.total());
+    }
+
+    /**
+     * Applies a saved blog to the cache after commit. The DTO is assembled by the caller
+     * inside its transaction; counts of a blog already in the window are preserved.
+     */
+    public void onBlogSaved(BlogResponseDto blog, boolean wasPublished) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (writeLock) {
+                writeVersion++;
+                Snapshot current = snapshot;
+                if (current == null) {
+                    return;
+                }
+                List<BlogResponseDto> items = new ArrayList<>(current.items());
+                BlogResponseDto previous = removeById(items, blog.getId());
+                boolean published = Boolean.TRUE.equals(blog.getIsPublished());
+                long total = current.total() + (published ? 1 : 0) - (wasPublished ? 1 : 0);
+
+                if (published) {
+                    BlogResponseDto entry = previous == null ? blog : blog.toBuilder()
+                            .likeCount(previous.getLikeCount())
+                            .viewCount(previous.getViewCount())
+                            .commentCount(previous.getCommentCount())
+                            .build();
+                    int position = Collections.binarySearch(items, entry, NEWEST_FIRST);
+                    position = position < 0 ? -position - 1 : position;
+                    // Older than everything in a full window: belongs beyond the cached pages
+                    if (position < capacity && (position < items.size() || items.size() == total - 1)) {
+                        items.add(position, entry);
+                    }
+                    if (items.size() > capacity) {
+                        items.remove(items.size() - 1);
+                    }
+                }
+                if (items.size() < capacity && items.size() < total) {
+                    reloadNeeded = true;
+                }
+                publish(items, total);
+            }
+        });
+    }
+
+    public void onBlogDeleted(Long blogId, boolean wasPublished) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (writeLock) {
+                writeVersion++;
+                Snapshot current = snapshot;
+                if (current == null) {
+                    return;
+                }
+                List<BlogResponseDto> items = new ArrayList<>(current.items());
+                removeById(items, blogId);
+                long total = current.total() - (wasPublished ? 1 : 0);
+                if (items.size() < capacity && items.size() < total) {
+                    reloadNeeded = true;
+                }
+                publish(items, total);
+            }
+        });
+    }
+
+    /**
+     * Schedules a full reload on the next refresh, for bulk writes that are not applied
+     * one by one.
+     */
+    public void invalidate() {
+        synchronized (writeLock) {
+            writeVersion++;
+            reloadNeeded = true;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        refresh();
+    }
+
+    /**
+     * Reloads the window when it needs backfilling or is due for its periodic reload,
+     * otherwise refreshes only the engagement counts of the cached blogs with one batch call.
+     */
+    @Scheduled(fixedDelayString = "${blog.feed-cache.stats-refresh-ms:5000}")
+    public void refresh() {
+        try {
+            if (reloadNeeded || snapshot == null || System.currentTimeMillis() - reloadedAt >= reloadMillis) {
+                reload();
+            } else {
+                refreshStats();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh public feed cache: {}", e.getMessage());
+        }
+    }
+
+    private void reload() {
+        reloadNeeded = false;
+        reloadedAt = System.currentTimeMillis();
+        long versionBefore;
+        synchronized (writeLock) {
+            versionBefore = writeVersion;
+        }
+        List<BlogResponseDto> items = readOnlyTransaction.execute(status -> {
+            List<Blog> blogs = blogRepository.findPublishedFeed(PageRequest.of(0, capacity));
+            return blogResponseAssembler.toResponseDtos(blogs);
+        });
+        long total = blogRepository.countByIsPublishedTrue();
+        synchronized (writeLock) {
+            if (writeVersion != versionBefore) {
+                // A write committed while loading and may be missing from what was read. The
+                // current window already has it applied, so keep that and load again later.
+                reloadNeeded = true;
+                return;
+            }
+            publish(items, total);
+        }
+        log.debug("Reloaded public feed cache with {} blogs", items.size());
+    }
+
+    private void refreshStats() {
+        Snapshot current = snapshot;
+        if (current.items().isEmpty()) {
+            return;
+        }
+        Map<Long, BlogStatsDto> stats = blogResponseAssembler.fetchStats(current.items().stream()
+                .map(BlogResponseDto::getId)
+                .collect(Collectors.toList()));
+        if (stats.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            List<BlogResponseDto> items = new ArrayList<>(snapshot.items().size());
+            for (BlogResponseDto item : snapshot.items()) {
+                BlogStatsDto stat = stats.get(item.getId());
+                items.add(stat == null ? item : item.toBuilder()
+                        .likeCount((int) stat.getLikeCount())
+                        .viewCount((int) stat.getViewCount())
+                        .commentCount((int) stat.getCommentCount())
+                        .build());
+            }
+            publish(items, snapshot.total());
+        }
+    }
+
+    private void publish(List<BlogResponseDto> items, long total) {
+        List<BlogResponseDto> frozen = Collections.unmodifiableList(items);
+        List<Page<BlogResponseDto>> pages = new ArrayList<>();
+        // Only full pages: a short trailing page is never served from the cache
+        for (int from = 0; from + pageSize <= frozen.size(); from += pageSize) {
+            int to = from + pageSize;
+            pages.add(new PageImpl<>(frozen.subList(from, to), PageRequest.of(from / pageSize, pageSize, FEED_SORT), total));
+        }
+        snapshot = new Snapshot(frozen, total, List.copyOf(pages));
+    }
+
+    private static BlogResponseDto removeById(List<BlogResponseDto> items, Long id) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getId().equals(id)) {
+                return items.remove(i);
+            }
+        }
+        return null;
+    }
+}
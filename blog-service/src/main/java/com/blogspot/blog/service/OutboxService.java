@@ -0,0 +1,217 @@
+package com.blogspot.blog.service;
+
+import com.blogspot.blog.dto.NewBlogPostEvent;
+import com.blogspot.blog.model.OutboxEvent;
+import com.blogspot.blog.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transactional outbox for Kafka events.
+ * <p>
+ * Writers call {@link #enqueue} inside their own transaction, so an event exists exactly
+ * when the change it describes commits. A scheduled relay then locks pending rows in
+ * batches, sends them keyed by blog id, waits for the broker acks and marks the whole
+ * batch published with one update. Delivery is at-least-once: a crash between the acks
+ * and the commit re-sends that batch. One run relays at most {@code max-batches-per-run}
+ * batches, so a backlog or a slow broker does not hold a scheduler thread indefinitely.
+ * <p>
+ * An event whose payload cannot be read is parked at once, and one whose send fails
+ * {@code max-attempts} times is parked then, so it no longer takes a slot at the head of
+ * every batch. Parked events stay in the table until {@code parked_at} is cleared.
+ */
+@Service
+@Slf4j
+public class OutboxService {
+
+    public static final String NEW_BLOG_POSTS_TOPIC = "new-blog-posts";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaTemplate<String, NewBlogPostEvent> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMillis;
+    private final Duration retention;
+    private final int maxAttempts;
+    private final int maxBatchesPerRun;
+
+    private final Counter published;
+    private final Counter sendFailures;
+    private final Counter parkedEvents;
+    private final DistributionSummary batchSizes;
+    private volatile long pending;
+    private volatile long parked;
+    private volatile double lagSeconds;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         KafkaTemplate<String, NewBlogPostEvent> kafkaTemplate,
+                         ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry,
+                         @Value("${blog.outbox.batch-size:200}") int batchSize,
+                         @Value("${blog.outbox.send-timeout-ms:10000}") long sendTimeoutMillis,
+                         @Value("${blog.outbox.retention-hours:24}") long retentionHours,
+                         @Value("${blog.outbox.max-attempts:10}") int maxAttempts,
+                         @Value("${blog.outbox.max-batches-per-run:20}") int maxBatchesPerRun) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.retention = Duration.ofHours(retentionHours);
+        this.maxAttempts = maxAttempts;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.published = Counter.builder("blog.outbox.published")
+                .description("Outbox events delivered to Kafka").register(meterRegistry);
+        this.sendFailures = Counter.builder("blog.outbox.send.failures")
+                .description("Outbox event sends that failed and will be retried").register(meterRegistry);
+        this.parkedEvents = Counter.builder("blog.outbox.parked.events")
+                .description("Outbox events given up on after failing to send").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("blog.outbox.batch.size")
+                .description("Events per relay batch").register(meterRegistry);
+        Gauge.builder("blog.outbox.pending", this, outbox -> outbox.pending)
+                .description("Outbox events not yet delivered").register(meterRegistry);
+        Gauge.builder("blog.outbox.parked", this, outbox -> outbox.parked)
+                .description("Outbox events parked and no longer retried").register(meterRegistry);
+        Gauge.builder("blog.outbox.lag.seconds", this, outbox -> outbox.lagSeconds)
+                .description("Age of the oldest undelivered outbox event").register(meterRegistry);
+    }
+
+    /**
+     * Records the event in the caller's transaction. It is published only if that
+     * transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, String key, NewBlogPostEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize outbox event: " + e.getMessage(), e);
+        }
+        outboxEventRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .payload(payload)
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${blog.outbox.poll-interval-ms:500}")
+    public void relay() {
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                if (transactionTemplate.execute(status -> relayBatch()) < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Outbox relay failed: {}", e.getMessage());
+        } finally {
+            updateBacklogMetrics();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${blog.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        try {
+            Integer deleted = transactionTemplate.execute(status ->
+                    outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+            if (deleted != null && deleted > 0) {
+                log.debug("Purged {} published outbox events", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to purge outbox events: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sends one locked batch and marks the acknowledged events published. Returns the
+     * number of events published; anything less than a full batch ends the relay run.
+     */
+    int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockPending(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<CompletableFuture<SendResult<String, NewBlogPostEvent>>> sends = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            sends.add(send(event));
+        }
+        kafkaTemplate.flush();
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        List<Long> delivered = new ArrayList<>(batch.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                sends.get(i).get(remaining, TimeUnit.NANOSECONDS);
+                delivered.add(event.getId());
+            } catch (Exception e) {
+                sendFailures.increment();
+                // The locked rows are managed, so these changes are written on commit
+                event.setAttempts(event.getAttempts() + 1);
+                if (e.getCause() instanceof JsonProcessingException || event.getAttempts() >= maxAttempts) {
+                    event.setParkedAt(now);
+                    parkedEvents.increment();
+                    log.error("Parking outbox event {} to {} after {} failed attempts: {}",
+                            event.getId(), event.getTopic(), event.getAttempts(), e.getMessage());
+                } else {
+                    log.warn("Failed to publish outbox event {} to {}: {}",
+                            event.getId(), event.getTopic(), e.getMessage());
+                }
+            }
+        }
+        if (!delivered.isEmpty()) {
+            outboxEventRepository.markPublished(delivered, LocalDateTime.now());
+        }
+        published.increment(delivered.size());
+        batchSizes.record(batch.size());
+        return delivered.size();
+    }
+
+    private CompletableFuture<SendResult<String, NewBlogPostEvent>> send(OutboxEvent event) {
+        try {
+            NewBlogPostEvent message = objectMapper.readValue(event.getPayload(), NewBlogPostEvent.class);
+            return kafkaTemplate.send(event.getTopic(), event.getMessageKey(), message);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void updateBacklogMetrics() {
+        try {
+            pending = outboxEventRepository.countByPublishedAtIsNullAndParkedAtIsNull();
+            parked = outboxEventRepository.countByPublishedAtIsNullAndParkedAtIsNotNull();
+            LocalDateTime oldest = outboxEventRepository.findOldestPendingCreatedAt();
+            lagSeconds = oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+        } catch (Exception e) {
+            log.debug("Failed to read outbox backlog: {}", e.getMessage());
+        }
+    }
+}
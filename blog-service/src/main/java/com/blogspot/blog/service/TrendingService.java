@@ -0,0 +1,138 @@
+package com.blogspot.blog.service;
+
+import com.blogspot.blog.dto.EngagementDeltaEvent;
+import com.blogspot.blog.trending.TrendingRanking;
+import com.blogspot.blog.trending.TrendingSnapshotStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ranks blogs by recent engagement. Consumes the engagement deltas published by
+ * engagement-service, weights them by type and feeds them into a {@link TrendingRanking}
+ * whose scores halve every {@code blog.trending.half-life-ms}. Scores are snapshotted to
+ * disk periodically and on shutdown, and reloaded before the listener starts. Each
+ * instance keeps its own ranking, so each consumes the whole topic in a consumer group of
+ * its own, named after {@code blog.trending.instance-id}. That id is required and must
+ * stay the same across restarts, so a restarted instance resumes from its committed
+ * offsets instead of skipping the deltas published while it was down.
+ */
+@Service
+@Slf4j
+public class TrendingService {
+
+    public static final String ENGAGEMENT_DELTAS_TOPIC = "engagement-deltas";
+
+    // Rebase the decay origin well before e^exponent could lose precision or overflow
+    private static final double MAX_EXPONENT = 50;
+
+    private final ObjectMapper objectMapper;
+    private final TrendingSnapshotStore store;
+    private final TrendingRanking ranking;
+    private final double viewWeight;
+    private final double likeWeight;
+    private final double commentWeight;
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+
+    public TrendingService(ObjectMapper objectMapper,
+                           @Value("${blog.trending.instance-id}") String instanceId,
+                           @Value("${blog.trending.snapshot-dir:data/trending}") String snapshotDir,
+                           @Value("${blog.trending.half-life-ms:21600000}") long halfLifeMillis,
+                           @Value("${blog.trending.capacity:1000}") int capacity,
+                           @Value("${blog.trending.weights.view:1}") double viewWeight,
+                           @Value("${blog.trending.weights.like:5}") double likeWeight,
+                           @Value("${blog.trending.weights.comment:3}") double commentWeight) {
+        if (instanceId.isBlank()) {
+            throw new IllegalArgumentException("blog.trending.instance-id must be set to a stable id unique to this instance");
+        }
+        this.objectMapper = objectMapper;
+        this.store = new TrendingSnapshotStore(Paths.get(snapshotDir));
+        this.ranking = new TrendingRanking(halfLifeMillis, capacity, System.currentTimeMillis());
+        this.viewWeight = viewWeight;
+        this.likeWeight = likeWeight;
+        this.commentWeight = commentWeight;
+    }
+
+    /**
+     * Returns up to {@code limit} blog ids, hottest first. The ids may include blogs that
+     * were unpublished since; callers filter them out.
+     */
+    public List<Long> topBlogIds(int limit) {
+        return ranking.top(limit);
+    }
+
+    @KafkaListener(topics = ENGAGEMENT_DELTAS_TOPIC, groupId = "${blog.trending.consumer-group:blog-service-trending}-${blog.trending.instance-id}")
+    public void onEngagementDelta(String message) {
+        try {
+            EngagementDeltaEvent event = objectMapper.readValue(message, EngagementDeltaEvent.class);
+            double weight = weightOf(event.type());
+            if (weight == 0 || event.delta() == 0) {
+                return;
+            }
+            ranking.add(Long.parseLong(event.blogId()), weight * event.delta(), event.occurredAt());
+            dirty.set(true);
+        } catch (Exception e) {
+            log.warn("Ignoring malformed engagement delta {}: {}", message, e.getMessage());
+        }
+    }
+
+    public void removeAfterCommit(Long blogId) {
+        TransactionHooks.afterCommit(() -> {
+            ranking.remove(blogId);
+            dirty.set(true);
+        });
+    }
+
+    @PostConstruct
+    public void initialize() {
+        Optional<TrendingSnapshotStore.Snapshot> snapshot = store.load();
+        snapshot.ifPresent(loaded -> {
+            for (TrendingRanking.Entry entry : loaded.entries()) {
+                ranking.add(entry.blogId(), entry.score(), loaded.snapshotAt());
+            }
+            log.info("Loaded {} trending scores from snapshot", ranking.size());
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${blog.trending.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        long now = System.currentTimeMillis();
+        ranking.rebase(now, MAX_EXPONENT);
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            store.write(now, ranking.decayedScores(now));
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Failed to write trending snapshot: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    private double weightOf(String type) {
+        if ("VIEWS".equals(type)) {
+            return viewWeight;
+        } else if ("LIKES".equals(type)) {
+            return likeWeight;
+        } else if ("COMMENTS".equals(type)) {
+            return commentWeight;
+        }
+        return 0;
+    }
+}
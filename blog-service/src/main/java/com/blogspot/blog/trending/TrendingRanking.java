@@ -0,0 +1,133 @@
+package com.blogspot.blog.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Bounded ranking of blogs by exponentially time-decayed engagement.
+ * <p>
+ * Scores use forward decay: an event of weight {@code w} at time {@code t} adds
+ * {@code w * e^(lambda * (t - origin))}. Every score decays at the same rate, so the
+ * stored values never need re-sorting as time passes; the decayed score at {@code now}
+ * is the stored value times {@code e^(-lambda * (now - origin))}. The origin is moved
+ * forward by {@link #rebase} before the exponent grows large.
+ * <p>
+ * At most {@code capacity} blogs are tracked. When full, the lowest-scoring blog is
+ * evicted, and a blog that would rank below all tracked blogs is not admitted. Reads
+ * walk a skip list from the top without taking the write lock.
+ */
+public class TrendingRanking {
+
+    private static final Comparator<Entry> HIGHEST_FIRST =
+            Comparator.comparingDouble(Entry::score).reversed().thenComparingLong(Entry::blogId);
+
+    private final double lambda;
+    private final int capacity;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private volatile NavigableSet<Entry> ranked = new ConcurrentSkipListSet<>(HIGHEST_FIRST);
+    private volatile long origin;
+
+    public record Entry(long blogId, double score) {
+    }
+
+    public TrendingRanking(long halfLifeMillis, int capacity, long origin) {
+        this.lambda = Math.log(2) / halfLifeMillis;
+        this.capacity = capacity;
+        this.origin = origin;
+    }
+
+    /**
+     * Adds {@code weight} (which may be negative) to the blog's score as of {@code at}.
+     * Blogs whose score drops to zero or below are removed.
+     */
+    public synchronized void add(long blogId, double weight, long at) {
+        double delta = weight * Math.exp(lambda * (at - origin));
+        Entry existing = entries.get(blogId);
+        double score = (existing != null ? existing.score() : 0) + delta;
+        if (existing != null) {
+            ranked.remove(existing);
+            entries.remove(blogId);
+        }
+        if (score <= 0) {
+            return;
+        }
+        Entry entry = new Entry(blogId, score);
+        if (entries.size() >= capacity) {
+            Entry lowest = ranked.last();
+            if (HIGHEST_FIRST.compare(entry, lowest) > 0) {
+                return;
+            }
+            ranked.remove(lowest);
+            entries.remove(lowest.blogId());
+        }
+        entries.put(blogId, entry);
+        ranked.add(entry);
+    }
+
+    public synchronized void remove(long blogId) {
+        Entry existing = entries.remove(blogId);
+        if (existing != null) {
+            ranked.remove(existing);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} blog ids, highest score first, in O(limit).
+     */
+    public List<Long> top(int limit) {
+        // An update is a remove plus an add, so a concurrent reader may briefly see a blog twice
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Entry entry : ranked) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            ids.add(entry.blogId());
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Returns every tracked blog with its score decayed to {@code now}.
+     */
+    public synchronized List<Entry> decayedScores(long now) {
+        double factor = Math.exp(-lambda * (now - origin));
+        List<Entry> scores = new ArrayList<>(ranked.size());
+        for (Entry entry : ranked) {
+            scores.add(new Entry(entry.blogId(), entry.score() * factor));
+        }
+        return scores;
+    }
+
+    /**
+     * Moves the decay origin to {@code now}, rescaling every stored score, once the
+     * exponent applied to new events exceeds {@code maxExponent}.
+     */
+    public synchronized void rebase(long now, double maxExponent) {
+        if (lambda * (now - origin) <= maxExponent) {
+            return;
+        }
+        List<Entry> rescaled = decayedScores(now);
+        NavigableSet<Entry> rebuilt = new ConcurrentSkipListSet<>(HIGHEST_FIRST);
+        entries.clear();
+        for (Entry entry : rescaled) {
+            if (entry.score() > 0) {
+                entries.put(entry.blogId(), entry);
+                rebuilt.add(entry);
+            }
+        }
+        // Swapped in whole so readers never see a half-rebuilt ranking
+        origin = now;
+        ranked = rebuilt;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
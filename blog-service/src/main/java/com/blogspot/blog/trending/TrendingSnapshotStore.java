@@ -0,0 +1,80 @@
+package com.blogspot.blog.trending;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persists trending scores to a single snapshot file. Scores are written already decayed
+ * to the snapshot time, so a snapshot stays valid if the configured half-life changes.
+ * The file is written to a temporary file and atomically moved into place.
+ */
+@Slf4j
+public class TrendingSnapshotStore {
+
+    private static final int MAGIC = 0x424C5452; // "BLTR"
+    private static final int VERSION = 1;
+    private static final String FILE_NAME = "trending.snap";
+
+    private final Path directory;
+
+    public TrendingSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public record Snapshot(long snapshotAt, List<TrendingRanking.Entry> entries) {
+    }
+
+    public Optional<Snapshot> load() {
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.warn("Ignoring trending snapshot {} with unknown format", file);
+                return Optional.empty();
+            }
+            long snapshotAt = in.readLong();
+            int count = in.readInt();
+            List<TrendingRanking.Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.add(new TrendingRanking.Entry(in.readLong(), in.readDouble()));
+            }
+            return Optional.of(new Snapshot(snapshotAt, entries));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to read trending snapshot {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void write(long snapshotAt, List<TrendingRanking.Entry> entries) throws IOException {
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "trending-", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(snapshotAt);
+                out.writeInt(entries.size());
+                for (TrendingRanking.Entry entry : entries) {
+                    out.writeLong(entry.blogId());
+                    out.writeDouble(entry.score());
+                }
+            }
+            Files.move(temp, directory.resolve(FILE_NAME), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
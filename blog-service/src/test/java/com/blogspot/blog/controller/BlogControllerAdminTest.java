@@ -0,0 +1,141 @@
+package com.blogspot.blog.controller;
+
+import com.blogspot.blog.dto.BlogImportResultDto;
+import com.blogspot.blog.repository.BlogRepository;
+import com.blogspot.blog.security.AuthenticatedUser;
+import com.blogspot.blog.service.BlogExportService;
+import com.blogspot.blog.service.BlogImportService;
+import com.blogspot.blog.service.BlogResponseAssembler;
+import com.blogspot.blog.service.BlogSearchService;
+import com.blogspot.blog.service.BlogService;
+import com.blogspot.blog.service.FeedCacheService;
+import com.blogspot.blog.service.OutboxService;
+import com.blogspot.blog.service.TrendingService;
+import com.blogspot.blog.service.UserServiceClient;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlogControllerAdminTest {
+
+    private static final String TOKEN = "Bearer token";
+
+    @Mock
+    private BlogRepository blogRepository;
+    @Mock
+    private UserServiceClient userServiceClient;
+    @Mock
+    private BlogResponseAssembler blogResponseAssembler;
+    @Mock
+    private BlogSearchService blogSearchService;
+    @Mock
+    private FeedCacheService feedCacheService;
+    @Mock
+    private TrendingService trendingService;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private BlogImportService blogImportService;
+    @Mock
+    private BlogExportService blogExportService;
+    @Mock
+    private HttpServletRequest request;
+
+    private BlogController controller;
+
+    @BeforeEach
+    void setUp() {
+        BlogService blogService = new BlogService(blogRepository, userServiceClient, blogResponseAssembler,
+                blogSearchService, feedCacheService, trendingService, outboxService);
+        controller = new BlogController(blogService, blogImportService, blogExportService);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void rejectsImportsByUsers() {
+        authenticateAs("USER");
+
+        assertEquals(HttpStatus.FORBIDDEN, controller.importBlogs(request, false, TOKEN).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, controller.getImports(TOKEN).getStatusCode());
+        verifyNoInteractions(blogImportService);
+    }
+
+    @Test
+    void rejectsAnonymousImports() {
+        assertEquals(HttpStatus.FORBIDDEN, controller.importBlogs(request, false, null).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, controller.getImports(null).getStatusCode());
+        verifyNoInteractions(blogImportService);
+    }
+
+    @Test
+    void rejectsImportsWithATokenUserServiceDoesNotAccept() {
+        when(userServiceClient.getUserProfile(TOKEN)).thenReturn(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+
+        assertEquals(HttpStatus.FORBIDDEN, controller.importBlogs(request, false, TOKEN).getStatusCode());
+        verifyNoInteractions(blogImportService);
+    }
+
+    @Test
+    void letsAdminsImport() throws Exception {
+        authenticateAs("ADMIN");
+        BlogImportResultDto result = new BlogImportResultDto();
+        when(blogImportService.importNdjson(any(), anyBoolean())).thenReturn(result);
+        when(blogImportService.getImports()).thenReturn(List.of(result));
+
+        assertSame(result, controller.importBlogs(request, false, TOKEN).getBody());
+        assertEquals(List.of(result), controller.getImports(TOKEN).getBody());
+    }
+
+    @Test
+    void rejectsExportsByUsersAndAnonymousCallers() {
+        authenticateAs("USER");
+        assertEquals(HttpStatus.FORBIDDEN, controller.exportBlogs(null, null, null, null, TOKEN).getStatusCode());
+
+        SecurityContextHolder.clearContext();
+        assertEquals(HttpStatus.FORBIDDEN, controller.exportBlogs(null, null, null, null, null).getStatusCode());
+        verifyNoInteractions(blogExportService);
+    }
+
+    @Test
+    void letsAdminsExport() throws Exception {
+        authenticateAs("ADMIN");
+
+        ResponseEntity<StreamingResponseBody> response = controller.exportBlogs(7L, false, null, null, TOKEN);
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(blogExportService).export(eq(7L), eq(false), isNull(), isNull(), any());
+    }
+
+    private static void authenticateAs(String role) {
+        AuthenticatedUser user = new AuthenticatedUser(7L, "alice", role,
+                AuthorityUtils.createAuthorityList("ROLE_" + role));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,41 @@
+package com.blogspot.blog.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeedCursorTest {
+
+    @Test
+    void roundTripsThroughItsEncodedForm() {
+        FeedCursor cursor = new FeedCursor(LocalDateTime.of(2025, 3, 4, 5, 6, 7, 123_456_000), 42L);
+
+        String encoded = cursor.encode();
+
+        assertEquals(cursor, FeedCursor.decode(encoded));
+        assertFalse(encoded.contains("="), "URL-safe without padding");
+    }
+
+    @Test
+    void keepsWholeMinuteTimestamps() {
+        FeedCursor cursor = new FeedCursor(LocalDateTime.of(2025, 3, 4, 5, 6), 1L);
+
+        assertEquals(cursor, FeedCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode("%%%"));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(encode("2025-03-04T05:06")));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(encode("2025-03-04|1")));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(encode("2025-03-04T05:06|")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
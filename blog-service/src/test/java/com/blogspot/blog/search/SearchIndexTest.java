@@ -0,0 +1,111 @@
+package com.blogspot.blog.search;
+
+import com.blogspot.blog.model.Blog;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    private final SearchIndex index = new SearchIndex();
+
+    @Test
+    void matchesOnlyDocumentsContainingEveryTerm() {
+        index.put(document(1, true, 0, Map.of("spring", 1, "boot", 1)));
+        index.put(document(2, true, 0, Map.of("spring", 1)));
+
+        SearchHits hits = index.search("Spring Boot", false, SearchOrder.RELEVANCE, 0, 10);
+
+        assertEquals(List.of(1L), hits.ids());
+        assertEquals(1, hits.total());
+        assertEquals(0, index.search("spring kafka", false, SearchOrder.RELEVANCE, 0, 10).total());
+    }
+
+    @Test
+    void ranksTitleMatchesAboveBodyMatches() {
+        index.put(IndexedDocument.of(blog(1, "Notes", "a short guide to kafka consumers")));
+        index.put(IndexedDocument.of(blog(2, "Kafka consumers", "notes from production")));
+
+        assertEquals(List.of(2L, 1L), index.search("kafka", false, SearchOrder.RELEVANCE, 0, 10).ids());
+    }
+
+    @Test
+    void ranksHigherTermFrequencyFirstAtEqualLength() {
+        index.put(document(1, true, 0, Map.of("java", 1, "other", 3)));
+        index.put(document(2, true, 0, Map.of("java", 3, "other", 1)));
+        index.put(document(3, true, 0, Map.of("java", 2, "other", 2)));
+
+        assertEquals(List.of(2L, 3L, 1L), index.search("java", false, SearchOrder.RELEVANCE, 0, 10).ids());
+    }
+
+    @Test
+    void skipsUnpublishedDocumentsForPublishedOnlySearches() {
+        index.put(document(1, true, 0, Map.of("draft", 1)));
+        index.put(document(2, false, 0, Map.of("draft", 1)));
+
+        assertEquals(List.of(1L), index.search("draft", true, SearchOrder.RELEVANCE, 0, 10).ids());
+        assertEquals(2, index.search("draft", false, SearchOrder.RELEVANCE, 0, 10).total());
+    }
+
+    @Test
+    void pagesByCreationDateWithTiesBrokenById() {
+        index.put(document(1, true, 100, Map.of("post", 1)));
+        index.put(document(2, true, 300, Map.of("post", 1)));
+        index.put(document(3, true, 200, Map.of("post", 1)));
+        index.put(document(4, true, 300, Map.of("post", 1)));
+
+        assertEquals(List.of(4L, 2L), index.search("post", false, SearchOrder.NEWEST, 0, 2).ids());
+        SearchHits second = index.search("post", false, SearchOrder.NEWEST, 2, 2);
+        assertEquals(List.of(3L, 1L), second.ids());
+        assertEquals(4, second.total());
+        assertEquals(List.of(1L, 3L), index.search("post", false, SearchOrder.OLDEST, 0, 2).ids());
+        assertTrue(index.search("post", false, SearchOrder.NEWEST, 4, 2).ids().isEmpty());
+    }
+
+    @Test
+    void replacingADocumentDropsItsOldTerms() {
+        index.put(document(1, true, 0, Map.of("before", 1)));
+        index.put(document(1, true, 0, Map.of("after", 1)));
+
+        assertEquals(0, index.search("before", false, SearchOrder.RELEVANCE, 0, 10).total());
+        assertEquals(List.of(1L), index.search("after", false, SearchOrder.RELEVANCE, 0, 10).ids());
+
+        index.remove(1);
+        assertEquals(0, index.search("after", false, SearchOrder.RELEVANCE, 0, 10).total());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void rejectsOffsetsThatWouldOverflowTheWindow() {
+        index.put(document(1, true, 0, Map.of("post", 1)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> index.search("post", false, SearchOrder.RELEVANCE, Integer.MAX_VALUE - 5, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> index.search("post", false, SearchOrder.RELEVANCE, -1, 10));
+    }
+
+    @Test
+    void tokenizerLowerCasesAndDropsStopWords() {
+        assertEquals(List.of("spring", "boot", "3", "release"), Tokenizer.tokenize("The Spring-Boot 3 release!"));
+    }
+
+    private static IndexedDocument document(long id, boolean published, long createdAt, Map<String, Integer> terms) {
+        int length = terms.values().stream().mapToInt(Integer::intValue).sum();
+        return new IndexedDocument(id, published, createdAt, length, terms);
+    }
+
+    private static Blog blog(long id, String title, String content) {
+        return Blog.builder()
+                .id(id)
+                .title(title)
+                .content(content)
+                .isPublished(true)
+                .createdAt(LocalDateTime.of(2025, 1, 1, 0, 0))
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.blogspot.blog.security;
+
+import com.blogspot.blog.repository.BlogRepository;
+import com.blogspot.blog.service.BlogResponseAssembler;
+import com.blogspot.blog.service.BlogSearchService;
+import com.blogspot.blog.service.BlogService;
+import com.blogspot.blog.service.FeedCacheService;
+import com.blogspot.blog.service.OutboxService;
+import com.blogspot.blog.service.TrendingService;
+import com.blogspot.blog.service.UserServiceClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "YmU2NjUyYjMyZmMxZTY5ODRmMjU3MDI4YjZkZGNlYjU0Njk5YmU1OTVmN2NmZWIyYjUwNTE4ZGNmYjYxMTBiNg==";
+
+    @Mock
+    private UserServiceClient userServiceClient;
+    @Mock
+    private BlogRepository blogRepository;
+    @Mock
+    private BlogResponseAssembler blogResponseAssembler;
+    @Mock
+    private BlogSearchService blogSearchService;
+    @Mock
+    private FeedCacheService feedCacheService;
+    @Mock
+    private TrendingService trendingService;
+    @Mock
+    private OutboxService outboxService;
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+    private BlogService blogService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        filter = new JwtAuthenticationFilter(jwtService, new CustomUserDetailsService(userServiceClient));
+        blogService = new BlogService(blogRepository, userServiceClient, blogResponseAssembler,
+                blogSearchService, feedCacheService, trendingService, outboxService);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void resolvesTheUserFromClaimsWithoutCallingUserService() throws Exception {
+        String header = "Bearer " + jwtService.generateToken(
+                Map.of(JwtService.USER_ID_CLAIM, 7L, JwtService.ROLE_CLAIM, "ADMIN"), "alice");
+
+        filter.doFilter(request(header), new MockHttpServletResponse(), new MockFilterChain());
+
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        assertEquals(7L, principal.getId());
+        assertEquals("alice", principal.getUsername());
+        assertTrue(blogService.isAdmin(header));
+        verifyNoInteractions(userServiceClient);
+    }
+
+    @Test
+    void replacesAnAnonymousToken() throws Exception {
+        String header = "Bearer " + jwtService.generateToken(
+                Map.of(JwtService.USER_ID_CLAIM, 7L, JwtService.ROLE_CLAIM, "USER"), "alice");
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        filter.doFilter(request(header), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertInstanceOf(AuthenticatedUser.class, authentication.getPrincipal());
+        assertFalse(blogService.isAdmin(header));
+        verifyNoInteractions(userServiceClient);
+    }
+
+    @Test
+    void ignoresATokenSignedWithAnotherKey() throws Exception {
+        JwtService otherIssuer = new JwtService();
+        ReflectionTestUtils.setField(otherIssuer, "secretKey", SECRET.replace('Y', 'Z'));
+        String header = "Bearer " + otherIssuer.generateToken(
+                Map.of(JwtService.USER_ID_CLAIM, 7L, JwtService.ROLE_CLAIM, "ADMIN"), "alice");
+
+        filter.doFilter(request(header), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private static MockHttpServletRequest request(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/blogs");
+        request.setServletPath("/api/blogs");
+        request.addHeader("Authorization", authorization);
+        return request;
+    }
+}
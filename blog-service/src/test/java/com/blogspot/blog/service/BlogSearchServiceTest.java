@@ -0,0 +1,86 @@
+package com.blogspot.blog.service;
+
+import com.blogspot.blog.model.Blog;
+import com.blogspot.blog.repository.BlogRepository;
+import com.blogspot.blog.search.SearchOrder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlogSearchServiceTest {
+
+    @Mock
+    private BlogRepository blogRepository;
+
+    @TempDir
+    Path indexDir;
+
+    private BlogSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BlogSearchService(blogRepository, indexDir.toString());
+    }
+
+    @Test
+    void keepsAnUpdateCommittedWhileTheRebuildScanRuns() {
+        when(blogRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenAnswer(invocation -> {
+            // The edit commits after the scan read the old row
+            service.indexAfterCommit(blog(1, "Kafka consumers"));
+            return List.of(blog(1, "Draft notes"));
+        });
+
+        service.initialize();
+
+        assertTrue(service.isReady());
+        assertEquals(List.of(1L), service.search("kafka", false, SearchOrder.RELEVANCE, 0, 10).ids());
+        assertEquals(0, service.search("draft", false, SearchOrder.RELEVANCE, 0, 10).total());
+    }
+
+    @Test
+    void keepsADeleteCommittedWhileTheRebuildScanRuns() {
+        when(blogRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenAnswer(invocation -> {
+            service.removeAfterCommit(1L);
+            return List.of(blog(1, "Kafka consumers"), blog(2, "Kafka producers"));
+        });
+
+        service.initialize();
+
+        assertEquals(List.of(2L), service.search("kafka", false, SearchOrder.RELEVANCE, 0, 10).ids());
+    }
+
+    @Test
+    void appliesUpdatesDirectlyOnceReady() {
+        when(blogRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(List.of());
+        service.initialize();
+
+        service.indexAfterCommit(blog(3, "Kafka streams"));
+
+        assertEquals(List.of(3L), service.search("kafka", false, SearchOrder.RELEVANCE, 0, 10).ids());
+    }
+
+    private static Blog blog(long id, String title) {
+        return Blog.builder()
+                .id(id)
+                .title(title)
+                .content("")
+                .authorId(1L)
+                .authorUsername("alice")
+                .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .updatedAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+    }
+}
@@ -0,0 +1,170 @@
+package com.blogspot.blog.service;
+
+import com.blogspot.blog.dto.BlogResponseDto;
+import com.blogspot.blog.model.Blog;
+import com.blogspot.blog.repository.BlogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FeedCacheServiceTest {
+
+    private static final int PAGE_SIZE = 2;
+    private static final int PAGES = 2;
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Mock
+    private BlogRepository blogRepository;
+    @Mock
+    private BlogResponseAssembler blogResponseAssembler;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Published blogs as the database holds them
+    private final List<Blog> database = new ArrayList<>();
+    private Runnable duringNextLoad;
+    private FeedCacheService service;
+
+    @BeforeEach
+    void setUp() {
+        when(blogRepository.findPublishedFeed(any())).thenAnswer(invocation -> {
+            List<Blog> read = query(PageRequest.of(0, invocation.<Pageable>getArgument(0).getPageSize()));
+            if (duringNextLoad != null) {
+                duringNextLoad.run();
+                duringNextLoad = null;
+            }
+            return read;
+        });
+        when(blogRepository.countByIsPublishedTrue()).thenAnswer(invocation -> (long) database.size());
+        when(blogResponseAssembler.toResponseDtos(anyList())).thenAnswer(invocation ->
+                invocation.<List<Blog>>getArgument(0).stream().map(FeedCacheServiceTest::dto).collect(Collectors.toList()));
+        service = new FeedCacheService(blogRepository, blogResponseAssembler, transactionManager,
+                new SimpleMeterRegistry(), PAGE_SIZE, PAGES, 60_000);
+    }
+
+    @Test
+    void servesTiesInTheSameOrderAsTheDatabase() {
+        for (long id = 2; id <= 8; id += 2) {
+            database.add(blog(id, NOON));
+        }
+        database.add(blog(1L, NOON.minusHours(1)));
+        service.refresh();
+
+        // A new blog created at the same instant lands between the cached ones
+        Blog saved = blog(5L, NOON);
+        database.add(saved);
+        service.onBlogSaved(dto(saved), false);
+
+        for (int page = 0; page < PAGES; page++) {
+            Pageable pageable = PageRequest.of(page, PAGE_SIZE, FeedCacheService.FEED_SORT);
+            assertEquals(ids(query(pageable)), ids(service.getPage(pageable)), "page " + page);
+        }
+        // A page of another size is cut from the same window
+        Pageable wide = PageRequest.of(0, 3, FeedCacheService.FEED_SORT);
+        assertEquals(List.of(8L, 6L, 5L), ids(service.getPage(wide)));
+    }
+
+    @Test
+    void prebuildsPagesOfTheDefaultSize() {
+        for (long id = 1; id <= 5; id++) {
+            database.add(blog(id, NOON.plusMinutes(id)));
+        }
+        service.refresh();
+
+        Pageable first = PageRequest.of(0, PAGE_SIZE, FeedCacheService.FEED_SORT);
+        assertSame(service.getPage(first), service.getPage(first));
+        assertEquals(5, service.getPage(first).getTotalElements());
+        // Beyond the cached window, or not in feed order
+        assertNull(service.getPage(PageRequest.of(PAGES, PAGE_SIZE, FeedCacheService.FEED_SORT)));
+        assertNull(service.getPage(PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Order.desc("createdAt")))));
+    }
+
+    @Test
+    void sendsPagesPastTheWindowToTheDatabase() {
+        database.add(blog(1L, NOON));
+        service.refresh();
+
+        // The window holds the whole feed, but a blog written elsewhere may be missing from it
+        assertNull(service.getPage(PageRequest.of(0, PAGE_SIZE, FeedCacheService.FEED_SORT)));
+        assertNull(service.getPage(PageRequest.of(1, PAGE_SIZE, FeedCacheService.FEED_SORT)));
+        assertNull(service.getPage(PageRequest.of(Integer.MAX_VALUE, PAGE_SIZE, FeedCacheService.FEED_SORT)));
+    }
+
+    @Test
+    void keepsWritesThatCommitDuringAReload() {
+        for (long id = 1; id <= 3; id++) {
+            database.add(blog(id, NOON.plusMinutes(id)));
+        }
+        service.refresh();
+        Pageable first = PageRequest.of(0, PAGE_SIZE, FeedCacheService.FEED_SORT);
+        assertEquals(List.of(3L, 2L), ids(service.getPage(first)));
+
+        // Blog 3 is deleted after the reload has read it
+        duringNextLoad = () -> {
+            database.removeIf(blog -> blog.getId() == 3L);
+            service.onBlogDeleted(3L, true);
+        };
+        service.invalidate();
+        service.refresh();
+
+        assertEquals(List.of(2L, 1L), ids(service.getPage(first)));
+        assertEquals(2, service.getPage(first).getTotalElements());
+
+        // The interrupted reload is retried on the next refresh
+        service.refresh();
+        verify(blogRepository, times(3)).findPublishedFeed(any());
+        assertEquals(List.of(2L, 1L), ids(service.getPage(first)));
+    }
+
+    private List<Blog> query(Pageable pageable) {
+        return database.stream()
+                .sorted(Comparator.comparing(Blog::getCreatedAt).thenComparing(Blog::getId).reversed())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(List<Blog> blogs) {
+        return blogs.stream().map(Blog::getId).collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(Page<BlogResponseDto> page) {
+        return page.getContent().stream().map(BlogResponseDto::getId).collect(Collectors.toList());
+    }
+
+    private static Blog blog(Long id, LocalDateTime createdAt) {
+        return Blog.builder().id(id).title("Blog " + id).createdAt(createdAt).isPublished(true).build();
+    }
+
+    private static BlogResponseDto dto(Blog blog) {
+        return BlogResponseDto.builder()
+                .id(blog.getId())
+                .title(blog.getTitle())
+                .createdAt(blog.getCreatedAt())
+                .isPublished(blog.getIsPublished())
+                .likeCount(0)
+                .viewCount(0)
+                .commentCount(0)
+                .build();
+    }
+}
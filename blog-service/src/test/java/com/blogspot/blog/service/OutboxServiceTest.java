@@ -0,0 +1,105 @@
+package com.blogspot.blog.service;
+
+import com.blogspot.blog.dto.NewBlogPostEvent;
+import com.blogspot.blog.model.OutboxEvent;
+import com.blogspot.blog.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int MAX_BATCHES_PER_RUN = 4;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaTemplate<String, NewBlogPostEvent> kafkaTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new OutboxService(outboxEventRepository, kafkaTemplate, objectMapper, transactionManager,
+                meterRegistry, 200, 1000, 24, MAX_ATTEMPTS, MAX_BATCHES_PER_RUN);
+    }
+
+    @Test
+    void parksAnUnreadablePayloadAtOnce() {
+        OutboxEvent broken = event(1L, "{not json");
+        when(outboxEventRepository.lockPending(any())).thenReturn(List.of(broken));
+
+        assertEquals(0, service.relayBatch());
+
+        assertEquals(1, broken.getAttempts());
+        assertNotNull(broken.getParkedAt());
+        assertEquals(1, meterRegistry.get("blog.outbox.parked.events").counter().count());
+        verify(kafkaTemplate, never()).send(any(), any(), any());
+    }
+
+    @Test
+    void parksAnEventAfterTheLastFailedSend() {
+        OutboxEvent failing = event(1L, "{}");
+        OutboxEvent good = event(2L, "{}");
+        when(outboxEventRepository.lockPending(any())).thenReturn(List.of(failing, good));
+        when(kafkaTemplate.send(any(), eq("1"), any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("too large")));
+        when(kafkaTemplate.send(any(), eq("2"), any())).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            assertEquals(1, service.relayBatch());
+            assertEquals(attempt, failing.getAttempts());
+            assertNull(failing.getParkedAt());
+        }
+        service.relayBatch();
+
+        assertEquals(MAX_ATTEMPTS, failing.getAttempts());
+        assertNotNull(failing.getParkedAt());
+        assertEquals(0, good.getAttempts());
+        verify(outboxEventRepository, times(MAX_ATTEMPTS)).markPublished(eq(List.of(2L)), any());
+    }
+
+    @Test
+    void relaysAtMostTheConfiguredBatchesPerRun() {
+        OutboxService oneAtATime = new OutboxService(outboxEventRepository, kafkaTemplate, objectMapper,
+                transactionManager, meterRegistry, 1, 1000, 24, MAX_ATTEMPTS, MAX_BATCHES_PER_RUN);
+        // An endless backlog: every batch comes back full
+        when(outboxEventRepository.lockPending(any())).thenAnswer(invocation -> List.of(event(1L, "{}")));
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        oneAtATime.relay();
+
+        verify(outboxEventRepository, times(MAX_BATCHES_PER_RUN)).lockPending(any());
+    }
+
+    private static OutboxEvent event(Long id, String payload) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic(OutboxService.NEW_BLOG_POSTS_TOPIC)
+                .messageKey(id.toString())
+                .payload(payload)
+                .build();
+    }
+}
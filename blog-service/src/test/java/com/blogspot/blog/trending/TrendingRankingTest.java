@@ -0,0 +1,122 @@
+package com.blogspot.blog.trending;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingRankingTest {
+
+    private static final long HALF_LIFE = 60_000;
+
+    @Test
+    void halvesScoresEveryHalfLife() {
+        TrendingRanking ranking = new TrendingRanking(HALF_LIFE, 10, 0);
+        ranking.add(1, 8, 0);
+
+        assertEquals(8, score(ranking, 1, 0), 1e-9);
+        assertEquals(4, score(ranking, 1, HALF_LIFE), 1e-9);
+        assertEquals(1, score(ranking, 1, 3 * HALF_LIFE), 1e-9);
+    }
+
+    @Test
+    void weighsRecentEngagementAboveOlderEngagement() {
+        TrendingRanking ranking = new TrendingRanking(HALF_LIFE, 10, 0);
+        ranking.add(1, 3, 0);
+        // Worth 2 at its own time, and still worth more than 3 one half-life older
+        ranking.add(2, 2, HALF_LIFE);
+
+        assertEquals(List.of(2L, 1L), ranking.top(10));
+        assertEquals(1.5, score(ranking, 1, HALF_LIFE), 1e-9);
+        assertEquals(2, score(ranking, 2, HALF_LIFE), 1e-9);
+    }
+
+    @Test
+    void removesABlogWhoseScoreDropsToZero() {
+        TrendingRanking ranking = new TrendingRanking(HALF_LIFE, 10, 0);
+        ranking.add(1, 2, 0);
+        ranking.add(1, -2, 0);
+
+        assertEquals(0, ranking.size());
+        assertEquals(List.of(), ranking.top(10));
+    }
+
+    @Test
+    void evictsTheLowestScoreWhenFull() {
+        TrendingRanking ranking = new TrendingRanking(HALF_LIFE, 2, 0);
+        ranking.add(1, 1, 0);
+        ranking.add(2, 2, 0);
+
+        ranking.add(3, 3, 0);
+        assertEquals(List.of(3L, 2L), ranking.top(10));
+
+        // Below every tracked blog, so not admitted
+        ranking.add(4, 1, 0);
+        assertEquals(List.of(3L, 2L), ranking.top(10));
+        assertEquals(2, ranking.size());
+    }
+
+    @Test
+    void rebasingKeepsDecayedScoresAndOrder() {
+        TrendingRanking ranking = new TrendingRanking(HALF_LIFE, 10, 0);
+        ranking.add(1, 4, 0);
+        ranking.add(2, 1, 0);
+        long now = 100 * HALF_LIFE;
+        List<TrendingRanking.Entry> before = ranking.decayedScores(now);
+
+        // The exponent at now is 100 * ln 2, about 69
+        ranking.rebase(now, 50);
+
+        List<TrendingRanking.Entry> after = ranking.decayedScores(now);
+        assertEquals(before.size(), after.size());
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.get(i).blogId(), after.get(i).blogId());
+            assertEquals(1, after.get(i).score() / before.get(i).score(), 1e-9);
+        }
+        // New engagement is weighed against the rebased scores
+        ranking.add(2, 1, now);
+        assertEquals(List.of(2L, 1L), ranking.top(10));
+        assertEquals(1, score(ranking, 2, now) - before.get(1).score(), 1e-9);
+    }
+
+    @Test
+    void restoresScoresFromASnapshot(@TempDir Path directory) throws Exception {
+        TrendingRanking ranking = new TrendingRanking(HALF_LIFE, 10, 0);
+        ranking.add(1, 8, 0);
+        ranking.add(2, 2, HALF_LIFE);
+        TrendingSnapshotStore store = new TrendingSnapshotStore(directory);
+        store.write(2 * HALF_LIFE, ranking.decayedScores(2 * HALF_LIFE));
+
+        TrendingSnapshotStore.Snapshot snapshot = new TrendingSnapshotStore(directory).load().orElseThrow();
+        TrendingRanking restored = new TrendingRanking(HALF_LIFE, 10, 5 * HALF_LIFE);
+        for (TrendingRanking.Entry entry : snapshot.entries()) {
+            restored.add(entry.blogId(), entry.score(), snapshot.snapshotAt());
+        }
+
+        assertEquals(2 * HALF_LIFE, snapshot.snapshotAt());
+        assertEquals(ranking.top(10), restored.top(10));
+        assertEquals(score(ranking, 1, 4 * HALF_LIFE), score(restored, 1, 4 * HALF_LIFE), 1e-9);
+        assertEquals(score(ranking, 2, 4 * HALF_LIFE), score(restored, 2, 4 * HALF_LIFE), 1e-9);
+    }
+
+    @Test
+    void ignoresAMissingOrForeignSnapshot(@TempDir Path directory) throws Exception {
+        TrendingSnapshotStore store = new TrendingSnapshotStore(directory);
+        assertTrue(store.load().isEmpty());
+
+        Files.write(directory.resolve("trending.snap"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertTrue(store.load().isEmpty());
+    }
+
+    private static double score(TrendingRanking ranking, long blogId, long now) {
+        return ranking.decayedScores(now).stream()
+                .filter(entry -> entry.blogId() == blogId)
+                .mapToDouble(TrendingRanking.Entry::score)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,268 @@
+package com.blogspot.engagement.archive;
+
+import com.blogspot.engagement.dto.ViewRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, memory-mapped file of archived views, stored column by column.
+ * <p>
+ * Rows are sorted by blog and time. The blog column is run-length encoded as
+ * (blog id, first row, row count) runs, so a blog's rows are found by binary search; the
+ * time column holds seconds since the segment's earliest view in 4 bytes; usernames and
+ * IP addresses are dictionary-encoded with codes as narrow as the dictionary allows
+ * (code 0 is null). All sections are fixed-width, so queries read the mapping in place.
+ * Times are local date-times, encoded as if they were UTC.
+ */
+public final class ViewSegment {
+
+    private static final int MAGIC = 0x56534731; // "VSG1"
+    private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES;
+    private static final int RUN_SIZE = Long.BYTES + Integer.BYTES * 2;
+
+    /** Receives the rows of a scan. */
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long blogId, LocalDateTime viewedAt, String username, String ipAddress);
+    }
+
+    private final ByteBuffer data;
+    private final int rowCount;
+    private final long baseSecond;
+    private final int runCount;
+    private final int timesOffset;
+    private final Column usernames;
+    private final Column ipAddresses;
+
+    private ViewSegment(ByteBuffer data) {
+        this.data = data;
+        if (data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a view segment");
+        }
+        this.rowCount = data.getInt(Integer.BYTES);
+        this.baseSecond = data.getLong(Integer.BYTES * 2);
+        this.runCount = data.getInt(Integer.BYTES * 2 + Long.BYTES);
+        this.timesOffset = HEADER_SIZE + runCount * RUN_SIZE;
+        this.usernames = new Column(data, timesOffset + rowCount * Integer.BYTES, rowCount);
+        this.ipAddresses = new Column(data, usernames.end, rowCount);
+    }
+
+    /**
+     * Maps an existing segment file. The mapping stays valid after the channel is closed.
+     */
+    public static ViewSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ViewSegment(mapped);
+        }
+    }
+
+    /**
+     * Writes {@code views} as a segment file. The file is written under a temporary name,
+     * synced and then moved into place, so a segment file is never seen half-written.
+     */
+    public static void write(Path file, List<ViewRecord> views) throws IOException {
+        List<ViewRecord> rows = new ArrayList<>(views);
+        rows.sort(Comparator.comparingLong(ViewRecord::blogId).thenComparing(ViewRecord::viewedAt));
+        long baseSecond = rows.stream().mapToLong(view -> epochSecond(view.viewedAt())).min().orElse(0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 8 + 1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+        List<long[]> runs = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            long blogId = rows.get(i).blogId();
+            if (runs.isEmpty() || runs.get(runs.size() - 1)[0] != blogId) {
+                runs.add(new long[] {blogId, i, 0});
+            }
+            runs.get(runs.size() - 1)[2]++;
+        }
+        out.writeInt(MAGIC);
+        out.writeInt(rows.size());
+        out.writeLong(baseSecond);
+        out.writeInt(runs.size());
+        for (long[] run : runs) {
+            out.writeLong(run[0]);
+            out.writeInt((int) run[1]);
+            out.writeInt((int) run[2]);
+        }
+        for (ViewRecord view : rows) {
+            long offset = epochSecond(view.viewedAt()) - baseSecond;
+            if (offset > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Segment spans too long a period");
+            }
+            out.writeInt((int) offset);
+        }
+        writeColumn(out, rows.stream().map(ViewRecord::username).toList());
+        writeColumn(out, rows.stream().map(ViewRecord::ipAddress).toList());
+        out.flush();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Number of views of the blog in {@code [from, to)}.
+     */
+    public int count(long blogId, LocalDateTime from, LocalDateTime to) {
+        int[] range = rowRange(blogId, from, to);
+        return range[1] - range[0];
+    }
+
+    /**
+     * Visits the views of the blog in {@code [from, to)}, in time order.
+     */
+    public void scan(long blogId, LocalDateTime from, LocalDateTime to, Visitor visitor) {
+        int[] range = rowRange(blogId, from, to);
+        for (int row = range[0]; row < range[1]; row++) {
+            visitor.visit(blogId, timeOf(row), usernames.valueOf(data, row), ipAddresses.valueOf(data, row));
+        }
+    }
+
+    private int[] rowRange(long blogId, LocalDateTime from, LocalDateTime to) {
+        int low = 0;
+        int high = runCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midBlog = data.getLong(HEADER_SIZE + mid * RUN_SIZE);
+            if (midBlog < blogId) {
+                low = mid + 1;
+            } else if (midBlog > blogId) {
+                high = mid - 1;
+            } else {
+                int start = data.getInt(HEADER_SIZE + mid * RUN_SIZE + Long.BYTES);
+                int end = start + data.getInt(HEADER_SIZE + mid * RUN_SIZE + Long.BYTES + Integer.BYTES);
+                return new int[] {firstAtOrAfter(start, end, from), firstAtOrAfter(start, end, to)};
+            }
+        }
+        return new int[] {0, 0};
+    }
+
+    /** First row of {@code [start, end)} whose time is not before {@code time}. */
+    private int firstAtOrAfter(int start, int end, LocalDateTime time) {
+        long target = epochSecond(time) - baseSecond;
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Integer.toUnsignedLong(data.getInt(timesOffset + mid * Integer.BYTES)) < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private LocalDateTime timeOf(int row) {
+        long second = baseSecond + Integer.toUnsignedLong(data.getInt(timesOffset + row * Integer.BYTES));
+        return LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC);
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static void writeColumn(DataOutputStream out, List<String> values) throws IOException {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int[] encoded = new int[values.size()];
+        for (int i = 0; i < encoded.length; i++) {
+            String value = values.get(i);
+            if (value != null) {
+                encoded[i] = codes.computeIfAbsent(value, v -> {
+                    dictionary.add(v);
+                    return dictionary.size();
+                });
+            }
+        }
+        int width = codeWidth(dictionary.size());
+        out.writeInt(dictionary.size());
+        out.writeInt(width);
+        for (String value : dictionary) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+        for (int code : encoded) {
+            writeCode(out, code, width);
+        }
+    }
+
+    private static int codeWidth(int dictionarySize) {
+        if (dictionarySize < 0xFF) {
+            return Byte.BYTES;
+        }
+        return dictionarySize < 0xFFFF ? Short.BYTES : Integer.BYTES;
+    }
+
+    private static void writeCode(OutputStream out, int code, int width) throws IOException {
+        for (int shift = (width - 1) * 8; shift >= 0; shift -= 8) {
+            out.write(code >>> shift);
+        }
+    }
+
+    /** A dictionary-encoded string column: the dictionary is decoded on open. */
+    private static final class Column {
+
+        private final String[] dictionary;
+        private final int width;
+        private final int codesOffset;
+        private final int end;
+
+        Column(ByteBuffer data, int offset, int rowCount) {
+            int size = data.getInt(offset);
+            this.width = data.getInt(offset + Integer.BYTES);
+            this.dictionary = new String[size];
+            int position = offset + Integer.BYTES * 2;
+            for (int i = 0; i < size; i++) {
+                int length = data.getInt(position);
+                byte[] utf8 = new byte[length];
+                data.get(position + Integer.BYTES, utf8);
+                dictionary[i] = new String(utf8, StandardCharsets.UTF_8);
+                position += Integer.BYTES + length;
+            }
+            this.codesOffset = position;
+            this.end = position + rowCount * width;
+        }
+
+        String valueOf(ByteBuffer data, int row) {
+            int at = codesOffset + row * width;
+            int code = switch (width) {
+                case Byte.BYTES -> Byte.toUnsignedInt(data.get(at));
+                case Short.BYTES -> Short.toUnsignedInt(data.getShort(at));
+                default -> data.getInt(at);
+            };
+            return code == 0 ? null : dictionary[code - 1];
+        }
+    }
+}
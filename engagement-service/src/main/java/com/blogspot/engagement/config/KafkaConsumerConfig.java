@@ -0,0 +1,30 @@
+package com.blogspot.engagement.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+@Configuration
+@ConditionalOnProperty(name = "engagement.views.ingest-mode", havingValue = "kafka")
+public class KafkaConsumerConfig {
+
+    /**
+     * Retries a failed batch of view events for as long as it keeps failing, backing off up
+     * to 30 seconds, so a database outage turns into consumer lag rather than lost views.
+     * Rows the database rejects would fail forever, so they are not retried; the consumer
+     * normally skips them itself.
+     */
+    @Bean
+    public CommonErrorHandler kafkaErrorHandler() {
+        ExponentialBackOff backOff = new ExponentialBackOff(1000, 2);
+        backOff.setMaxInterval(30000);
+        backOff.setMaxElapsedTime(Long.MAX_VALUE);
+        DefaultErrorHandler handler = new DefaultErrorHandler(backOff);
+        handler.addNotRetryableExceptions(DataIntegrityViolationException.class);
+        return handler;
+    }
+}
@@ -1,16 +1,38 @@
 package com.blogspot.engagement.controller;
 
+import com.blogspot.engagement.dto.CommentDtos.CommentPage;
 import com.blogspot.engagement.dto.CommentDtos.CommentResponse;
 import com.blogspot.engagement.dto.CommentDtos.CreateCommentRequest;
 import com.blogspot.engagement.dto.CommentDtos.UpdateCommentRequest;
+import com.blogspot.engagement.dto.ArchivedViewsDto;
+import com.blogspot.engagement.dto.BlogStatsDto;
+import com.blogspot.engagement.dto.EngagementSeriesDto;
+import com.blogspot.engagement.dto.UniqueViewersDto;
+import com.blogspot.engagement.model.RollupGranularity;
+import com.blogspot.engagement.model.ViewerSketch;
 import com.blogspot.engagement.service.EngagementService;
+import com.blogspot.engagement.service.LiveCountsService;
+import com.blogspot.engagement.service.RollupService;
+import com.blogspot.engagement.service.UniqueViewerService;
+import com.blogspot.engagement.service.ViewArchiveService;
+import com.blogspot.engagement.service.ViewIngestionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RestController
@@ -18,7 +40,22 @@ import java.util.List;
 @RequiredArgsConstructor
 public class EngagementController {
 
+    private static final int MAX_STATS_BATCH = 100;
+    private static final int MAX_COMMENT_PAGE_SIZE = 50;
+    private static final int MAX_INLINE_REPLIES = 10;
+    private static final int MAX_THREAD_DEPTH = 10;
+    private static final int MAX_UNIQUE_VIEWERS_RANGE_DAYS = 366;
+    private static final int MAX_DAILY_ANALYTICS_RANGE_DAYS = 366;
+    private static final int MAX_HOURLY_ANALYTICS_RANGE_DAYS = 31;
+    private static final int DEFAULT_ANALYTICS_RANGE_DAYS = 30;
+    private static final Duration STATS_MAX_AGE = Duration.ofSeconds(5);
+
     private final EngagementService engagementService;
+    private final ViewIngestionService viewIngestionService;
+    private final UniqueViewerService uniqueViewerService;
+    private final RollupService rollupService;
+    private final ViewArchiveService viewArchiveService;
+    private final LiveCountsService liveCountsService;
 
     // Likes
     @PostMapping("/blogs/{blogId}/likes")
@@ -56,6 +93,14 @@ public class EngagementController {
         return ResponseEntity.ok(isLiked);
     }
 
+    @GetMapping("/blogs/likes/status")
+    public ResponseEntity<List<Long>> getLikedBlogIds(@RequestParam("blogIds") List<Long> blogIds) {
+        if (blogIds.size() > MAX_STATS_BATCH) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(engagementService.getLikedBlogIds(extractUsername(), blogIds));
+    }
+
     @GetMapping("/public/blogs/{blogId}/likes/count")
     public ResponseEntity<Long> getLikes(@PathVariable Long blogId) {
         return ResponseEntity.ok(engagementService.getLikeCount(blogId));
@@ -68,8 +113,11 @@ public class EngagementController {
                                         @RequestHeader(value = "X-Username", required = false) String usernameHeader) {
         String username = usernameHeader != null ? usernameHeader : extractUsernameNullable();
         String ip = xff != null ? xff : xri;
-        engagementService.recordView(blogId, username, ip);
-        return ResponseEntity.ok().build();
+        if (!viewIngestionService.submit(blogId, username, ip)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        // Written asynchronously in the next batch
+        return ResponseEntity.accepted().build();
     }
 
     @GetMapping("/public/blogs/{blogId}/views/count")
@@ -77,6 +125,75 @@ public class EngagementController {
         return ResponseEntity.ok(engagementService.getViewCount(blogId));
     }
 
+    @GetMapping("/public/blogs/{blogId}/views/archive")
+    public ResponseEntity<ArchivedViewsDto> getArchivedViews(@PathVariable Long blogId,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(viewArchiveService.summarize(blogId, from, to));
+    }
+
+    @GetMapping("/public/blogs/{blogId}/unique-viewers")
+    public ResponseEntity<UniqueViewersDto> getUniqueViewers(@PathVariable Long blogId,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (!isValidRange(from, to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(UniqueViewersDto.builder()
+            .blogId(blogId)
+            .from(from)
+            .to(to)
+            .uniqueViewers(uniqueViewerService.estimateForBlog(blogId, from, to))
+            .build());
+    }
+
+    @GetMapping("/public/authors/{authorId}/unique-viewers")
+    public ResponseEntity<UniqueViewersDto> getAuthorUniqueViewers(@PathVariable Long authorId,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (!isValidRange(from, to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(UniqueViewersDto.builder()
+            .authorId(authorId)
+            .from(from)
+            .to(to)
+            .uniqueViewers(uniqueViewerService.estimateForAuthor(authorId, from, to))
+            .build());
+    }
+
+    // Analytics
+    @GetMapping("/public/blogs/{blogId}/analytics")
+    public ResponseEntity<EngagementSeriesDto> getAnalytics(@PathVariable Long blogId,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+                                                            @RequestParam(required = false) Integer points) {
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(DEFAULT_ANALYTICS_RANGE_DAYS - 1);
+        if (!isValidAnalyticsRange(first, last, granularity) || (points != null && points < 1)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(rollupService.seriesForBlog(blogId, granularity, first, last, points));
+    }
+
+    @GetMapping("/public/authors/{authorId}/analytics")
+    public ResponseEntity<EngagementSeriesDto> getAuthorAnalytics(@PathVariable Long authorId,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                  @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+                                                                  @RequestParam(required = false) Integer points) {
+        LocalDate last = to != null ? to : LocalDate.now();
+        LocalDate first = from != null ? from : last.minusDays(DEFAULT_ANALYTICS_RANGE_DAYS - 1);
+        if (!isValidAnalyticsRange(first, last, granularity) || (points != null && points < 1)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(rollupService.seriesForAuthor(authorId, granularity, first, last, points));
+    }
+
     // Comments
     @PostMapping("/blogs/{blogId}/comments")
     public ResponseEntity<CommentResponse> addComment(@PathVariable Long blogId, @Valid @RequestBody CreateCommentRequest request) {
@@ -111,14 +228,101 @@ public class EngagementController {
         return ResponseEntity.ok(engagementService.getCommentsTree(blogId));
     }
 
+    @GetMapping("/public/blogs/{blogId}/comments/page")
+    public ResponseEntity<CommentPage> getCommentPage(@PathVariable Long blogId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "10") int size,
+                                                      @RequestParam(defaultValue = "3") int replies) {
+        if (size < 1 || size > MAX_COMMENT_PAGE_SIZE || replies < 0 || replies > MAX_INLINE_REPLIES) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(engagementService.getComments(blogId, cursor, size, replies));
+    }
+
+    @GetMapping("/public/comments/{commentId}/replies")
+    public ResponseEntity<CommentPage> getReplies(@PathVariable Long commentId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "10") int size) {
+        if (size < 1 || size > MAX_COMMENT_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(engagementService.getReplies(commentId, cursor, size));
+    }
+
+    @GetMapping("/public/comments/{commentId}/thread")
+    public ResponseEntity<CommentResponse> getThread(@PathVariable Long commentId,
+                                                     @RequestParam(defaultValue = "3") int depth) {
+        if (depth < 0 || depth > MAX_THREAD_DEPTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(engagementService.getThread(commentId, depth));
+    }
+
     @GetMapping("/public/blogs/{blogId}/comments/count")
     public ResponseEntity<Long> getCommentCount(@PathVariable Long blogId) {
         return ResponseEntity.ok(engagementService.getCommentCount(blogId));
     }
 
+    // Stats
+    @GetMapping("/public/blogs/stats")
+    public ResponseEntity<List<BlogStatsDto>> getStats(@RequestParam("blogIds") List<Long> blogIds) {
+        if (blogIds.size() > MAX_STATS_BATCH) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(engagementService.getStats(blogIds));
+    }
+
+    @GetMapping("/public/blogs/{blogId}/stats")
+    public ResponseEntity<BlogStatsDto> getBlogStats(@PathVariable Long blogId) {
+        String username = extractUsernameNullable();
+        BlogStatsDto stats = engagementService.getStats(blogId, username);
+        String eTag = "W/\"" + stats.getLikeCount() + "-" + stats.getViewCount() + "-" + stats.getCommentCount()
+            + (stats.getLiked() == null ? "" : stats.getLiked() ? "-l" : "-n") + "\"";
+        // The liked flag is per user: shared caches may only keep anonymous responses
+        CacheControl cacheControl = username == null
+            ? CacheControl.maxAge(STATS_MAX_AGE).cachePublic()
+            : CacheControl.noCache().cachePrivate();
+        // A matching If-None-Match is answered with 304 by Spring, without a body
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).varyBy(HttpHeaders.AUTHORIZATION).body(stats);
+    }
+
+    @GetMapping(path = "/public/blogs/stats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStats(@RequestParam("blogIds") List<Long> blogIds) {
+        if (blogIds.isEmpty() || blogIds.size() > MAX_STATS_BATCH) {
+            return ResponseEntity.badRequest().build();
+        }
+        SseEmitter emitter = liveCountsService.subscribe(blogIds);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        // Keep reverse proxies from buffering the stream
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+    }
+
+    /**
+     * Both bounds or neither (all time); a range is inclusive and at most a year long.
+     */
+    private boolean isValidRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            return from == null && to == null;
+        }
+        return from.isAfter(ViewerSketch.ALL_TIME) && !to.isBefore(from)
+            && ChronoUnit.DAYS.between(from, to) < MAX_UNIQUE_VIEWERS_RANGE_DAYS;
+    }
+
+    /**
+     * An inclusive range of at most a year of daily buckets, or a month of hourly ones.
+     */
+    private boolean isValidAnalyticsRange(LocalDate from, LocalDate to, RollupGranularity granularity) {
+        int maxDays = granularity == RollupGranularity.HOUR ? MAX_HOURLY_ANALYTICS_RANGE_DAYS : MAX_DAILY_ANALYTICS_RANGE_DAYS;
+        return !to.isBefore(from) && ChronoUnit.DAYS.between(from, to) < maxDays;
+    }
+
     private String extractUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || authentication.getName() == null) {
+        // Public endpoints get an anonymous token named "anonymousUser", not a null one
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+            || authentication.getName() == null) {
             throw new IllegalStateException("Unauthenticated");
         }
         return authentication.getName();
@@ -0,0 +1,105 @@
+package com.blogspot.engagement.counter;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory like/view/comment counts of one blog.
+ * <p>
+ * A count is {@code base + pending}: {@code base} is what the counts table holds for the
+ * blog (as of the last load plus this instance's flushed deltas), {@code pending} the
+ * deltas recorded here but not yet flushed. Increments only touch the striped
+ * {@link LongAdder}s, so concurrent writers to a hot blog do not contend. Moving a flushed
+ * delta from pending to base happens under a write lock, and readers validate against
+ * it, so a read never sees the delta twice or not at all.
+ */
+public class BlogCounters {
+
+    private static final int TYPES = CounterType.values().length;
+
+    private final StampedLock lock = new StampedLock();
+    private final long[] base = new long[TYPES];
+    private final LongAdder[] pending = new LongAdder[TYPES];
+    private volatile long refreshedAt;
+    private volatile long lastAccess;
+
+    public BlogCounters(long[] persisted, long now) {
+        System.arraycopy(persisted, 0, base, 0, TYPES);
+        for (int i = 0; i < TYPES; i++) {
+            pending[i] = new LongAdder();
+        }
+        this.refreshedAt = now;
+        this.lastAccess = now;
+    }
+
+    public long get(CounterType type) {
+        int i = type.ordinal();
+        long stamp = lock.tryOptimisticRead();
+        long value = base[i] + pending[i].sum();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = base[i] + pending[i].sum();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    public void add(CounterType type, long delta) {
+        pending[type.ordinal()].add(delta);
+    }
+
+    /**
+     * Returns the unflushed deltas, or null if there are none. Pending is left as is until
+     * the flush commits and {@link #applyFlushed} is called.
+     */
+    public long[] pendingSnapshot() {
+        long[] snapshot = new long[TYPES];
+        boolean any = false;
+        for (int i = 0; i < TYPES; i++) {
+            snapshot[i] = pending[i].sum();
+            any |= snapshot[i] != 0;
+        }
+        return any ? snapshot : null;
+    }
+
+    public void applyFlushed(long[] flushed) {
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < TYPES; i++) {
+                base[i] += flushed[i];
+                pending[i].add(-flushed[i]);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces the base with a fresh read of the counts table, picking up deltas flushed
+     * by other instances. Must not race with a flush of this instance.
+     */
+    public void resetBase(long[] persisted, long now) {
+        long stamp = lock.writeLock();
+        try {
+            System.arraycopy(persisted, 0, base, 0, TYPES);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        refreshedAt = now;
+    }
+
+    public long getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    public void touch(long now) {
+        lastAccess = now;
+    }
+}
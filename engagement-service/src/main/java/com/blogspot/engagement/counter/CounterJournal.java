@@ -0,0 +1,174 @@
+package com.blogspot.engagement.counter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of counter deltas that have been applied in memory but not yet flushed
+ * to the counts table.
+ * <p>
+ * Records are fixed-size (blog id, counter type, delta) and go to the current segment
+ * file. A flush rolls the segment first: everything in sealed segments up to the
+ * flushed sequence is then covered by the table and the checkpoint row, and is deleted.
+ * After a crash the segments newer than the checkpoint are replayed; a torn record at
+ * the end of a segment is ignored. Appends are not synced individually; the journal
+ * covers process crashes, the OS page cache covers the rest.
+ */
+@Slf4j
+public class CounterJournal implements AutoCloseable {
+
+    private static final int RECORD_SIZE = Long.BYTES + Byte.BYTES + Integer.BYTES;
+    private static final String PREFIX = "counters-";
+    private static final String SUFFIX = ".wal";
+    private static final String INSTANCE_FILE = "instance-id";
+
+    public record Entry(long blogId, CounterType type, int delta) {
+    }
+
+    private final Path directory;
+    private final String instanceId;
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+    private FileChannel channel;
+    private long sequence;
+
+    public CounterJournal(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.instanceId = readOrCreateInstanceId();
+    }
+
+    /**
+     * Identifies this journal in the checkpoint table; stable across restarts as long as
+     * the journal directory is kept.
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Returns the sequences of the segments on disk, oldest first.
+     */
+    public List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(CounterJournal::isSegment)
+                    .map(CounterJournal::sequenceOf)
+                    .filter(seq -> seq >= 0)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public List<Entry> read(long segment) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Path file = segmentPath(segment);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            while (true) {
+                long blogId;
+                int type;
+                int delta;
+                try {
+                    blogId = in.readLong();
+                    type = in.readByte();
+                    delta = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (type < 0 || type >= CounterType.values().length) {
+                    log.warn("Stopping replay of counter journal segment {} at a corrupt record", file);
+                    break;
+                }
+                entries.add(new Entry(blogId, CounterType.ofOrdinal(type), delta));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Starts appending to a new segment after {@code lastSequence}.
+     */
+    public synchronized void open(long lastSequence) throws IOException {
+        sequence = lastSequence + 1;
+        channel = FileChannel.open(segmentPath(sequence),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public synchronized void append(long blogId, CounterType type, int delta) throws IOException {
+        buffer.clear();
+        buffer.putLong(blogId).put((byte) type.ordinal()).putInt(delta).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Seals the current segment and starts the next one. Returns the sealed sequence.
+     */
+    public synchronized long roll() throws IOException {
+        long sealed = sequence;
+        channel.force(false);
+        channel.close();
+        open(sealed);
+        return sealed;
+    }
+
+    public void deleteUpTo(long sealed) throws IOException {
+        for (long segment : segments()) {
+            if (segment <= sealed) {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private String readOrCreateInstanceId() throws IOException {
+        Path file = directory.resolve(INSTANCE_FILE);
+        if (Files.exists(file)) {
+            String id = Files.readString(file, StandardCharsets.UTF_8).trim();
+            if (!id.isEmpty()) {
+                return id;
+            }
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id, StandardCharsets.UTF_8);
+        return id;
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(PREFIX + segment + SUFFIX);
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
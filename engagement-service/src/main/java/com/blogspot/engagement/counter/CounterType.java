@@ -0,0 +1,16 @@
+package com.blogspot.engagement.counter;
+
+/**
+ * The engagement counters kept per blog. Names match the milestone and delta event types.
+ */
+public enum CounterType {
+    LIKES,
+    VIEWS,
+    COMMENTS;
+
+    private static final CounterType[] VALUES = values();
+
+    public static CounterType ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
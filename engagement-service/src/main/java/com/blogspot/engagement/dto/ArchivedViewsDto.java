@@ -0,0 +1,24 @@
+package com.blogspot.engagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Views of a blog between {@code from} and {@code to} inclusive that have been moved to the
+ * view archive, with the exact number of distinct viewers among them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedViewsDto {
+    private Long blogId;
+    private LocalDate from;
+    private LocalDate to;
+    private long views;
+    private long distinctViewers;
+}
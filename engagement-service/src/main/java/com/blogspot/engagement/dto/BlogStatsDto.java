@@ -0,0 +1,24 @@
+package com.blogspot.engagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Like, view and comment counts for a single blog, and whether the caller likes it when
+ * that was asked for by an authenticated user.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlogStatsDto {
+    private Long blogId;
+    private long likeCount;
+    private long viewCount;
+    private long commentCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean liked;
+}
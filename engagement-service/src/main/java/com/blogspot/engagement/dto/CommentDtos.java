@@ -1,5 +1,6 @@
 package com.blogspot.engagement.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -46,6 +47,26 @@ public class CommentDtos {
         private LocalDateTime updatedAt;
         @Builder.Default
         private List<CommentResponse> replies = new ArrayList<>();
+        // Set by the paginated endpoints only: direct replies in total, and where to
+        // continue when more exist than are inlined in replies
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Long replyCount;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String repliesCursor;
+        // Set on the root of a thread response: replies at any depth below it
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Long totalReplyCount;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class CommentPage {
+        private List<CommentResponse> content;
+        private int size;
+        private boolean hasNext;
+        private String nextCursor;
     }
 }
 
@@ -0,0 +1,16 @@
+package com.blogspot.engagement.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO representing a change in a blog's engagement for Kafka.
+ * Published after every committed like, unlike, view and comment write; consumed by
+ * blog-service to rank trending blogs.
+ */
+public record EngagementDeltaEvent(
+        @JsonProperty("blogId") String blogId,
+        @JsonProperty("type") String type,
+        @JsonProperty("delta") int delta,
+        @JsonProperty("occurredAt") long occurredAt
+) {
+}
@@ -0,0 +1,40 @@
+package com.blogspot.engagement.dto;
+
+import com.blogspot.engagement.model.RollupGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Views, likes and comments of a blog or of all blogs of an author over {@code from} to
+ * {@code to} inclusive. Every bucket of the range has a point, zero if nothing happened;
+ * when downsampled each point sums {@code bucketsPerPoint} consecutive buckets.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EngagementSeriesDto {
+    private Long blogId;
+    private Long authorId;
+    private RollupGranularity granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private int bucketsPerPoint;
+    private List<Point> points;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDateTime start;
+        private long views;
+        private long likes;
+        private long comments;
+    }
+}
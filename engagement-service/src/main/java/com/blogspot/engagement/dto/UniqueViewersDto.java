@@ -0,0 +1,24 @@
+package com.blogspot.engagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Estimated number of distinct viewers of a blog or of all blogs of an author. {@code from}
+ * and {@code to} are null for the all-time estimate.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UniqueViewersDto {
+    private Long blogId;
+    private Long authorId;
+    private LocalDate from;
+    private LocalDate to;
+    private long uniqueViewers;
+}
@@ -0,0 +1,47 @@
+package com.blogspot.engagement.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A blog view: accepted for recording but not yet written to {@code views}, or read back
+ * from the view archive.
+ * <p>
+ * The username and IP address come from request headers; longer values than the columns
+ * hold are cut, since one oversized row fails the whole multi-row insert of its batch.
+ */
+public record ViewRecord(Long blogId, String username, String ipAddress, LocalDateTime viewedAt) {
+
+    /** Length of the {@code views.username} and {@code views.ip_address} columns. */
+    public static final int MAX_FIELD_LENGTH = 255;
+
+    /**
+     * Principal name Spring Security gives unauthenticated requests. Older view rows were
+     * recorded with it, so it is treated as no username.
+     */
+    public static final String ANONYMOUS_USERNAME = "anonymousUser";
+
+    public ViewRecord {
+        username = truncate(username);
+        ipAddress = truncate(ipAddress);
+    }
+
+    /**
+     * Identifies the viewer for distinct counts: the username, else the client IP address;
+     * null if the view has neither.
+     */
+    public String viewerKey() {
+        if (username != null && !username.isBlank() && !ANONYMOUS_USERNAME.equals(username)) {
+            return "u:" + username;
+        }
+        if (ipAddress != null && !ipAddress.isBlank()) {
+            // X-Forwarded-For lists the client first
+            int comma = ipAddress.indexOf(',');
+            return "ip:" + (comma >= 0 ? ipAddress.substring(0, comma) : ipAddress).trim();
+        }
+        return null;
+    }
+
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_FIELD_LENGTH ? value.substring(0, MAX_FIELD_LENGTH) : value;
+    }
+}
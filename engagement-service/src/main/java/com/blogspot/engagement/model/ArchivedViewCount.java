@@ -0,0 +1,30 @@
+package com.blogspot.engagement.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of a blog's views moved from {@code views} to the archive, so that counts
+ * rebuilt from the raw tables still include them.
+ */
+@Entity
+@Table(name = "archived_view_counts")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedViewCount {
+
+    @Id
+    @Column(name = "blog_id")
+    private Long blogId;
+
+    @Column(name = "views", nullable = false)
+    private long views;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -8,7 +8,11 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "comments", indexes = {
     @Index(name = "idx_comments_blog", columnList = "blog_id"),
-    @Index(name = "idx_comments_parent", columnList = "parent_id")
+    @Index(name = "idx_comments_parent", columnList = "parent_id"),
+    // Serves root and reply pages: (blog_id, parent_id) equality, then keyset order
+    @Index(name = "idx_comments_blog_parent_created", columnList = "blog_id, parent_id, created_at, id"),
+    // Subtree queries are prefix ranges over the materialized path
+    @Index(name = "idx_comments_blog_path", columnList = "blog_id, path")
 })
 @Getter
 @Setter
@@ -34,9 +38,21 @@ public class CommentEntity {
     @JoinColumn(name = "parent_id")
     private CommentEntity parent; // null for root comments
 
+    // See CommentPaths; null only until the backfill has reached pre-existing rows
+    @Column(name = "path", length = CommentPaths.PATH_MAX_LENGTH)
+    private String path;
+
+    @Column(name = "depth")
+    private Integer depth; // 0 for root comments
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // Set by the database when the row is inserted; rollups wait on this, not on createdAt
+    @Column(name = "inserted_at", nullable = false, insertable = false, updatable = false,
+        columnDefinition = "DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)")
+    private LocalDateTime insertedAt;
+
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
@@ -0,0 +1,38 @@
+package com.blogspot.engagement.model;
+
+/**
+ * Materialized paths for comments.
+ * <p>
+ * A path is the comment's ancestors' ids followed by its own, each as a fixed-width,
+ * zero-padded base-36 segment terminated by {@code '/'}. Fixed width makes paths sort in
+ * tree order (parents first, siblings by id), and every subtree is exactly the set of
+ * paths starting with its root's path, i.e. one index range. The backfill SQL in
+ * {@code CommentRepository} must produce the same encoding.
+ */
+public final class CommentPaths {
+
+    // Long.MAX_VALUE is 13 digits in base 36
+    public static final int SEGMENT_LENGTH = 13;
+    public static final int PATH_MAX_LENGTH = 700;
+    public static final int MAX_DEPTH = PATH_MAX_LENGTH / (SEGMENT_LENGTH + 1) - 1;
+
+    private CommentPaths() {
+    }
+
+    public static String childPath(String parentPath, long id) {
+        String digits = Long.toString(id, 36);
+        StringBuilder path = new StringBuilder((parentPath != null ? parentPath.length() : 0) + SEGMENT_LENGTH + 1);
+        if (parentPath != null) {
+            path.append(parentPath);
+        }
+        for (int i = digits.length(); i < SEGMENT_LENGTH; i++) {
+            path.append('0');
+        }
+        return path.append(digits).append('/').toString();
+    }
+
+    /** Depth of the comment with this path; roots are at depth 0. */
+    public static int depthOf(String path) {
+        return path.length() / (SEGMENT_LENGTH + 1) - 1;
+    }
+}
@@ -0,0 +1,30 @@
+package com.blogspot.engagement.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last counter journal segment of an instance whose deltas are included in
+ * {@code blog_engagement_counts}. Written in the same transaction as the deltas.
+ */
+@Entity
+@Table(name = "engagement_counter_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CounterCheckpoint {
+
+    @Id
+    @Column(name = "instance_id", length = 36)
+    private String instanceId;
+
+    @Column(name = "segment", nullable = false)
+    private long segment;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,61 @@
+package com.blogspot.engagement.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Views, likes and comments a blog received within one hour or day. Likes and comments
+ * count when they were made; later unlikes and deletions are not subtracted. The author
+ * is copied in so per-author series need no join.
+ */
+@Entity
+@Table(name = "engagement_rollups", indexes = {
+    @Index(name = "idx_engagement_rollups_author", columnList = "author_id, granularity, bucket_start"),
+    // Pruning of expired hourly buckets
+    @Index(name = "idx_engagement_rollups_bucket", columnList = "granularity, bucket_start")
+})
+@IdClass(EngagementRollup.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EngagementRollup {
+
+    @Id
+    @Column(name = "blog_id")
+    private Long blogId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 8)
+    private RollupGranularity granularity;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(name = "author_id")
+    private Long authorId;
+
+    @Column(name = "views", nullable = false)
+    private long views;
+
+    @Column(name = "likes", nullable = false)
+    private long likes;
+
+    @Column(name = "comments", nullable = false)
+    private long comments;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long blogId;
+        private RollupGranularity granularity;
+        private LocalDateTime bucketStart;
+    }
+}
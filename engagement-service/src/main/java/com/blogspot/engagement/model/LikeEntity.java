@@ -8,6 +8,9 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "likes", uniqueConstraints = {
     @UniqueConstraint(name = "uk_like_blog_user", columnNames = {"blog_id", "username"})
+}, indexes = {
+    // Loads all likes of one user for the liked-blogs cache
+    @Index(name = "idx_likes_username_blog", columnList = "username, blog_id")
 })
 @Getter
 @Setter
@@ -29,6 +32,11 @@ public class LikeEntity {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // Set by the database when the row is inserted; rollups wait on this, not on createdAt
+    @Column(name = "inserted_at", nullable = false, insertable = false, updatable = false,
+        columnDefinition = "DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)")
+    private LocalDateTime insertedAt;
+
     @PrePersist
     public void onCreate() {
         if (createdAt == null) {
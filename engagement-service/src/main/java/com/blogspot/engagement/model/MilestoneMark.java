@@ -0,0 +1,44 @@
+package com.blogspot.engagement.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Highest milestone threshold announced for a blog and counter type. Milestones at or
+ * below it are never announced again, even if the count drops and climbs back.
+ */
+@Entity
+@Table(name = "engagement_milestones")
+@IdClass(MilestoneMark.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MilestoneMark {
+
+    @Id
+    @Column(name = "blog_id")
+    private Long blogId;
+
+    @Id
+    @Column(name = "type", length = 16)
+    private String type;
+
+    @Column(name = "threshold", nullable = false)
+    private long threshold;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long blogId;
+        private String type;
+    }
+}
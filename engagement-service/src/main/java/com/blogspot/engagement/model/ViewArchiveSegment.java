@@ -0,0 +1,45 @@
+package com.blogspot.engagement.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Catalog entry of a view archive segment file: the {@code views} id range it replaced
+ * and the time span of its rows. Inserted in the same transaction that deletes the rows.
+ */
+@Entity
+@Table(name = "view_archive_segments")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ViewArchiveSegment {
+
+    @Id
+    @Column(name = "segment")
+    private Long segment;
+
+    @Column(name = "file_name", nullable = false, length = 128)
+    private String fileName;
+
+    @Column(name = "first_id", nullable = false)
+    private long firstId;
+
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+
+    @Column(name = "min_viewed_at", nullable = false)
+    private LocalDateTime minViewedAt;
+
+    @Column(name = "max_viewed_at", nullable = false)
+    private LocalDateTime maxViewedAt;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -32,6 +32,11 @@ public class ViewEntity {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // Set by the database when the row is inserted; rollups wait on this, not on createdAt
+    @Column(name = "inserted_at", nullable = false, insertable = false, updatable = false,
+        columnDefinition = "DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)")
+    private LocalDateTime insertedAt;
+
     @PrePersist
     public void onCreate() {
         if (createdAt == null) {
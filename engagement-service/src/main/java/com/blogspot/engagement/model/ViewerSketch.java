@@ -0,0 +1,58 @@
+package com.blogspot.engagement.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Serialized HyperLogLog of the distinct viewers of a blog on one day, or over all time
+ * for {@link #ALL_TIME}. The author is copied in so per-author ranges need no join.
+ */
+@Entity
+@Table(name = "viewer_sketches", indexes = {
+    @Index(name = "idx_viewer_sketches_author_day", columnList = "author_id, day")
+})
+@IdClass(ViewerSketch.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ViewerSketch {
+
+    /** Day of the all-time sketch of a blog. */
+    public static final LocalDate ALL_TIME = LocalDate.EPOCH;
+
+    @Id
+    @Column(name = "blog_id")
+    private Long blogId;
+
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Column(name = "author_id")
+    private Long authorId;
+
+    @Lob
+    @Column(name = "registers", nullable = false, columnDefinition = "BLOB")
+    private byte[] registers;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long blogId;
+        private LocalDate day;
+    }
+}
@@ -0,0 +1,7 @@
+package com.blogspot.engagement.repository;
+
+import com.blogspot.engagement.model.BlogEngagementCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BlogEngagementCountRepository extends JpaRepository<BlogEngagementCount, Long> {
+}
@@ -0,0 +1,9 @@
+package com.blogspot.engagement.repository;
+
+/**
+ * Projection for the number of direct replies per parent comment.
+ */
+public interface CommentReplyCount {
+    Long getParentId();
+    long getTotal();
+}
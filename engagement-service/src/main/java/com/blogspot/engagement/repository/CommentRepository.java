@@ -1,18 +1,120 @@
 package com.blogspot.engagement.repository;
 
 import com.blogspot.engagement.model.CommentEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<CommentEntity, Long> {
-    long countByBlogId(Long blogId);
     List<CommentEntity> findByBlogIdAndParentIsNullOrderByCreatedAtAsc(Long blogId);
     
     @Query("SELECT c FROM CommentEntity c WHERE c.parent.id = :parentId ORDER BY c.createdAt ASC")
     List<CommentEntity> findByParentIdOrderByCreatedAtAsc(@Param("parentId") Long parentId);
-}
 
+    // Whole thread in one query; parents always precede their replies in this order
+    @Query("SELECT c.id AS id, c.blogId AS blogId, p.id AS parentId, c.username AS username, " +
+           "c.content AS content, c.createdAt AS createdAt, c.updatedAt AS updatedAt " +
+           "FROM CommentEntity c LEFT JOIN c.parent p WHERE c.blogId = :blogId ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentRow> findRowsByBlogId(@Param("blogId") Long blogId);
+
+    // Keyset pages of root comments and of one comment's replies, oldest first
+    @Query("SELECT c.id AS id, c.blogId AS blogId, p.id AS parentId, c.username AS username, " +
+           "c.content AS content, c.createdAt AS createdAt, c.updatedAt AS updatedAt " +
+           "FROM CommentEntity c LEFT JOIN c.parent p WHERE c.blogId = :blogId AND c.parent IS NULL " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentRow> findRootPage(@Param("blogId") Long blogId, Pageable pageable);
+
+    @Query("SELECT c.id AS id, c.blogId AS blogId, p.id AS parentId, c.username AS username, " +
+           "c.content AS content, c.createdAt AS createdAt, c.updatedAt AS updatedAt " +
+           "FROM CommentEntity c LEFT JOIN c.parent p WHERE c.blogId = :blogId AND c.parent IS NULL " +
+           "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentRow> findRootPageAfter(@Param("blogId") Long blogId, @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT c.id AS id, c.blogId AS blogId, p.id AS parentId, c.username AS username, " +
+           "c.content AS content, c.createdAt AS createdAt, c.updatedAt AS updatedAt " +
+           "FROM CommentEntity c JOIN c.parent p WHERE c.blogId = :blogId AND p.id = :parentId " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentRow> findReplyPage(@Param("blogId") Long blogId, @Param("parentId") Long parentId, Pageable pageable);
+
+    @Query("SELECT c.id AS id, c.blogId AS blogId, p.id AS parentId, c.username AS username, " +
+           "c.content AS content, c.createdAt AS createdAt, c.updatedAt AS updatedAt " +
+           "FROM CommentEntity c JOIN c.parent p WHERE c.blogId = :blogId AND p.id = :parentId " +
+           "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentRow> findReplyPageAfter(@Param("blogId") Long blogId, @Param("parentId") Long parentId,
+                                        @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                        Pageable pageable);
+
+    // The first :perParent replies of each parent, in one query
+    @Query(value = "SELECT t.id AS id, t.blog_id AS blogId, t.parent_id AS parentId, t.username AS username, " +
+                   "t.content AS content, t.created_at AS createdAt, t.updated_at AS updatedAt FROM (" +
+                   "SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.parent_id ORDER BY c.created_at, c.id) AS rn " +
+                   "FROM comments c WHERE c.blog_id = :blogId AND c.parent_id IN (:parentIds)) t " +
+                   "WHERE t.rn <= :perParent ORDER BY t.parent_id, t.created_at, t.id",
+           nativeQuery = true)
+    List<CommentRow> findFirstReplies(@Param("blogId") Long blogId, @Param("parentIds") Collection<Long> parentIds,
+                                      @Param("perParent") int perParent);
+
+    @Query("SELECT p.id AS parentId, COUNT(c) AS total FROM CommentEntity c JOIN c.parent p " +
+           "WHERE c.blogId = :blogId AND p.id IN :parentIds GROUP BY p.id")
+    List<CommentReplyCount> countRepliesGroupedByParentId(@Param("blogId") Long blogId,
+                                                          @Param("parentIds") Collection<Long> parentIds);
+
+    // Materialized-path queries; :prefix is the subtree root's path
+    @Query("SELECT c.id AS id, c.blogId AS blogId, p.id AS parentId, c.username AS username, " +
+           "c.content AS content, c.createdAt AS createdAt, c.updatedAt AS updatedAt " +
+           "FROM CommentEntity c LEFT JOIN c.parent p WHERE c.blogId = :blogId " +
+           "AND c.path LIKE CONCAT(:prefix, '%') AND c.depth <= :maxDepth ORDER BY c.path")
+    List<CommentRow> findSubtree(@Param("blogId") Long blogId, @Param("prefix") String prefix,
+                                 @Param("maxDepth") int maxDepth);
+
+    @Query("SELECT COUNT(c) FROM CommentEntity c WHERE c.blogId = :blogId AND c.path LIKE CONCAT(:prefix, '%')")
+    long countSubtree(@Param("blogId") Long blogId, @Param("prefix") String prefix);
 
+    // Deepest rows first so the parent_id foreign key is never violated mid-statement
+    @Modifying
+    @Query(value = "DELETE FROM comments WHERE blog_id = :blogId AND path LIKE CONCAT(:prefix, '%') ORDER BY depth DESC",
+           nativeQuery = true)
+    int deleteSubtree(@Param("blogId") Long blogId, @Param("prefix") String prefix);
+
+    // Path backfill for rows created before paths existed, one id range at a time
+    long countByPathIsNull();
+
+    // A locking read waits for uncommitted writes to the rows it scans, so comments inserted
+    // by transactions still in flight are counted too
+    @Query(value = "SELECT COUNT(*) FROM comments WHERE path IS NULL LOCK IN SHARE MODE", nativeQuery = true)
+    long countByPathIsNullLocked();
+
+    // Fills in one comment's path ahead of the backfill; a no-op if it got there first
+    @Modifying
+    @Query(value = "UPDATE comments SET path = :path, depth = :depth WHERE id = :id AND path IS NULL",
+           nativeQuery = true)
+    int assignPath(@Param("id") long id, @Param("path") String path, @Param("depth") int depth);
+
+    @Query("SELECT MIN(c.id) FROM CommentEntity c WHERE c.path IS NULL")
+    Long findMinIdWithoutPath();
+
+    @Query("SELECT MAX(c.id) FROM CommentEntity c WHERE c.path IS NULL")
+    Long findMaxIdWithoutPath();
+
+    @Modifying
+    @Query(value = "UPDATE comments SET path = CONCAT(LPAD(LOWER(CONV(id, 10, 36)), 13, '0'), '/'), depth = 0 " +
+                   "WHERE path IS NULL AND parent_id IS NULL AND id BETWEEN :fromId AND :toId",
+           nativeQuery = true)
+    int backfillRootPaths(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Modifying
+    @Query(value = "UPDATE comments c JOIN comments p ON c.parent_id = p.id " +
+                   "SET c.path = CONCAT(p.path, LPAD(LOWER(CONV(c.id, 10, 36)), 13, '0'), '/'), c.depth = p.depth + 1 " +
+                   "WHERE c.path IS NULL AND p.path IS NOT NULL AND c.id BETWEEN :fromId AND :toId",
+           nativeQuery = true)
+    int backfillChildPaths(@Param("fromId") long fromId, @Param("toId") long toId);
+}
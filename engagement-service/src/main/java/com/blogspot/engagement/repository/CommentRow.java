@@ -0,0 +1,17 @@
+package com.blogspot.engagement.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat projection of a comment with its parent id, used to assemble comment trees
+ * without loading {@code CommentEntity} instances or their parents.
+ */
+public interface CommentRow {
+    Long getId();
+    Long getBlogId();
+    Long getParentId();
+    String getUsername();
+    String getContent();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
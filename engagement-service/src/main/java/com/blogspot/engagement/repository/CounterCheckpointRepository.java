@@ -0,0 +1,7 @@
+package com.blogspot.engagement.repository;
+
+import com.blogspot.engagement.model.CounterCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface CounterCheckpointRepository extends JpaRepository<CounterCheckpoint, String> {
+}
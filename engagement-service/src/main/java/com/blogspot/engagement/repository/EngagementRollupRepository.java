@@ -0,0 +1,43 @@
+package com.blogspot.engagement.repository;
+
+import com.blogspot.engagement.model.EngagementRollup;
+import com.blogspot.engagement.model.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EngagementRollupRepository extends JpaRepository<EngagementRollup, EngagementRollup.Key> {
+
+    @Query("SELECT r.bucketStart AS bucketStart, r.views AS views, r.likes AS likes, r.comments AS comments "
+         + "FROM EngagementRollup r WHERE r.blogId = :blogId AND r.granularity = :granularity "
+         + "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<RollupPoint> findSeriesByBlog(@Param("blogId") Long blogId, @Param("granularity") RollupGranularity granularity,
+                                       @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.bucketStart AS bucketStart, SUM(r.views) AS views, SUM(r.likes) AS likes, SUM(r.comments) AS comments "
+         + "FROM EngagementRollup r WHERE r.authorId = :authorId AND r.granularity = :granularity "
+         + "AND r.bucketStart >= :from AND r.bucketStart < :to GROUP BY r.bucketStart ORDER BY r.bucketStart")
+    List<RollupPoint> findSeriesByAuthor(@Param("authorId") Long authorId, @Param("granularity") RollupGranularity granularity,
+                                         @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Deletes up to {@code limit} buckets of the granularity that start before {@code before}.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM engagement_rollups WHERE granularity = :granularity AND bucket_start < :before LIMIT :limit",
+           nativeQuery = true)
+    int deleteOlderThan(@Param("granularity") String granularity, @Param("before") LocalDateTime before,
+                        @Param("limit") int limit);
+
+    @Query(value = "SELECT DISTINCT blog_id FROM engagement_rollups WHERE author_id IS NULL LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findBlogIdsWithoutAuthor(@Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE EngagementRollup r SET r.authorId = :authorId WHERE r.blogId = :blogId AND r.authorId IS NULL")
+    int setAuthor(@Param("blogId") Long blogId, @Param("authorId") Long authorId);
+}
@@ -1,14 +1,23 @@
 package com.blogspot.engagement.repository;
 
 import com.blogspot.engagement.model.LikeEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface LikeRepository extends JpaRepository<LikeEntity, Long> {
-    long countByBlogId(Long blogId);
+public interface LikeRepository extends JpaRepository<LikeEntity, Long>, LikeRepositoryCustom {
     Optional<LikeEntity> findByBlogIdAndUsername(Long blogId, String username);
     boolean existsByBlogIdAndUsername(Long blogId, String username);
-}
 
+    @Query("SELECT l.blogId FROM LikeEntity l WHERE l.username = :username AND l.blogId IN :blogIds")
+    List<Long> findLikedBlogIds(@Param("username") String username, @Param("blogIds") Collection<Long> blogIds);
+
+    @Query("SELECT l.blogId FROM LikeEntity l WHERE l.username = :username ORDER BY l.blogId")
+    List<Long> findBlogIdsByUsername(@Param("username") String username, Pageable pageable);
+}
 
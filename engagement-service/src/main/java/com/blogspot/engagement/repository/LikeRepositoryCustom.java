@@ -0,0 +1,14 @@
+package com.blogspot.engagement.repository;
+
+public interface LikeRepositoryCustom {
+
+    /**
+     * Likes the blog unless the user already does. Returns whether a like was added.
+     */
+    boolean insertIfAbsent(Long blogId, String username);
+
+    /**
+     * Removes the user's like of the blog if there is one. Returns whether a like was removed.
+     */
+    boolean deleteIfPresent(Long blogId, String username);
+}
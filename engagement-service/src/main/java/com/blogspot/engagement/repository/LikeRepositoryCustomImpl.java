@@ -0,0 +1,33 @@
+package com.blogspot.engagement.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Conditional like writes for {@link LikeRepository}. Each is one statement sent through
+ * JDBC, autocommitted when no transaction is active, so it costs one round trip; the
+ * {@code uk_like_blog_user} unique key makes them safe under concurrency.
+ */
+@RequiredArgsConstructor
+public class LikeRepositoryCustomImpl implements LikeRepositoryCustom {
+
+    private static final String INSERT_IF_ABSENT =
+        "INSERT IGNORE INTO likes (blog_id, username, created_at) VALUES (?, ?, ?)";
+    private static final String DELETE =
+        "DELETE FROM likes WHERE blog_id = ? AND username = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean insertIfAbsent(Long blogId, String username) {
+        return jdbcTemplate.update(INSERT_IF_ABSENT, blogId, username, Timestamp.valueOf(LocalDateTime.now())) == 1;
+    }
+
+    @Override
+    public boolean deleteIfPresent(Long blogId, String username) {
+        return jdbcTemplate.update(DELETE, blogId, username) == 1;
+    }
+}
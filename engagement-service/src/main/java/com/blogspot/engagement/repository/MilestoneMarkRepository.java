@@ -0,0 +1,34 @@
+package com.blogspot.engagement.repository;
+
+import com.blogspot.engagement.model.MilestoneMark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface MilestoneMarkRepository extends JpaRepository<MilestoneMark, MilestoneMark.Key> {
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO engagement_milestones (blog_id, type, threshold, updated_at) "
+                 + "VALUES (:blogId, :type, :threshold, NOW())",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("blogId") Long blogId, @Param("type") String type, @Param("threshold") long threshold);
+
+    /**
+     * Raises the mark to {@code threshold} if it is lower. Returns 1 for the one caller that
+     * gets to announce the milestone.
+     */
+    @Modifying
+    @Query("UPDATE MilestoneMark m SET m.threshold = :threshold, m.updatedAt = CURRENT_TIMESTAMP "
+         + "WHERE m.blogId = :blogId AND m.type = :type AND m.threshold < :threshold")
+    int advance(@Param("blogId") Long blogId, @Param("type") String type, @Param("threshold") long threshold);
+
+    /**
+     * Undoes {@link #advance} after the announcement failed, unless the mark moved on since.
+     */
+    @Modifying
+    @Query("UPDATE MilestoneMark m SET m.threshold = :previous, m.updatedAt = CURRENT_TIMESTAMP "
+         + "WHERE m.blogId = :blogId AND m.type = :type AND m.threshold = :claimed")
+    int release(@Param("blogId") Long blogId, @Param("type") String type,
+                @Param("claimed") long claimed, @Param("previous") long previous);
+}
@@ -0,0 +1,13 @@
+package com.blogspot.engagement.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection for the counts of one rollup bucket, summed over blogs for author series.
+ */
+public interface RollupPoint {
+    LocalDateTime getBucketStart();
+    long getViews();
+    long getLikes();
+    long getComments();
+}
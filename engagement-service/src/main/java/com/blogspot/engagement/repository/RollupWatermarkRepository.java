@@ -0,0 +1,23 @@
+package com.blogspot.engagement.repository;
+
+import com.blogspot.engagement.model.RollupWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, String> {
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO rollup_watermarks (source, last_id, updated_at) VALUES (:source, 0, NOW())",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("source") String source);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM RollupWatermark w WHERE w.source = :source")
+    Optional<RollupWatermark> findForUpdate(@Param("source") String source);
+}
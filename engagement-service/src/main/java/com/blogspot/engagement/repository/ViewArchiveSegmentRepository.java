@@ -0,0 +1,18 @@
+package com.blogspot.engagement.repository;
+
+import com.blogspot.engagement.model.ViewArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ViewArchiveSegmentRepository extends JpaRepository<ViewArchiveSegment, Long> {
+
+    Optional<ViewArchiveSegment> findTopByOrderBySegmentDesc();
+
+    @Query("SELECT s FROM ViewArchiveSegment s WHERE s.maxViewedAt >= :from AND s.minViewedAt < :to ORDER BY s.segment")
+    List<ViewArchiveSegment> findOverlapping(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
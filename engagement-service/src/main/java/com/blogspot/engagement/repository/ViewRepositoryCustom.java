@@ -0,0 +1,13 @@
+package com.blogspot.engagement.repository;
+
+import com.blogspot.engagement.dto.ViewRecord;
+
+import java.util.List;
+
+public interface ViewRepositoryCustom {
+
+    /**
+     * Inserts the views with JDBC batches; ids come from AUTO_INCREMENT and are not read back.
+     */
+    void insertBatch(List<ViewRecord> views);
+}
@@ -0,0 +1,32 @@
+package com.blogspot.engagement.repository;
+
+import com.blogspot.engagement.dto.ViewRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Batch insert for {@link ViewRepository}. Hibernate never batches inserts of IDENTITY
+ * entities, since it reads each generated id back; plain JDBC batches let the driver
+ * rewrite them into multi-row inserts instead.
+ */
+@RequiredArgsConstructor
+public class ViewRepositoryCustomImpl implements ViewRepositoryCustom {
+
+    private static final String INSERT_VIEW =
+        "INSERT INTO views (blog_id, username, ip_address, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertBatch(List<ViewRecord> views) {
+        jdbcTemplate.batchUpdate(INSERT_VIEW, views, views.size(), (statement, view) -> {
+            statement.setLong(1, view.blogId());
+            statement.setString(2, view.username());
+            statement.setString(3, view.ipAddress());
+            statement.setTimestamp(4, Timestamp.valueOf(view.viewedAt()));
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.blogspot.engagement.repository;
+
+import com.blogspot.engagement.model.ViewerSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ViewerSketchRepository extends JpaRepository<ViewerSketch, ViewerSketch.Key> {
+
+    @Query("SELECT s.registers FROM ViewerSketch s WHERE s.blogId = :blogId AND s.day BETWEEN :from AND :to")
+    List<byte[]> findRegistersByBlog(@Param("blogId") Long blogId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT s.registers FROM ViewerSketch s WHERE s.authorId = :authorId AND s.day BETWEEN :from AND :to")
+    List<byte[]> findRegistersByAuthor(@Param("authorId") Long authorId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query(value = "SELECT DISTINCT blog_id FROM viewer_sketches WHERE author_id IS NULL LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findBlogIdsWithoutAuthor(@Param("limit") int limit);
+
+    /**
+     * Bumps the version too, so a flush that read the row before this update fails its
+     * version check instead of writing the missing author back.
+     */
+    @Modifying
+    @Query("UPDATE ViewerSketch s SET s.authorId = :authorId, s.version = s.version + 1 "
+         + "WHERE s.blogId = :blogId AND s.authorId IS NULL")
+    int setAuthor(@Param("blogId") Long blogId, @Param("authorId") Long authorId);
+}
@@ -0,0 +1,58 @@
+package com.blogspot.engagement.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Author of each blog, looked up from blog-service once and cached. A blog's author never
+ * changes, so entries need no invalidation.
+ */
+@Component
+@Slf4j
+public class BlogAuthors {
+
+    private final BlogServiceClient blogServiceClient;
+    private final int maxSize;
+    private final Map<Long, Long> authorByBlog = new ConcurrentHashMap<>();
+
+    public BlogAuthors(BlogServiceClient blogServiceClient,
+                       @Value("${engagement.blog-authors.cache-size:100000}") int maxSize) {
+        this.blogServiceClient = blogServiceClient;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the blog's author, asking blog-service on a cache miss; null if it cannot be
+     * resolved right now. Callers should not hold a database connection while calling this.
+     */
+    public Long resolve(Long blogId) {
+        Long cached = authorByBlog.get(blogId);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            BlogServiceClient.BlogDetails blog = blogServiceClient.getBlogPublic(blogId);
+            if (blog != null && blog.getAuthorId() != null) {
+                if (authorByBlog.size() >= maxSize) {
+                    authorByBlog.clear();
+                }
+                authorByBlog.put(blogId, blog.getAuthorId());
+                return blog.getAuthorId();
+            }
+        } catch (Exception e) {
+            log.debug("Could not resolve author of blog {}: {}", blogId, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Returns the blog's author if it is cached, without calling blog-service.
+     */
+    public Long cached(Long blogId) {
+        return authorByBlog.get(blogId);
+    }
+}
@@ -0,0 +1,19 @@
+package com.blogspot.engagement.service;
+
+import lombok.Data;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@FeignClient(name = "blog-service")
+interface BlogServiceClient {
+    @GetMapping("/api/blogs/internal/{id}")
+    BlogDetails getBlogPublic(@PathVariable("id") Long id);
+
+    @Data
+    class BlogDetails {
+        private Long id;
+        private String title;
+        private Long authorId;
+    }
+}
@@ -0,0 +1,96 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.repository.CommentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills in materialized paths for comments created before paths existed.
+ * <p>
+ * Runs once in the background after startup. Each pass walks the unfilled id range in
+ * batches, giving roots their path and children the path of an already filled parent.
+ * Parents have lower ids than their replies, so one ascending pass normally fills whole
+ * threads; further passes pick up anything left. New replies never add to the work, as
+ * they derive their path (and any missing ancestor paths) when inserted. The job only
+ * completes once a count taken under a share lock finds no comment without a path. Until
+ * then, subtree operations fall back to walking parent links.
+ */
+@Component
+@Slf4j
+public class CommentPathBackfillJob {
+
+    private final CommentRepository commentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int batchSize;
+    private volatile boolean complete;
+
+    public CommentPathBackfillJob(CommentRepository commentRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                  @Value("${engagement.comments.path-backfill-batch-size:5000}") int batchSize) {
+        this.commentRepository = commentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.batchSize = batchSize;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskExecutor.execute(this::run);
+    }
+
+    void run() {
+        try {
+            long start = System.currentTimeMillis();
+            long filled = 0;
+            while (!confirmFilled()) {
+                long updated = pass();
+                if (updated == 0) {
+                    log.warn("Comment path backfill stopped with {} comments unfilled", commentRepository.countByPathIsNull());
+                    return;
+                }
+                filled += updated;
+            }
+            complete = true;
+            if (filled > 0) {
+                log.info("Backfilled paths of {} comments in {} ms", filled, System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            log.error("Comment path backfill failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean confirmFilled() {
+        // The unlocked count is cheap to repeat; only take the lock once it reaches zero
+        return commentRepository.countByPathIsNull() == 0
+            && transactionTemplate.execute(status -> commentRepository.countByPathIsNullLocked()) == 0;
+    }
+
+    private long pass() {
+        Long minId = commentRepository.findMinIdWithoutPath();
+        Long maxId = commentRepository.findMaxIdWithoutPath();
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+        long updated = 0;
+        for (long batchStart = minId; batchStart <= maxId; batchStart += batchSize) {
+            long from = batchStart;
+            long to = batchStart + batchSize - 1;
+            updated += transactionTemplate.execute(status ->
+                commentRepository.backfillRootPaths(from, to) + commentRepository.backfillChildPaths(from, to));
+        }
+        return updated;
+    }
+}
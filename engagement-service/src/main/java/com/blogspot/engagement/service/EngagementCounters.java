@@ -0,0 +1,496 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.counter.BlogCounters;
+import com.blogspot.engagement.counter.CounterJournal;
+import com.blogspot.engagement.counter.CounterType;
+import com.blogspot.engagement.model.BlogEngagementCount;
+import com.blogspot.engagement.model.CounterCheckpoint;
+import com.blogspot.engagement.repository.BlogEngagementCountRepository;
+import com.blogspot.engagement.repository.CounterCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Serves like/view/comment counts from memory and persists them write-behind.
+ * <p>
+ * A blog's counters are loaded on first use from {@code blog_engagement_counts}; a blog
+ * without a row is seeded once from the raw tables. A read of a blog with no row and no
+ * likes, views or comments gets zeros without inserting anything, so reads of made-up ids
+ * cannot fill the table; such ids are remembered for {@code zero-ttl-ms} (at most
+ * {@code max-blogs} of them) so repeated reads do not count them again. Committed writes are appended to a
+ * local {@link CounterJournal} and added to the blog's striped counters. A scheduled
+ * flush upserts the accumulated deltas and a journal checkpoint in one transaction;
+ * after a crash the journal segments past the checkpoint are replayed, so deltas are
+ * neither lost nor applied twice. With several instances, each flushes its own deltas
+ * and picks up the others' on the periodic refresh.
+ */
+@Component
+@Slf4j
+public class EngagementCounters {
+
+    private static final String UPSERT_DELTAS =
+        "INSERT INTO blog_engagement_counts (blog_id, like_count, view_count, comment_count, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE like_count = like_count + VALUES(like_count), "
+            + "view_count = view_count + VALUES(view_count), comment_count = comment_count + VALUES(comment_count), "
+            + "updated_at = VALUES(updated_at)";
+    private static final String UPSERT_CHECKPOINT =
+        "INSERT INTO engagement_counter_checkpoints (instance_id, segment, updated_at) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE segment = VALUES(segment), updated_at = VALUES(updated_at)";
+    // The counts are plain consistent reads: an INSERT ... SELECT would share-lock the rows
+    // of the calling transaction, which is suspended while this runs.
+    private static final String SEED =
+        "INSERT IGNORE INTO blog_engagement_counts (blog_id, like_count, view_count, comment_count, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private final BlogEngagementCountRepository countRepository;
+    private final CounterCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction;
+    private final String journalDir;
+    private final long refreshMillis;
+    private final long idleMillis;
+    private final int maxBlogs;
+    private final long zeroTtlMillis;
+
+    private final Map<Long, BlogCounters> counters = new ConcurrentHashMap<>();
+    // Blogs without a row or any raw counts, mapped to when that stops being trusted
+    private final Map<Long, Long> knownZero = new ConcurrentHashMap<>();
+    // Increments hold the read lock while journalling and counting; a flush holds the write
+    // lock to roll the journal and snapshot pending deltas as one cut
+    private final ReentrantReadWriteLock cutLock = new ReentrantReadWriteLock();
+    // Serializes flushes with refreshes, which both move data between table and base
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private CounterJournal journal;
+
+    public EngagementCounters(BlogEngagementCountRepository countRepository,
+                              CounterCheckpointRepository checkpointRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${engagement.counters.journal-dir:data/counters}") String journalDir,
+                              @Value("${engagement.counters.refresh-ms:60000}") long refreshMillis,
+                              @Value("${engagement.counters.idle-ms:600000}") long idleMillis,
+                              @Value("${engagement.counters.max-blogs:100000}") int maxBlogs,
+                              @Value("${engagement.counters.zero-ttl-ms:60000}") long zeroTtlMillis) {
+        this.countRepository = countRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.journalDir = journalDir;
+        this.refreshMillis = refreshMillis;
+        this.idleMillis = idleMillis;
+        this.maxBlogs = maxBlogs;
+        this.zeroTtlMillis = zeroTtlMillis;
+    }
+
+    @PostConstruct
+    public void initialize() throws IOException {
+        journal = new CounterJournal(Paths.get(journalDir));
+        long checkpoint = checkpointRepository.findById(journal.getInstanceId())
+            .map(CounterCheckpoint::getSegment)
+            .orElse(0L);
+        long last = checkpoint;
+        int replayed = 0;
+        for (long segment : journal.segments()) {
+            last = Math.max(last, segment);
+            if (segment <= checkpoint) {
+                continue;
+            }
+            for (CounterJournal.Entry entry : journal.read(segment)) {
+                load(entry.blogId()).add(entry.type(), entry.delta());
+                replayed++;
+            }
+        }
+        // Replayed segments stay on disk until the next flush covers them
+        journal.open(last);
+        if (replayed > 0) {
+            log.info("Replayed {} unflushed counter deltas from the journal", replayed);
+        }
+    }
+
+    public long get(Long blogId, CounterType type) {
+        return read(blogId).get(type);
+    }
+
+    /**
+     * Returns the counters of every blog. The missing ones are loaded with one query, and
+     * those without a row are counted with one grouped query per raw table.
+     */
+    public Map<Long, BlogCounters> getAll(Collection<Long> blogIds) {
+        Set<Long> ids = new LinkedHashSet<>(blogIds);
+        Map<Long, BlogCounters> result = new HashMap<>(ids.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Long id : ids) {
+            BlogCounters existing = counters.get(id);
+            if (existing != null) {
+                existing.touch(now);
+                result.put(id, existing);
+            } else if (isKnownZero(id, now)) {
+                result.put(id, zeros(now));
+            } else {
+                missing.add(id);
+            }
+        }
+        for (int from = 0; from < missing.size(); from += 1000) {
+            loadAll(missing.subList(from, Math.min(from + 1000, missing.size())), result);
+        }
+        return result;
+    }
+
+    private void loadAll(List<Long> blogIds, Map<Long, BlogCounters> result) {
+        Map<Long, long[]> rows = readRows(blogIds);
+        long now = System.currentTimeMillis();
+        List<Long> unseeded = new ArrayList<>();
+        for (Long id : blogIds) {
+            long[] persisted = rows.get(id);
+            if (persisted != null) {
+                result.put(id, install(id, persisted));
+            } else {
+                unseeded.add(id);
+            }
+        }
+        if (unseeded.isEmpty()) {
+            return;
+        }
+        Map<Long, long[]> raw = newTransaction.execute(status -> countRaw(unseeded));
+        Map<Long, long[]> seeds = new HashMap<>();
+        for (Long id : unseeded) {
+            long[] counts = raw.get(id);
+            if (Arrays.stream(counts).allMatch(count -> count == 0)) {
+                rememberZero(id, now);
+                result.put(id, zeros(now));
+            } else {
+                seeds.put(id, counts);
+            }
+        }
+        if (!seeds.isEmpty()) {
+            seed(seeds).forEach((id, persisted) -> result.put(id, install(id, persisted)));
+        }
+    }
+
+    /**
+     * Loads the blog's counters ahead of a write made outside a transaction, so that a seed
+     * from the raw tables cannot include the write about to be counted.
+     */
+    public void preload(Long blogId) {
+        load(blogId);
+    }
+
+    /**
+     * Counts a write once the surrounding transaction commits. The blog's counters are
+     * loaded right away, so a seed from the raw tables cannot include this write yet.
+     * Without a transaction the write must have been preceded by {@link #preload}.
+     */
+    public void record(Long blogId, CounterType type, int delta) {
+        load(blogId);
+        TransactionHooks.afterCommit(() -> apply(blogId, type, delta));
+    }
+
+    private void apply(Long blogId, CounterType type, int delta) {
+        while (true) {
+            BlogCounters blog = counters.get(blogId);
+            if (blog == null) {
+                load(blogId);
+                continue;
+            }
+            cutLock.readLock().lock();
+            try {
+                // Evicted between the lookup and the lock
+                if (counters.get(blogId) != blog) {
+                    continue;
+                }
+                try {
+                    journal.append(blogId, type, delta);
+                } catch (IOException e) {
+                    log.warn("Failed to journal counter delta for blog {}: {}", blogId, e.getMessage());
+                }
+                blog.add(type, delta);
+                return;
+            } finally {
+                cutLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * The blog's counters for a write, seeding its row from the raw tables if it has none.
+     */
+    private BlogCounters load(Long blogId) {
+        return load(blogId, true);
+    }
+
+    /**
+     * The blog's counters for a read. A blog without a row is only seeded if it has any
+     * likes, views or comments; otherwise uncached zeros are returned.
+     */
+    private BlogCounters read(Long blogId) {
+        return load(blogId, false);
+    }
+
+    private BlogCounters load(Long blogId, boolean forWrite) {
+        BlogCounters existing = counters.get(blogId);
+        long now = System.currentTimeMillis();
+        if (existing != null) {
+            existing.touch(now);
+            return existing;
+        }
+        if (forWrite) {
+            knownZero.remove(blogId);
+        } else if (isKnownZero(blogId, now)) {
+            return zeros(now);
+        }
+        long[] persisted = newTransaction.execute(status -> readRows(List.of(blogId)).get(blogId));
+        if (persisted == null) {
+            long[] raw = newTransaction.execute(status -> countRaw(List.of(blogId))).get(blogId);
+            if (!forWrite && Arrays.stream(raw).allMatch(count -> count == 0)) {
+                rememberZero(blogId, now);
+                return zeros(now);
+            }
+            persisted = seed(Map.of(blogId, raw)).get(blogId);
+        }
+        return install(blogId, persisted);
+    }
+
+    /**
+     * Inserts rows for blogs that have none and returns the rows as stored, which may be
+     * another instance's seed if it got there first.
+     */
+    private Map<Long, long[]> seed(Map<Long, long[]> raw) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(raw.size());
+        raw.forEach((blogId, counts) -> rows.add(new Object[]{blogId, counts[CounterType.LIKES.ordinal()],
+            counts[CounterType.VIEWS.ordinal()], counts[CounterType.COMMENTS.ordinal()], now}));
+        return newTransaction.execute(status -> {
+            if (rows.size() == 1) {
+                jdbcTemplate.update(SEED, rows.get(0));
+            } else {
+                jdbcTemplate.batchUpdate(SEED, rows);
+            }
+            return readRows(List.copyOf(raw.keySet()));
+        });
+    }
+
+    private boolean isKnownZero(Long blogId, long now) {
+        Long expiresAt = knownZero.get(blogId);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt <= now) {
+            knownZero.remove(blogId, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    private void rememberZero(Long blogId, long now) {
+        if (knownZero.size() >= maxBlogs) {
+            knownZero.values().removeIf(expiresAt -> expiresAt <= now);
+            if (knownZero.size() >= maxBlogs) {
+                return;
+            }
+        }
+        knownZero.put(blogId, now + zeroTtlMillis);
+    }
+
+    private static BlogCounters zeros(long now) {
+        return new BlogCounters(new long[CounterType.values().length], now);
+    }
+
+    private BlogCounters install(Long blogId, long[] persisted) {
+        BlogCounters loaded = new BlogCounters(persisted, System.currentTimeMillis());
+        BlogCounters raced = counters.putIfAbsent(blogId, loaded);
+        return raced != null ? raced : loaded;
+    }
+
+    /**
+     * Counts the raw likes, views and comments of the blogs, one grouped query per table.
+     */
+    private Map<Long, long[]> countRaw(List<Long> blogIds) {
+        Map<Long, long[]> counts = new HashMap<>(blogIds.size() * 2);
+        for (Long id : blogIds) {
+            counts.put(id, new long[CounterType.values().length]);
+        }
+        String in = String.join(", ", Collections.nCopies(blogIds.size(), "?"));
+        Object[] ids = blogIds.toArray();
+        Object[] idsTwice = new Object[ids.length * 2];
+        System.arraycopy(ids, 0, idsTwice, 0, ids.length);
+        System.arraycopy(ids, 0, idsTwice, ids.length, ids.length);
+        countInto(counts, CounterType.LIKES,
+            "SELECT blog_id, COUNT(*) FROM likes WHERE blog_id IN (" + in + ") GROUP BY blog_id", ids);
+        // One statement, so rows being archived meanwhile are counted exactly once
+        countInto(counts, CounterType.VIEWS, "SELECT blog_id, SUM(total) FROM ("
+            + "SELECT blog_id, COUNT(*) AS total FROM views WHERE blog_id IN (" + in + ") GROUP BY blog_id "
+            + "UNION ALL SELECT blog_id, views AS total FROM archived_view_counts WHERE blog_id IN (" + in + ")"
+            + ") t GROUP BY blog_id", idsTwice);
+        countInto(counts, CounterType.COMMENTS,
+            "SELECT blog_id, COUNT(*) FROM comments WHERE blog_id IN (" + in + ") GROUP BY blog_id", ids);
+        return counts;
+    }
+
+    private void countInto(Map<Long, long[]> counts, CounterType type, String sql, Object[] args) {
+        RowCallbackHandler handler = rs -> counts.get(rs.getLong(1))[type.ordinal()] = rs.getLong(2);
+        jdbcTemplate.query(sql, handler, args);
+    }
+
+    private Map<Long, long[]> readRows(Collection<Long> blogIds) {
+        Map<Long, long[]> rows = new HashMap<>(blogIds.size() * 2);
+        for (BlogEngagementCount row : countRepository.findAllById(blogIds)) {
+            long[] values = new long[CounterType.values().length];
+            values[CounterType.LIKES.ordinal()] = row.getLikeCount();
+            values[CounterType.VIEWS.ordinal()] = row.getViewCount();
+            values[CounterType.COMMENTS.ordinal()] = row.getCommentCount();
+            rows.put(row.getBlogId(), values);
+        }
+        return rows;
+    }
+
+    @Scheduled(fixedDelayString = "${engagement.counters.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            long sealed;
+            Map<Long, long[]> deltas = new HashMap<>();
+            cutLock.writeLock().lock();
+            try {
+                for (Map.Entry<Long, BlogCounters> entry : counters.entrySet()) {
+                    long[] pending = entry.getValue().pendingSnapshot();
+                    if (pending != null) {
+                        deltas.put(entry.getKey(), pending);
+                    }
+                }
+                if (deltas.isEmpty()) {
+                    return;
+                }
+                sealed = journal.roll();
+            } finally {
+                cutLock.writeLock().unlock();
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(deltas.size());
+            deltas.forEach((blogId, pending) -> rows.add(new Object[]{blogId,
+                pending[CounterType.LIKES.ordinal()], pending[CounterType.VIEWS.ordinal()],
+                pending[CounterType.COMMENTS.ordinal()], now}));
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPSERT_DELTAS, rows);
+                jdbcTemplate.update(UPSERT_CHECKPOINT, journal.getInstanceId(), sealed, now);
+            });
+            deltas.forEach((blogId, pending) -> counters.get(blogId).applyFlushed(pending));
+            journal.deleteUpTo(sealed);
+            log.debug("Flushed counter deltas of {} blogs", deltas.size());
+        } catch (Exception e) {
+            // Deltas stay pending and their journal segments stay on disk for the next flush
+            log.warn("Failed to flush engagement counters: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Re-reads the persisted base of blogs not refreshed for {@code refresh-ms}, to pick up
+     * deltas flushed by other instances, and evicts idle blogs with nothing pending.
+     */
+    @Scheduled(fixedDelayString = "${engagement.counters.maintenance-interval-ms:10000}")
+    public void maintain() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            knownZero.values().removeIf(expiresAt -> expiresAt <= now);
+            evict(now);
+            List<Long> stale = new ArrayList<>();
+            counters.forEach((blogId, blog) -> {
+                if (now - blog.getRefreshedAt() >= refreshMillis) {
+                    stale.add(blogId);
+                }
+            });
+            for (int from = 0; from < stale.size(); from += 1000) {
+                Map<Long, long[]> rows = readRows(stale.subList(from, Math.min(from + 1000, stale.size())));
+                rows.forEach((blogId, persisted) -> {
+                    BlogCounters blog = counters.get(blogId);
+                    if (blog != null) {
+                        blog.resetBase(persisted, now);
+                    }
+                });
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh engagement counters: {}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void evict(long now) {
+        int excess = counters.size() - maxBlogs;
+        List<long[]> idle = new ArrayList<>();
+        counters.forEach((blogId, blog) -> {
+            long lastAccess = blog.getLastAccess();
+            if (excess > 0 || now - lastAccess >= idleMillis) {
+                idle.add(new long[]{blogId, lastAccess});
+            }
+        });
+        if (excess > 0) {
+            // Least recently used first; idle entries go regardless of the excess
+            idle.sort(Comparator.comparingLong(entry -> entry[1]));
+            int keep = 0;
+            while (keep < idle.size() && (keep < excess || now - idle.get(keep)[1] >= idleMillis)) {
+                keep++;
+            }
+            idle.subList(keep, idle.size()).clear();
+        }
+        if (idle.isEmpty()) {
+            return;
+        }
+        int evicted = 0;
+        cutLock.writeLock().lock();
+        try {
+            for (long[] entry : idle) {
+                BlogCounters blog = counters.get(entry[0]);
+                if (blog != null && blog.pendingSnapshot() == null) {
+                    counters.remove(entry[0]);
+                    evicted++;
+                }
+            }
+        } finally {
+            cutLock.writeLock().unlock();
+        }
+        log.debug("Evicted counters of {} blogs", evicted);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        journal.close();
+    }
+}
@@ -0,0 +1,36 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.dto.EngagementDeltaEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes {@link EngagementDeltaEvent}s to the {@value #TOPIC} topic, keyed by blog id.
+ * Inside a transaction the send is deferred until commit, so rolled-back writes are never
+ * announced. Sends are fire-and-forget: a lost delta only skews trending scores.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EngagementEventPublisher {
+
+    public static final String TOPIC = "engagement-deltas";
+
+    private final KafkaTemplate<String, EngagementDeltaEvent> kafkaTemplate;
+
+    public void publishDelta(Long blogId, String type, int delta) {
+        EngagementDeltaEvent event = new EngagementDeltaEvent(
+                blogId.toString(), type, delta, System.currentTimeMillis());
+        TransactionHooks.afterCommit(() -> send(event));
+    }
+
+    private void send(EngagementDeltaEvent event) {
+        try {
+            kafkaTemplate.send(TOPIC, event.blogId(), event);
+        } catch (Exception e) {
+            log.warn("Failed to publish engagement delta for blog {}: {}", event.blogId(), e.getMessage());
+        }
+    }
+}
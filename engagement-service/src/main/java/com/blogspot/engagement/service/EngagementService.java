@@ -1,9 +1,13 @@
 package com.blogspot.engagement.service;
 
+import com.blogspot.engagement.dto.CommentDtos.CommentPage;
 import com.blogspot.engagement.dto.CommentDtos.CommentResponse;
 import com.blogspot.engagement.dto.CommentDtos.CreateCommentRequest;
 import com.blogspot.engagement.dto.CommentDtos.UpdateCommentRequest;
+import com.blogspot.engagement.dto.BlogStatsDto;
+import com.blogspot.engagement.dto.ViewRecord;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface EngagementService {
@@ -12,10 +16,11 @@ public interface EngagementService {
     boolean unlikeBlog(Long blogId, String username);
     boolean toggleLike(Long blogId, String username);
     boolean isLiked(Long blogId, String username);
+    List<Long> getLikedBlogIds(String username, Collection<Long> blogIds);
     long getLikeCount(Long blogId);
 
     // Views
-    void recordView(Long blogId, String username, String ipAddress);
+    void recordViews(List<ViewRecord> views);
     long getViewCount(Long blogId);
 
     // Comments
@@ -23,7 +28,14 @@ public interface EngagementService {
     CommentResponse updateComment(Long commentId, String username, UpdateCommentRequest request);
     void deleteComment(Long commentId, String username);
     List<CommentResponse> getCommentsTree(Long blogId);
+    CommentPage getComments(Long blogId, String cursor, int size, int inlineReplies);
+    CommentPage getReplies(Long commentId, String cursor, int size);
+    CommentResponse getThread(Long commentId, int maxDepth);
     long getCommentCount(Long blogId);
+
+    // Stats
+    List<BlogStatsDto> getStats(Collection<Long> blogIds);
+    BlogStatsDto getStats(Long blogId, String username);
 }
 
 
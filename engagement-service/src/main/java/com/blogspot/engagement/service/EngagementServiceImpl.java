@@ -1,31 +1,39 @@
 package com.blogspot.engagement.service;
 
+import com.blogspot.engagement.counter.BlogCounters;
+import com.blogspot.engagement.counter.CounterType;
+import com.blogspot.engagement.dto.CommentCursor;
+import com.blogspot.engagement.dto.CommentDtos.CommentPage;
 import com.blogspot.engagement.dto.CommentDtos.CommentResponse;
 import com.blogspot.engagement.dto.CommentDtos.CreateCommentRequest;
 import com.blogspot.engagement.dto.CommentDtos.UpdateCommentRequest;
-import com.blogspot.engagement.dto.EngagementMilestoneEvent;
+import com.blogspot.engagement.dto.BlogStatsDto;
+import com.blogspot.engagement.dto.ViewRecord;
 import com.blogspot.engagement.model.CommentEntity;
-import com.blogspot.engagement.model.LikeEntity;
-import com.blogspot.engagement.model.ViewEntity;
+import com.blogspot.engagement.model.CommentPaths;
+import com.blogspot.engagement.repository.CommentReplyCount;
 import com.blogspot.engagement.repository.CommentRepository;
+import com.blogspot.engagement.repository.CommentRow;
 import com.blogspot.engagement.repository.LikeRepository;
 import com.blogspot.engagement.repository.ViewRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
-
-import lombok.Data;
-import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -35,92 +43,92 @@ public class EngagementServiceImpl implements EngagementService {
     private final LikeRepository likeRepository;
     private final ViewRepository viewRepository;
     private final CommentRepository commentRepository;
-    private final KafkaTemplate<String, EngagementMilestoneEvent> kafkaTemplate;
-    private final BlogServiceClient blogServiceClient;
+    private final EngagementEventPublisher engagementEventPublisher;
+    private final CommentPathBackfillJob commentPathBackfillJob;
+    private final EngagementCounters engagementCounters;
+    private final UniqueViewerService uniqueViewerService;
+    private final MilestoneDetector milestoneDetector;
+    private final LikedBlogsCache likedBlogsCache;
+    private final LiveCountsService liveCountsService;
 
     // Likes
+    // Each like write is a single autocommitted conditional statement, so concurrent
+    // requests for the same (blog, user) settle on the unique key instead of failing on it,
+    // and the affected row count is the counter delta.
     @Override
-    @Transactional
     public boolean likeBlog(Long blogId, String username) {
-        if (likeRepository.existsByBlogIdAndUsername(blogId, username)) {
+        engagementCounters.preload(blogId);
+        if (!likeRepository.insertIfAbsent(blogId, username)) {
             return false; // already liked
         }
-        LikeEntity like = LikeEntity.builder()
-            .blogId(blogId)
-            .username(username)
-            .build();
-        likeRepository.save(like);
-        
-        // Check for milestone after saving the like
-        checkAndPublishMilestone(blogId, "LIKES");
-        
+        likedBlogsCache.onChange(username, blogId, true);
+        countAndCheckMilestone(blogId, CounterType.LIKES, 1);
         return true;
     }
 
     @Override
-    @Transactional
     public boolean unlikeBlog(Long blogId, String username) {
-        Optional<LikeEntity> existing = likeRepository.findByBlogIdAndUsername(blogId, username);
-        if (existing.isEmpty()) {
+        engagementCounters.preload(blogId);
+        if (!likeRepository.deleteIfPresent(blogId, username)) {
             return false;
         }
-        likeRepository.delete(existing.get());
+        likedBlogsCache.onChange(username, blogId, false);
+        count(blogId, CounterType.LIKES, -1);
         return true;
     }
 
     @Override
-    @Transactional
     public boolean toggleLike(Long blogId, String username) {
-        if (likeRepository.existsByBlogIdAndUsername(blogId, username)) {
-            // User has already liked, so unlike
-            Optional<LikeEntity> existing = likeRepository.findByBlogIdAndUsername(blogId, username);
-            if (existing.isPresent()) {
-                likeRepository.delete(existing.get());
-                return false; // unliked
-            }
-        } else {
-            // User hasn't liked, so like
-            LikeEntity like = LikeEntity.builder()
-                .blogId(blogId)
-                .username(username)
-                .build();
-            likeRepository.save(like);
-            
-            // Check for milestone after saving the like
-            checkAndPublishMilestone(blogId, "LIKES");
-            
-            return true; // liked
-        }
-        return false;
+        engagementCounters.preload(blogId);
+        if (likeRepository.deleteIfPresent(blogId, username)) {
+            likedBlogsCache.onChange(username, blogId, false);
+            count(blogId, CounterType.LIKES, -1);
+            return false; // unliked
+        }
+        // Nothing to delete, so like. If a concurrent request liked in between, the insert
+        // is a no-op and the blog ends up liked either way.
+        if (likeRepository.insertIfAbsent(blogId, username)) {
+            countAndCheckMilestone(blogId, CounterType.LIKES, 1);
+        }
+        likedBlogsCache.onChange(username, blogId, true);
+        return true; // liked
     }
 
     @Override
     public boolean isLiked(Long blogId, String username) {
-        return likeRepository.existsByBlogIdAndUsername(blogId, username);
+        return likedBlogsCache.isLiked(username, blogId);
+    }
+
+    @Override
+    public List<Long> getLikedBlogIds(String username, Collection<Long> blogIds) {
+        if (blogIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return likedBlogsCache.likedAmong(username, blogIds);
     }
 
     @Override
     public long getLikeCount(Long blogId) {
-        return likeRepository.countByBlogId(blogId);
+        return engagementCounters.get(blogId, CounterType.LIKES);
     }
 
     // Views
     @Override
     @Transactional
-    public void recordView(Long blogId, String username, String ipAddress) {
-        ViewEntity view = ViewEntity.builder()
-            .blogId(blogId)
-            .username(username)
-            .ipAddress(ipAddress)
-            .build();
-        viewRepository.save(view);
-        // Check for milestone after recording the view
-        checkAndPublishMilestone(blogId, "VIEWS");
+    public void recordViews(List<ViewRecord> views) {
+        viewRepository.insertBatch(views);
+        uniqueViewerService.recordAfterCommit(views);
+        // One counter update, delta event and milestone check per blog in the batch
+        Map<Long, Integer> perBlog = new HashMap<>();
+        for (ViewRecord view : views) {
+            perBlog.merge(view.blogId(), 1, Integer::sum);
+        }
+        perBlog.forEach((blogId, viewCount) -> countAndCheckMilestone(blogId, CounterType.VIEWS, viewCount));
     }
 
     @Override
     public long getViewCount(Long blogId) {
-        return viewRepository.countByBlogId(blogId);
+        return engagementCounters.get(blogId, CounterType.VIEWS);
     }
 
     // Comments
@@ -128,9 +136,18 @@ public class EngagementServiceImpl implements EngagementService {
     @Transactional
     public CommentResponse addComment(String username, CreateCommentRequest request) {
         CommentEntity parent = null;
+        String parentPath = null;
         if (request.getParentId() != null) {
             parent = commentRepository.findById(request.getParentId())
                 .orElseThrow(() -> new EntityNotFoundException("Parent comment not found"));
+            // Subtree queries filter on blog_id, so a reply under another blog's comment would be orphaned
+            if (!parent.getBlogId().equals(request.getBlogId())) {
+                throw new IllegalArgumentException("Parent comment belongs to a different blog");
+            }
+            parentPath = pathOf(parent);
+            if (CommentPaths.depthOf(parentPath) >= CommentPaths.MAX_DEPTH) {
+                throw new IllegalArgumentException("Replies cannot be nested more than " + CommentPaths.MAX_DEPTH + " levels deep");
+            }
         }
         CommentEntity entity = CommentEntity.builder()
             .blogId(request.getBlogId())
@@ -139,9 +156,26 @@ public class EngagementServiceImpl implements EngagementService {
             .parent(parent)
             .build();
         CommentEntity saved = commentRepository.save(entity);
-        // Check for milestone after saving the comment
-        checkAndPublishMilestone(request.getBlogId(), "COMMENTS");
-        return toResponse(saved, true);
+        // The path ends with the comment's own id, so it can only be set once the id is known
+        saved.setPath(CommentPaths.childPath(parentPath, saved.getId()));
+        saved.setDepth(CommentPaths.depthOf(saved.getPath()));
+        countAndCheckMilestone(request.getBlogId(), CounterType.COMMENTS, 1);
+        return toResponse(saved);
+    }
+
+    /**
+     * The comment's path. A comment the backfill has not reached yet gets it here, along with
+     * any ancestors missing theirs; paths are deterministic, so racing the backfill is harmless.
+     * Written with a targeted update rather than through the entity, which stays unchanged.
+     */
+    private String pathOf(CommentEntity comment) {
+        if (comment.getPath() != null) {
+            return comment.getPath();
+        }
+        CommentEntity parent = comment.getParent();
+        String path = CommentPaths.childPath(parent != null ? pathOf(parent) : null, comment.getId());
+        commentRepository.assignPath(comment.getId(), path, CommentPaths.depthOf(path));
+        return path;
     }
 
     @Override
@@ -154,7 +188,7 @@ public class EngagementServiceImpl implements EngagementService {
         }
         entity.setContent(request.getContent());
         CommentEntity saved = commentRepository.save(entity);
-        return toResponse(saved, true);
+        return toResponse(saved);
     }
 
     @Override
@@ -165,122 +199,285 @@ public class EngagementServiceImpl implements EngagementService {
         if (!entity.getUsername().equals(username)) {
             throw new SecurityException("You can only delete your own comments");
         }
-        commentRepository.delete(entity);
+        // Deleting a comment deletes its replies with it
+        int deleted;
+        if (commentPathBackfillJob.isComplete() && entity.getPath() != null) {
+            deleted = commentRepository.deleteSubtree(entity.getBlogId(), entity.getPath());
+        } else {
+            List<CommentEntity> subtree = new ArrayList<>();
+            collectLevels(entity).forEach(subtree::addAll);
+            Collections.reverse(subtree);
+            commentRepository.deleteAll(subtree);
+            deleted = subtree.size();
+        }
+        count(entity.getBlogId(), CounterType.COMMENTS, -deleted);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CommentResponse getThread(Long commentId, int maxDepth) {
+        CommentEntity root = commentRepository.findById(commentId)
+            .orElseThrow(() -> new EntityNotFoundException("Comment not found"));
+        List<CommentResponse> responses = new ArrayList<>();
+        long total;
+        if (commentPathBackfillJob.isComplete() && root.getPath() != null) {
+            for (CommentRow row : commentRepository.findSubtree(root.getBlogId(), root.getPath(), root.getDepth() + maxDepth)) {
+                responses.add(toResponse(row));
+            }
+            total = commentRepository.countSubtree(root.getBlogId(), root.getPath());
+        } else {
+            List<List<CommentEntity>> levels = collectLevels(root);
+            total = 0;
+            for (int depth = 0; depth < levels.size(); depth++) {
+                total += levels.get(depth).size();
+                if (depth <= maxDepth) {
+                    levels.get(depth).forEach(entity -> responses.add(toResponse(entity)));
+                }
+            }
+        }
+
+        Map<Long, CommentResponse> byId = new HashMap<>(responses.size() * 2);
+        for (CommentResponse response : responses) {
+            byId.put(response.getId(), response);
+        }
+        for (CommentResponse response : responses) {
+            CommentResponse parent = response.getParentId() != null ? byId.get(response.getParentId()) : null;
+            if (parent != null && !response.getId().equals(commentId)) {
+                parent.getReplies().add(response);
+            }
+        }
+        CommentResponse thread = byId.get(commentId);
+        thread.setTotalReplyCount(total - 1);
+        return thread;
+    }
+
+    /**
+     * The comment (level 0) and all its replies, one list per level, by walking parent
+     * links. Only used while paths are still being backfilled.
+     */
+    private List<List<CommentEntity>> collectLevels(CommentEntity root) {
+        List<List<CommentEntity>> levels = new ArrayList<>();
+        List<CommentEntity> level = List.of(root);
+        while (!level.isEmpty()) {
+            levels.add(level);
+            List<CommentEntity> next = new ArrayList<>();
+            for (CommentEntity comment : level) {
+                next.addAll(commentRepository.findByParentIdOrderByCreatedAtAsc(comment.getId()));
+            }
+            level = next;
+        }
+        return levels;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<CommentResponse> getCommentsTree(Long blogId) {
-        List<CommentEntity> roots = commentRepository.findByBlogIdAndParentIsNullOrderByCreatedAtAsc(blogId);
-        return roots.stream()
-            .map(root -> toResponse(root, true))
-            .collect(Collectors.toList());
+        List<CommentRow> rows = commentRepository.findRowsByBlogId(blogId);
+        CommentResponse[] responses = new CommentResponse[rows.size()];
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = toResponse(rows.get(i));
+        }
+        // Parents are found by binary search over the ids in id order, without boxing keys
+        CommentResponse[] sortedById = responses.clone();
+        Arrays.sort(sortedById, Comparator.comparingLong(CommentResponse::getId));
+        long[] ids = new long[sortedById.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = sortedById[i].getId();
+        }
+        // Rows are in creation order, so appending keeps every reply list sorted
+        List<CommentResponse> roots = new ArrayList<>();
+        for (CommentResponse response : responses) {
+            int parent = response.getParentId() != null ? Arrays.binarySearch(ids, response.getParentId()) : -1;
+            if (parent >= 0) {
+                sortedById[parent].getReplies().add(response);
+            } else {
+                roots.add(response);
+            }
+        }
+        return roots;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public long getCommentCount(Long blogId) {
-        return commentRepository.countByBlogId(blogId);
+    public CommentPage getComments(Long blogId, String cursor, int size, int inlineReplies) {
+        // Fetch one extra row to learn whether another page exists, without a COUNT query
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<CommentRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = commentRepository.findRootPage(blogId, limit);
+        } else {
+            CommentCursor position = CommentCursor.decode(cursor);
+            rows = commentRepository.findRootPageAfter(blogId, position.createdAt(), position.id(), limit);
+        }
+        return toCommentPage(blogId, rows, size, inlineReplies);
     }
 
-    private CommentResponse toResponse(CommentEntity entity, boolean includeReplies) {
-        CommentResponse response = CommentResponse.builder()
-            .id(entity.getId())
-            .blogId(entity.getBlogId())
-            .username(entity.getUsername())
-            .content(entity.getContent())
-            .parentId(entity.getParent() != null ? entity.getParent().getId() : null)
-            .createdAt(entity.getCreatedAt())
-            .updatedAt(entity.getUpdatedAt())
-            .build();
-        if (includeReplies) {
-            List<CommentEntity> children = commentRepository.findByParentIdOrderByCreatedAtAsc(entity.getId());
-            List<CommentResponse> childResponses = new ArrayList<>();
-            for (CommentEntity child : children) {
-                childResponses.add(toResponse(child, true));
-            }
-            response.setReplies(childResponses);
+    @Override
+    @Transactional(readOnly = true)
+    public CommentPage getReplies(Long commentId, String cursor, int size) {
+        CommentEntity parent = commentRepository.findById(commentId)
+            .orElseThrow(() -> new EntityNotFoundException("Comment not found"));
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<CommentRow> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = commentRepository.findReplyPage(parent.getBlogId(), commentId, limit);
+        } else {
+            CommentCursor position = CommentCursor.decode(cursor);
+            rows = commentRepository.findReplyPageAfter(
+                parent.getBlogId(), commentId, position.createdAt(), position.id(), limit);
         }
-        return response;
+        return toCommentPage(parent.getBlogId(), rows, size, 0);
+    }
+
+    private CommentPage toCommentPage(Long blogId, List<CommentRow> rows, int size, int inlineReplies) {
+        boolean hasNext = rows.size() > size;
+        List<CommentRow> slice = hasNext ? rows.subList(0, size) : rows;
+        List<CommentResponse> content = new ArrayList<>(slice.size());
+        for (CommentRow row : slice) {
+            content.add(toResponse(row));
+        }
+        attachReplies(blogId, content, inlineReplies);
+        String nextCursor = null;
+        if (hasNext) {
+            CommentRow last = slice.get(slice.size() - 1);
+            nextCursor = new CommentCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return CommentPage.builder()
+            .content(content)
+            .size(content.size())
+            .hasNext(hasNext)
+            .nextCursor(nextCursor)
+            .build();
     }
 
     /**
-     * Checks if the current count is a milestone and publishes an event if it is.
-     * Milestones are: 10, 50, 100, 500, 1000, etc.
+     * Sets the reply count of every comment and inlines up to {@code inlineReplies} of
+     * their direct replies (which get reply counts of their own, but no replies). A fixed
+     * number of queries, however many comments the page holds.
      */
-    private void checkAndPublishMilestone(Long blogId, String milestoneType) {
-        try {
-            long count = 0;
-            if ("LIKES".equals(milestoneType)) {
-                count = getLikeCount(blogId);
-            } else if ("COMMENTS".equals(milestoneType)) {
-                count = getCommentCount(blogId);
-            } else if ("VIEWS".equals(milestoneType)) {
-                count = getViewCount(blogId);
+    private void attachReplies(Long blogId, List<CommentResponse> comments, int inlineReplies) {
+        if (comments.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> counts = toReplyCountMap(commentRepository.countRepliesGroupedByParentId(
+            blogId, comments.stream().map(CommentResponse::getId).toList()));
+        List<Long> withReplies = new ArrayList<>();
+        for (CommentResponse comment : comments) {
+            long count = counts.getOrDefault(comment.getId(), 0L);
+            comment.setReplyCount(count);
+            if (count > 0) {
+                withReplies.add(comment.getId());
             }
+        }
+        if (inlineReplies <= 0 || withReplies.isEmpty()) {
+            return;
+        }
 
-            log.debug("Milestone check for blog {} type {} count {}", blogId, milestoneType, count);
-
-            // Check if it's a milestone (5, 10, 50, 100, 500, 1000, etc.)
-            if (isMilestone(count)) {
-                String authorId = null;
-                String blogTitle = null;
-                try {
-                    // Best effort: fetch author id, but do not block publishing if unavailable
-                    BlogDetails blog = blogServiceClient.getBlogPublic(blogId);
-                    if (blog != null) {
-                        if (blog.authorId != null) {
-                            authorId = blog.authorId.toString();
-                        }
-                        blogTitle = blog.title;
-                    }
-                } catch (Exception ex) {
-                    log.warn("Could not fetch blog details for {} during milestone publish: {}", blogId, ex.getMessage());
-                }
+        Map<Long, CommentResponse> byId = new HashMap<>(comments.size() * 2);
+        for (CommentResponse comment : comments) {
+            byId.put(comment.getId(), comment);
+        }
+        List<CommentResponse> replies = new ArrayList<>();
+        for (CommentRow row : commentRepository.findFirstReplies(blogId, withReplies, inlineReplies)) {
+            CommentResponse reply = toResponse(row);
+            byId.get(row.getParentId()).getReplies().add(reply);
+            replies.add(reply);
+        }
+        attachReplies(blogId, replies, 0);
 
-                EngagementMilestoneEvent event = new EngagementMilestoneEvent(
-                        blogId.toString(),
-                        authorId,
-                        blogTitle,
-                        milestoneType,
-                        (int) count
-                );
-
-                kafkaTemplate.send("engagement-milestones", event);
-                log.info("Published engagement milestone event for blog: {} - {}: {} (authorId={}, title={})", 
-                        blogId, milestoneType, count, authorId, blogTitle);
-            } else {
-                log.debug("Not a milestone for blog {} type {} at count {}", blogId, milestoneType, count);
+        for (CommentResponse comment : comments) {
+            List<CommentResponse> inlined = comment.getReplies();
+            if (!inlined.isEmpty() && inlined.size() < comment.getReplyCount()) {
+                CommentResponse last = inlined.get(inlined.size() - 1);
+                comment.setRepliesCursor(new CommentCursor(last.getCreatedAt(), last.getId()).encode());
             }
-        } catch (Exception e) {
-            log.error("Failed to check/publish milestone for blog: {}. Error: {}", 
-                    blogId, e.getMessage(), e);
-            // Don't fail the like operation if milestone checking fails
         }
     }
 
-    @FeignClient(name = "blog-service")
-    interface BlogServiceClient {
-        @GetMapping("/api/blogs/internal/{id}")
-        BlogDetails getBlogPublic(@PathVariable("id") Long id);
+    private Map<Long, Long> toReplyCountMap(List<CommentReplyCount> counts) {
+        Map<Long, Long> map = new HashMap<>(counts.size() * 2);
+        for (CommentReplyCount count : counts) {
+            map.put(count.getParentId(), count.getTotal());
+        }
+        return map;
+    }
+
+    @Override
+    public long getCommentCount(Long blogId) {
+        return engagementCounters.get(blogId, CounterType.COMMENTS);
+    }
+
+    // Stats
+    @Override
+    public List<BlogStatsDto> getStats(Collection<Long> blogIds) {
+        Set<Long> ids = new LinkedHashSet<>(blogIds);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // Served from the in-memory counters; only blogs not yet loaded hit the counts table
+        Map<Long, BlogCounters> counters = engagementCounters.getAll(ids);
+        List<BlogStatsDto> stats = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BlogCounters blog = counters.get(id);
+            stats.add(BlogStatsDto.builder()
+                .blogId(id)
+                .likeCount(blog.get(CounterType.LIKES))
+                .viewCount(blog.get(CounterType.VIEWS))
+                .commentCount(blog.get(CounterType.COMMENTS))
+                .build());
+        }
+        return stats;
     }
 
-    @Data
-    static class BlogDetails {
-        private Long id;
-        private String title;
-        private Long authorId;
+    @Override
+    public BlogStatsDto getStats(Long blogId, String username) {
+        BlogStatsDto stats = getStats(List.of(blogId)).get(0);
+        if (username != null) {
+            stats.setLiked(likedBlogsCache.isLiked(username, blogId));
+        }
+        return stats;
     }
 
     /**
-     * Checks if a count represents a milestone.
-     * Milestones are: 10, 50, 100, 500, 1000, 5000, 10000, etc.
+     * Updates the blog's counters and announces the delta once the write commits.
      */
-    private boolean isMilestone(long count) {
-        return count == 5 || count == 10 || count == 50 || count == 100 || count == 500 || 
-               count == 1000 || count == 5000 || count == 10000 || 
-               (count > 10000 && count % 10000 == 0);
+    private void count(Long blogId, CounterType type, int delta) {
+        engagementCounters.record(blogId, type, delta);
+        engagementEventPublisher.publishDelta(blogId, type.name(), delta);
+        TransactionHooks.afterCommit(() -> liveCountsService.onChange(blogId));
     }
-}
 
+    /**
+     * Like {@link #count}, then hands the updated count to the milestone detector. Runs
+     * after commit, behind the counter update registered before it.
+     */
+    private void countAndCheckMilestone(Long blogId, CounterType type, int delta) {
+        count(blogId, type, delta);
+        TransactionHooks.afterCommit(() ->
+            milestoneDetector.onCount(blogId, type.name(), engagementCounters.get(blogId, type), delta));
+    }
 
+    private CommentResponse toResponse(CommentEntity entity) {
+        return CommentResponse.builder()
+            .id(entity.getId())
+            .blogId(entity.getBlogId())
+            .username(entity.getUsername())
+            .content(entity.getContent())
+            .parentId(entity.getParent() != null ? entity.getParent().getId() : null)
+            .createdAt(entity.getCreatedAt())
+            .updatedAt(entity.getUpdatedAt())
+            .build();
+    }
+
+    private CommentResponse toResponse(CommentRow row) {
+        return CommentResponse.builder()
+            .id(row.getId())
+            .blogId(row.getBlogId())
+            .username(row.getUsername())
+            .content(row.getContent())
+            .parentId(row.getParentId())
+            .createdAt(row.getCreatedAt())
+            .updatedAt(row.getUpdatedAt())
+            .build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.repository.LikeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user set of liked blog ids, for answering "liked by me" without a query.
+ * <p>
+ * A user's set is loaded on first use as a sorted {@code long[]} (8 bytes per like) and
+ * kept current by the like writes of this instance. Writes that happen while a set is
+ * loading are queued on the loading entry and replayed over the loaded ids; adding or
+ * removing an id is idempotent, so replaying a write the load already saw is harmless.
+ * Entries expire after {@code ttl-ms}, which bounds staleness from other instances'
+ * writes. Users with very many likes are not cached and always go to the database.
+ */
+@Component
+public class LikedBlogsCache {
+
+    private record Change(long blogId, boolean liked) {
+    }
+
+    // ids == null while loading, with pending holding the writes seen meanwhile; both null
+    // for a user with too many likes to cache, until the entry expires
+    private record Entry(long[] ids, List<Change> pending, long loadedAt) {
+
+        Entry apply(Change change) {
+            if (ids == null && pending == null) {
+                return this;
+            }
+            if (ids == null) {
+                List<Change> queued = new ArrayList<>(pending);
+                queued.add(change);
+                return new Entry(null, queued, loadedAt);
+            }
+            return new Entry(LikedBlogsCache.apply(ids, change), pending, loadedAt);
+        }
+    }
+
+    private final LikeRepository likeRepository;
+    private final boolean enabled;
+    private final int maxUsers;
+    private final int maxLikesPerUser;
+    private final long ttlMillis;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public LikedBlogsCache(LikeRepository likeRepository,
+                           @Value("${engagement.likes.user-cache.enabled:true}") boolean enabled,
+                           @Value("${engagement.likes.user-cache.max-users:50000}") int maxUsers,
+                           @Value("${engagement.likes.user-cache.max-likes-per-user:10000}") int maxLikesPerUser,
+                           @Value("${engagement.likes.user-cache.ttl-ms:300000}") long ttlMillis) {
+        this.likeRepository = likeRepository;
+        this.enabled = enabled;
+        this.maxUsers = maxUsers;
+        this.maxLikesPerUser = maxLikesPerUser;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Returns which of {@code blogIds} the user likes, in request order.
+     */
+    public List<Long> likedAmong(String username, Collection<Long> blogIds) {
+        long[] ids = enabled ? idsOf(username) : null;
+        if (ids == null) {
+            return likeRepository.findLikedBlogIds(username, blogIds);
+        }
+        Set<Long> liked = new LinkedHashSet<>();
+        for (Long blogId : blogIds) {
+            if (Arrays.binarySearch(ids, blogId) >= 0) {
+                liked.add(blogId);
+            }
+        }
+        return new ArrayList<>(liked);
+    }
+
+    public boolean isLiked(String username, Long blogId) {
+        long[] ids = enabled ? idsOf(username) : null;
+        if (ids == null) {
+            return likeRepository.existsByBlogIdAndUsername(blogId, username);
+        }
+        return Arrays.binarySearch(ids, blogId) >= 0;
+    }
+
+    /**
+     * Applies a committed like or unlike to the user's set, if the user is cached.
+     */
+    public void onChange(String username, Long blogId, boolean liked) {
+        if (enabled) {
+            entries.computeIfPresent(username, (user, entry) -> entry.apply(new Change(blogId, liked)));
+        }
+    }
+
+    /**
+     * The user's liked ids, loading them if needed; null if the user cannot be cached or
+     * is being loaded by another request.
+     */
+    private long[] idsOf(String username) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(username);
+        if (entry != null && now - entry.loadedAt() < ttlMillis) {
+            return entry.ids();
+        }
+        if (entry == null && entries.size() >= maxUsers) {
+            return null;
+        }
+        Entry loading = new Entry(null, List.of(), now);
+        Entry current = entry == null ? entries.putIfAbsent(username, loading)
+            : entries.replace(username, entry, loading) ? null : entries.get(username);
+        if (current != null) {
+            return current.ids();
+        }
+
+        List<Long> loaded;
+        try {
+            loaded = likeRepository.findBlogIdsByUsername(username, PageRequest.of(0, maxLikesPerUser + 1));
+        } catch (RuntimeException e) {
+            entries.computeIfPresent(username, (user, existing) -> existing.ids() == null ? null : existing);
+            throw e;
+        }
+        if (loaded.size() > maxLikesPerUser) {
+            entries.computeIfPresent(username, (user, e) -> e.ids() == null ? new Entry(null, null, now) : e);
+            return null;
+        }
+        long[] ids = new long[loaded.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = loaded.get(i);
+        }
+        Entry installed = entries.computeIfPresent(username, (user, e) -> {
+            // Only this request loads the user, so a loading entry is ours (possibly with
+            // queued writes, which replaced the original entry object)
+            if (e.ids() != null || e.pending() == null) {
+                return e;
+            }
+            long[] replayed = ids;
+            for (Change change : e.pending()) {
+                replayed = apply(replayed, change);
+            }
+            return new Entry(replayed, List.of(), e.loadedAt());
+        });
+        return installed != null ? installed.ids() : ids;
+    }
+
+    @Scheduled(fixedDelayString = "${engagement.likes.user-cache.ttl-ms:300000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> (entry.ids() != null || entry.pending() == null)
+            && now - entry.loadedAt() >= ttlMillis);
+    }
+
+    private static long[] apply(long[] ids, Change change) {
+        int position = Arrays.binarySearch(ids, change.blogId());
+        if (change.liked() && position < 0) {
+            int insertAt = -position - 1;
+            long[] grown = new long[ids.length + 1];
+            System.arraycopy(ids, 0, grown, 0, insertAt);
+            grown[insertAt] = change.blogId();
+            System.arraycopy(ids, insertAt, grown, insertAt + 1, ids.length - insertAt);
+            return grown;
+        }
+        if (!change.liked() && position >= 0) {
+            long[] shrunk = new long[ids.length - 1];
+            System.arraycopy(ids, 0, shrunk, 0, position);
+            System.arraycopy(ids, position + 1, shrunk, position, ids.length - position - 1);
+            return shrunk;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,221 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.counter.BlogCounters;
+import com.blogspot.engagement.counter.CounterType;
+import com.blogspot.engagement.dto.BlogStatsDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes like/view/comment counts of subscribed blogs to Server-Sent Events clients.
+ * <p>
+ * A subscription is an async {@link SseEmitter}, so an idle one holds no thread. Committed
+ * writes only mark their blog as changed; every {@code interval-ms} the changed blogs'
+ * counts are read from {@link EngagementCounters} and queued to their subscribers, so a
+ * blog gets at most one frame per interval however busy it is. Frames are written on
+ * virtual threads, one drain at a time per subscriber; a slow client's queue keeps only
+ * the latest frame of each blog. Each heartbeat also re-checks every subscribed blog, which
+ * picks up changes made on other instances once the counters have refreshed.
+ * <p>
+ * {@code max-subscribers} caps the subscriptions of one instance. Each holds an open
+ * connection, so Tomcat's {@code server.tomcat.max-connections} must be set above it;
+ * otherwise new connections queue in the accept backlog long before the cap is reached.
+ */
+@Service
+@Slf4j
+public class LiveCountsService {
+
+    private static final String COUNTS_EVENT = "counts";
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<Long> blogIds;
+        private final Map<Long, BlogStatsDto> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+
+        Subscriber(SseEmitter emitter, Set<Long> blogIds) {
+            this.emitter = emitter;
+            this.blogIds = blogIds;
+        }
+    }
+
+    private final EngagementCounters engagementCounters;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private final Counter frames;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> subscribersByBlog = new ConcurrentHashMap<>();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final Map<Long, BlogStatsDto> lastSent = new ConcurrentHashMap<>();
+
+    public LiveCountsService(EngagementCounters engagementCounters,
+                             MeterRegistry meterRegistry,
+                             @Value("${engagement.live.timeout-ms:1800000}") long timeoutMillis,
+                             @Value("${engagement.live.max-subscribers:50000}") int maxSubscribers) {
+        this.engagementCounters = engagementCounters;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.frames = Counter.builder("engagement.live.frames")
+            .description("Count frames pushed to live subscribers").register(meterRegistry);
+        Gauge.builder("engagement.live.subscribers", subscribers, Set::size)
+            .description("Open live count subscriptions").register(meterRegistry);
+    }
+
+    /**
+     * Opens a subscription to the blogs' counts, starting with their current values.
+     * Returns null if this instance already holds {@code max-subscribers} subscriptions.
+     */
+    public SseEmitter subscribe(Collection<Long> blogIds) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(blogIds));
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.add(subscriber);
+        for (Long blogId : subscriber.blogIds) {
+            subscribersByBlog.compute(blogId, (id, set) -> {
+                Set<Subscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+                target.add(subscriber);
+                return target;
+            });
+        }
+        engagementCounters.getAll(subscriber.blogIds)
+            .forEach((blogId, counters) -> subscriber.pending.put(blogId, stats(blogId, counters)));
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Notes a committed change of the blog's counts; cheap when nobody is subscribed.
+     */
+    public void onChange(Long blogId) {
+        if (subscribersByBlog.containsKey(blogId)) {
+            changed.add(blogId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${engagement.live.interval-ms:1000}")
+    public void flush() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Long> blogIds = new ArrayList<>(changed);
+        changed.removeAll(blogIds);
+        publish(blogIds);
+    }
+
+    @Scheduled(fixedDelayString = "${engagement.live.heartbeat-ms:25000}")
+    public void heartbeat() {
+        publish(new ArrayList<>(subscribersByBlog.keySet()));
+        // Keeps proxies from closing idle streams and detects clients that went away
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    private void publish(Collection<Long> blogIds) {
+        List<Long> subscribed = blogIds.stream().filter(subscribersByBlog::containsKey).toList();
+        if (subscribed.isEmpty()) {
+            return;
+        }
+        engagementCounters.getAll(subscribed).forEach((blogId, counters) -> {
+            BlogStatsDto frame = stats(blogId, counters);
+            if (frame.equals(lastSent.put(blogId, frame))) {
+                return;
+            }
+            for (Subscriber subscriber : subscribersByBlog.getOrDefault(blogId, Set.of())) {
+                subscriber.pending.put(blogId, frame);
+                schedule(subscriber);
+            }
+        });
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            do {
+                for (Long blogId : new ArrayList<>(subscriber.pending.keySet())) {
+                    BlogStatsDto frame = subscriber.pending.remove(blogId);
+                    if (frame != null) {
+                        subscriber.emitter.send(SseEmitter.event().name(COUNTS_EVENT).data(frame));
+                        frames.increment();
+                    }
+                }
+                if (subscriber.heartbeatDue) {
+                    subscriber.heartbeatDue = false;
+                    subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                }
+                subscriber.draining.set(false);
+                // Frames queued after the last check need a drain; take it over unless another did
+            } while ((!subscriber.pending.isEmpty() || subscriber.heartbeatDue)
+                && subscriber.draining.compareAndSet(false, true));
+        } catch (Exception e) {
+            // The client went away or the emitter already completed
+            log.debug("Dropping live subscriber: {}", e.getMessage());
+            unsubscribe(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        for (Long blogId : subscriber.blogIds) {
+            subscribersByBlog.computeIfPresent(blogId, (id, set) -> {
+                set.remove(subscriber);
+                if (set.isEmpty()) {
+                    lastSent.remove(id);
+                    return null;
+                }
+                return set;
+            });
+        }
+    }
+
+    private static BlogStatsDto stats(Long blogId, BlogCounters counters) {
+        return BlogStatsDto.builder()
+            .blogId(blogId)
+            .likeCount(counters.get(CounterType.LIKES))
+            .viewCount(counters.get(CounterType.VIEWS))
+            .commentCount(counters.get(CounterType.COMMENTS))
+            .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : new ArrayList<>(subscribers)) {
+            subscriber.emitter.complete();
+        }
+        senders.shutdown();
+    }
+}
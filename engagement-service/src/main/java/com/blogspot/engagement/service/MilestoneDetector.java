@@ -0,0 +1,233 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.dto.EngagementMilestoneEvent;
+import com.blogspot.engagement.ingest.RingBuffer;
+import com.blogspot.engagement.model.MilestoneMark;
+import com.blogspot.engagement.repository.MilestoneMarkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Announces engagement milestones (5, 10, 50, 100, 500, 1000, 5000, 10000, then every
+ * 10000) off the request thread.
+ * <p>
+ * Writers report a blog's count after each committed change. A count that has reached
+ * a threshold above the blog's announced high-water mark is queued; a background thread
+ * raises the persisted mark with a conditional update, so exactly one instance
+ * announces each milestone, then looks up the blog and publishes the event. Detection is
+ * by crossing rather than equality, so counts that jump past a threshold (concurrent or
+ * batched writes) still trigger it; when several thresholds are crossed at once only the
+ * highest is announced.
+ */
+@Service
+@Slf4j
+public class MilestoneDetector {
+
+    public static final String TOPIC = "engagement-milestones";
+
+    private static final long[] LADDER = {5, 10, 50, 100, 500, 1000, 5000, 10000};
+    private static final long STEP_AFTER_LADDER = 10000;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final int DRAIN_BATCH = 256;
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private record CountUpdate(Long blogId, String type, long count, long previousCount) {
+    }
+
+    private final MilestoneMarkRepository markRepository;
+    private final BlogServiceClient blogServiceClient;
+    private final KafkaTemplate<String, EngagementMilestoneEvent> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RingBuffer<CountUpdate> queue;
+    private final int maxCachedMarks;
+    private final Counter dropped;
+    private final Counter published;
+
+    // Announced thresholds as last seen, to skip the queue for counts that cross nothing
+    private final Map<String, Long> marks = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private Thread worker;
+
+    public MilestoneDetector(MilestoneMarkRepository markRepository,
+                             BlogServiceClient blogServiceClient,
+                             KafkaTemplate<String, EngagementMilestoneEvent> kafkaTemplate,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${engagement.milestones.queue-capacity:8192}") int queueCapacity,
+                             @Value("${engagement.milestones.cache-size:100000}") int maxCachedMarks) {
+        this.markRepository = markRepository;
+        this.blogServiceClient = blogServiceClient;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new RingBuffer<>(queueCapacity);
+        this.maxCachedMarks = maxCachedMarks;
+        this.dropped = Counter.builder("engagement.milestones.dropped")
+            .description("Count updates not checked for milestones because the queue was full").register(meterRegistry);
+        this.published = Counter.builder("engagement.milestones.published")
+            .description("Milestone events published").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "milestone-detector");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Reports the count of a blog after a change of {@code delta}. Cheap and non-blocking;
+     * the check itself happens in the background.
+     */
+    public void onCount(Long blogId, String type, long count, long delta) {
+        long threshold = highestThresholdAtMost(count);
+        if (threshold == 0 || threshold <= marks.getOrDefault(markKey(blogId, type), 0L)) {
+            return;
+        }
+        if (!queue.offer(new CountUpdate(blogId, type, count, count - delta))) {
+            // A later change of the same blog will find the crossing again
+            dropped.increment();
+        }
+    }
+
+    /**
+     * The highest milestone threshold not above {@code count}, or 0 if there is none.
+     */
+    static long highestThresholdAtMost(long count) {
+        if (count >= STEP_AFTER_LADDER) {
+            return count / STEP_AFTER_LADDER * STEP_AFTER_LADDER;
+        }
+        for (int i = LADDER.length - 1; i >= 0; i--) {
+            if (count >= LADDER[i]) {
+                return LADDER[i];
+            }
+        }
+        return 0;
+    }
+
+    private void run() {
+        List<CountUpdate> batch = new ArrayList<>(DRAIN_BATCH);
+        while (running || queue.size() > 0) {
+            batch.clear();
+            if (queue.drainTo(batch, DRAIN_BATCH) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            // Only the highest count per blog and type matters; the lowest previous count
+            // tells where a blog without a mark stood before
+            Map<String, CountUpdate> latest = new LinkedHashMap<>();
+            for (CountUpdate update : batch) {
+                latest.merge(markKey(update.blogId(), update.type()), update, (a, b) -> new CountUpdate(
+                    a.blogId(), a.type(), Math.max(a.count(), b.count()), Math.min(a.previousCount(), b.previousCount())));
+            }
+            for (CountUpdate update : latest.values()) {
+                try {
+                    check(update);
+                } catch (Exception e) {
+                    log.error("Failed to check milestone for blog {} type {}: {}",
+                        update.blogId(), update.type(), e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private void check(CountUpdate update) {
+        long threshold = highestThresholdAtMost(update.count());
+        Long previous = transactionTemplate.execute(status -> claim(update, threshold));
+        if (previous == null) {
+            return;
+        }
+
+        String authorId = null;
+        String blogTitle = null;
+        try {
+            // Best effort: publish without author details if blog-service is unavailable
+            BlogServiceClient.BlogDetails blog = blogServiceClient.getBlogPublic(update.blogId());
+            if (blog != null) {
+                if (blog.getAuthorId() != null) {
+                    authorId = blog.getAuthorId().toString();
+                }
+                blogTitle = blog.getTitle();
+            }
+        } catch (Exception ex) {
+            log.warn("Could not fetch blog details for {} during milestone publish: {}", update.blogId(), ex.getMessage());
+        }
+
+        EngagementMilestoneEvent event = new EngagementMilestoneEvent(
+            update.blogId().toString(), authorId, blogTitle, update.type(), (int) threshold);
+        try {
+            // Blocking is fine here, and a failed send can still be undone
+            kafkaTemplate.send(TOPIC, event).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            published.increment();
+            log.info("Published engagement milestone event for blog: {} - {}: {} (authorId={}, title={})",
+                update.blogId(), update.type(), threshold, authorId, blogTitle);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.warn("Failed to publish milestone {} {} for blog {}, releasing it: {}",
+                update.type(), threshold, update.blogId(), e.getMessage());
+            transactionTemplate.executeWithoutResult(status ->
+                markRepository.release(update.blogId(), update.type(), threshold, previous));
+            marks.put(markKey(update.blogId(), update.type()), previous);
+        }
+    }
+
+    /**
+     * Raises the blog's mark to {@code threshold}. Returns the mark it replaced, or null if
+     * the threshold was already announced (here or by another instance).
+     */
+    private Long claim(CountUpdate update, long threshold) {
+        Long blogId = update.blogId();
+        String type = update.type();
+        long current = markRepository.findById(new MilestoneMark.Key(blogId, type))
+            .map(MilestoneMark::getThreshold)
+            .orElse(-1L);
+        if (current < 0) {
+            // First milestone check of this blog: thresholds passed before it are history
+            markRepository.insertIfAbsent(blogId, type, highestThresholdAtMost(update.previousCount()));
+            current = markRepository.findById(new MilestoneMark.Key(blogId, type))
+                .map(MilestoneMark::getThreshold)
+                .orElse(0L);
+        }
+        if (threshold > current && markRepository.advance(blogId, type, threshold) == 1) {
+            remember(blogId, type, threshold);
+            return current;
+        }
+        remember(blogId, type, Math.max(current, threshold));
+        return null;
+    }
+
+    private void remember(Long blogId, String type, long threshold) {
+        if (marks.size() >= maxCachedMarks) {
+            marks.clear();
+        }
+        marks.put(markKey(blogId, type), threshold);
+    }
+
+    private static String markKey(Long blogId, String type) {
+        return blogId + ":" + type;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+}
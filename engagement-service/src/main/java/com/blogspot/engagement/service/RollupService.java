@@ -0,0 +1,258 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.dto.EngagementSeriesDto;
+import com.blogspot.engagement.model.RollupGranularity;
+import com.blogspot.engagement.model.RollupWatermark;
+import com.blogspot.engagement.repository.EngagementRollupRepository;
+import com.blogspot.engagement.repository.RollupPoint;
+import com.blogspot.engagement.repository.RollupWatermarkRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rolls raw views, likes and comments up into hourly and daily buckets per blog, and
+ * serves time series from them.
+ * <p>
+ * Each raw table is scanned incrementally by primary key from its {@link RollupWatermark}.
+ * The scan stops at the first row inserted less than {@code lag-seconds} ago, going by the
+ * database's {@code inserted_at} rather than the event's {@code created_at}, which may be
+ * far in the past for a replayed view. Ids are allocated when a row is inserted, so a
+ * transaction that commits out of id order is not skipped as long as it commits within
+ * {@code lag-seconds} of its insert. A batch adds its counts to both the
+ * hourly and the daily buckets and advances the watermark in one transaction, under a
+ * lock on the watermark row, so each row is counted exactly once across instances. On a
+ * fresh table the watermarks start at zero and the existing history is rolled up over
+ * the first runs. Daily buckets are kept indefinitely; hourly ones are deleted after
+ * {@code hourly-retention-days}, leaving only the daily buckets for older periods.
+ */
+@Service
+@Slf4j
+public class RollupService {
+
+    private static final int SCAN_BATCH = 5000;
+    private static final int PRUNE_BATCH = 5000;
+    private static final int AUTHOR_FILL_BATCH = 200;
+    private static final String UPSERT_BUCKET =
+        "INSERT INTO engagement_rollups (blog_id, granularity, bucket_start, author_id, views, likes, comments) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE views = views + VALUES(views), "
+            + "likes = likes + VALUES(likes), comments = comments + VALUES(comments), "
+            + "author_id = COALESCE(author_id, VALUES(author_id))";
+
+    /** Raw event tables, in the order of the counts in a bucket. */
+    private enum Source {
+        VIEWS("views"), LIKES("likes"), COMMENTS("comments");
+
+        private final String table;
+        private final String scan;
+
+        Source(String table) {
+            this.table = table;
+            this.scan = "SELECT id, blog_id, created_at, inserted_at < NOW(6) - INTERVAL ? SECOND AS settled FROM "
+                + table + " WHERE id > ? ORDER BY id LIMIT ?";
+        }
+    }
+
+    private record Event(long id, long blogId, LocalDateTime createdAt, boolean settled) {
+    }
+
+    private record Bucket(long blogId, RollupGranularity granularity, LocalDateTime start) {
+    }
+
+    private final EngagementRollupRepository rollupRepository;
+    private final RollupWatermarkRepository watermarkRepository;
+    private final BlogAuthors blogAuthors;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long lagSeconds;
+    private final int maxBatchesPerRun;
+    private final int hourlyRetentionDays;
+
+    public RollupService(EngagementRollupRepository rollupRepository,
+                         RollupWatermarkRepository watermarkRepository,
+                         BlogAuthors blogAuthors,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${engagement.rollups.lag-seconds:60}") long lagSeconds,
+                         @Value("${engagement.rollups.max-batches-per-run:20}") int maxBatchesPerRun,
+                         @Value("${engagement.rollups.hourly-retention-days:35}") int hourlyRetentionDays) {
+        this.rollupRepository = rollupRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.blogAuthors = blogAuthors;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lagSeconds = lagSeconds;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.hourlyRetentionDays = hourlyRetentionDays;
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Source source : Source.values()) {
+                watermarkRepository.insertIfAbsent(source.table);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${engagement.rollups.interval-ms:30000}")
+    public void rollUp() {
+        for (Source source : Source.values()) {
+            try {
+                for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                    if (rollUpBatch(source) < SCAN_BATCH) {
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Failed to roll up {}: {}", source.table, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rolls up the next batch of rows of the table. Returns how many rows it consumed.
+     */
+    private int rollUpBatch(Source source) {
+        long from = watermarkRepository.findById(source.table).map(RollupWatermark::getLastId).orElse(0L);
+        List<Event> events = jdbcTemplate.query(source.scan, (rs, rowNum) -> new Event(
+            rs.getLong("id"), rs.getLong("blog_id"), rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getBoolean("settled")), lagSeconds, from, SCAN_BATCH);
+        int ready = 0;
+        while (ready < events.size() && events.get(ready).settled()) {
+            ready++;
+        }
+        if (ready == 0) {
+            return 0;
+        }
+        List<Event> batch = events.subList(0, ready);
+
+        Map<Bucket, long[]> buckets = new HashMap<>();
+        Set<Long> blogIds = new LinkedHashSet<>();
+        for (Event event : batch) {
+            blogIds.add(event.blogId());
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                Bucket bucket = new Bucket(event.blogId(), granularity, granularity.bucketOf(event.createdAt()));
+                buckets.computeIfAbsent(bucket, b -> new long[Source.values().length])[source.ordinal()]++;
+            }
+        }
+        // Look authors up before the transaction rather than while holding a connection;
+        // rows left without one are filled in by maintain()
+        blogIds.forEach(blogAuthors::resolve);
+
+        long lastId = batch.get(batch.size() - 1).id();
+        Boolean applied = transactionTemplate.execute(status -> {
+            RollupWatermark watermark = watermarkRepository.findForUpdate(source.table).orElseThrow();
+            if (watermark.getLastId() != from) {
+                // Another instance rolled these rows up meanwhile
+                return false;
+            }
+            List<Map.Entry<Bucket, long[]>> rows = new ArrayList<>(buckets.entrySet());
+            jdbcTemplate.batchUpdate(UPSERT_BUCKET, rows, rows.size(), (statement, row) -> {
+                Bucket bucket = row.getKey();
+                long[] counts = row.getValue();
+                statement.setLong(1, bucket.blogId());
+                statement.setString(2, bucket.granularity().name());
+                statement.setTimestamp(3, Timestamp.valueOf(bucket.start()));
+                statement.setObject(4, blogAuthors.cached(bucket.blogId()));
+                statement.setLong(5, counts[Source.VIEWS.ordinal()]);
+                statement.setLong(6, counts[Source.LIKES.ordinal()]);
+                statement.setLong(7, counts[Source.COMMENTS.ordinal()]);
+            });
+            watermark.setLastId(lastId);
+            watermark.setUpdatedAt(LocalDateTime.now());
+            return true;
+        });
+        return Boolean.TRUE.equals(applied) ? ready : 0;
+    }
+
+    /**
+     * Deletes expired hourly buckets and fills in authors that could not be resolved when
+     * their buckets were written.
+     */
+    @Scheduled(fixedDelayString = "${engagement.rollups.maintenance-interval-ms:600000}")
+    public void maintain() {
+        try {
+            LocalDateTime before = LocalDate.now().minusDays(hourlyRetentionDays).atStartOfDay();
+            int deleted;
+            do {
+                deleted = transactionTemplate.execute(status ->
+                    rollupRepository.deleteOlderThan(RollupGranularity.HOUR.name(), before, PRUNE_BATCH));
+            } while (deleted == PRUNE_BATCH);
+
+            for (Long blogId : rollupRepository.findBlogIdsWithoutAuthor(AUTHOR_FILL_BATCH)) {
+                Long authorId = blogAuthors.resolve(blogId);
+                if (authorId != null) {
+                    transactionTemplate.executeWithoutResult(status -> rollupRepository.setAuthor(blogId, authorId));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Rollup maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    public EngagementSeriesDto seriesForBlog(Long blogId, RollupGranularity granularity,
+                                             LocalDate from, LocalDate to, Integer points) {
+        List<RollupPoint> rows = rollupRepository.findSeriesByBlog(
+            blogId, granularity, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        return series(rows, granularity, from, to, points).blogId(blogId).build();
+    }
+
+    public EngagementSeriesDto seriesForAuthor(Long authorId, RollupGranularity granularity,
+                                               LocalDate from, LocalDate to, Integer points) {
+        List<RollupPoint> rows = rollupRepository.findSeriesByAuthor(
+            authorId, granularity, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        return series(rows, granularity, from, to, points).authorId(authorId).build();
+    }
+
+    /**
+     * Zero-fills the buckets missing from {@code rows} and, if there are more buckets than
+     * {@code points}, sums consecutive buckets so that at most {@code points} remain.
+     */
+    private static EngagementSeriesDto.EngagementSeriesDtoBuilder series(List<RollupPoint> rows, RollupGranularity granularity,
+                                                                         LocalDate from, LocalDate to, Integer points) {
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (LocalDateTime start = from.atStartOfDay(); start.isBefore(end); start = granularity.next(start)) {
+            starts.add(start);
+        }
+        int perPoint = points == null || points >= starts.size() ? 1 : (starts.size() + points - 1) / points;
+
+        List<EngagementSeriesDto.Point> result = new ArrayList<>((starts.size() + perPoint - 1) / perPoint);
+        int row = 0;
+        for (int i = 0; i < starts.size(); i++) {
+            if (i % perPoint == 0) {
+                result.add(new EngagementSeriesDto.Point(starts.get(i), 0, 0, 0));
+            }
+            EngagementSeriesDto.Point point = result.get(result.size() - 1);
+            // Rows are ordered by bucket and lie on bucket boundaries
+            if (row < rows.size() && rows.get(row).getBucketStart().equals(starts.get(i))) {
+                RollupPoint bucket = rows.get(row++);
+                point.setViews(point.getViews() + bucket.getViews());
+                point.setLikes(point.getLikes() + bucket.getLikes());
+                point.setComments(point.getComments() + bucket.getComments());
+            }
+        }
+        return EngagementSeriesDto.builder()
+            .granularity(granularity)
+            .from(from)
+            .to(to)
+            .bucketsPerPoint(perPoint)
+            .points(result);
+    }
+}
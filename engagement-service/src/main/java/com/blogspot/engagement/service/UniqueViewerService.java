@@ -0,0 +1,194 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.dto.ViewRecord;
+import com.blogspot.engagement.model.ViewerSketch;
+import com.blogspot.engagement.repository.ViewerSketchRepository;
+import com.blogspot.engagement.sketch.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates distinct viewers per blog and per author with HyperLogLog sketches.
+ * <p>
+ * Every view is added to the blog's sketch of its day and to its all-time sketch. New
+ * additions collect in memory and are merged into {@code viewer_sketches} on a schedule;
+ * since merging is idempotent, a flush that fails or races with another instance is
+ * simply retried. Range estimates merge the daily sketches of the range, plus whatever
+ * is not flushed yet. Rows flushed while their blog's author could not be resolved are
+ * given it by {@link #maintain()}, as author estimates only see rows with an author.
+ */
+@Service
+@Slf4j
+public class UniqueViewerService {
+
+    private static final int FLUSH_CHUNK = 200;
+    private static final int AUTHOR_FILL_BATCH = 200;
+
+    private record Key(Long blogId, LocalDate day) {
+    }
+
+    private final ViewerSketchRepository sketchRepository;
+    private final BlogAuthors blogAuthors;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Key, HyperLogLog> pending = new ConcurrentHashMap<>();
+
+    public UniqueViewerService(ViewerSketchRepository sketchRepository,
+                               BlogAuthors blogAuthors,
+                               PlatformTransactionManager transactionManager) {
+        this.sketchRepository = sketchRepository;
+        this.blogAuthors = blogAuthors;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Adds the viewers of committed views. Views with neither a username nor an IP address
+     * cannot be told apart and are skipped.
+     */
+    public void recordAfterCommit(List<ViewRecord> views) {
+        TransactionHooks.afterCommit(() -> {
+            for (ViewRecord view : views) {
+                String viewer = view.viewerKey();
+                if (viewer == null) {
+                    continue;
+                }
+                long hash = HyperLogLog.hash(viewer);
+                add(new Key(view.blogId(), view.viewedAt().toLocalDate()), hash);
+                add(new Key(view.blogId(), ViewerSketch.ALL_TIME), hash);
+            }
+        });
+    }
+
+    private void add(Key key, long hash) {
+        // compute() keeps the add atomic with respect to the flush removing the sketch
+        pending.compute(key, (k, sketch) -> {
+            HyperLogLog target = sketch != null ? sketch : new HyperLogLog();
+            target.offerHash(hash);
+            return target;
+        });
+    }
+
+    /**
+     * Estimated distinct viewers of the blog between {@code from} and {@code to} inclusive,
+     * or over all time if both are null.
+     */
+    public long estimateForBlog(Long blogId, LocalDate from, LocalDate to) {
+        LocalDate first = from != null ? from : ViewerSketch.ALL_TIME;
+        LocalDate last = to != null ? to : ViewerSketch.ALL_TIME;
+        HyperLogLog union = new HyperLogLog();
+        for (byte[] registers : sketchRepository.findRegistersByBlog(blogId, first, last)) {
+            union.merge(HyperLogLog.fromBytes(registers));
+        }
+        pending.forEach((key, sketch) -> {
+            if (key.blogId().equals(blogId) && inRange(key.day(), first, last)) {
+                union.merge(sketch);
+            }
+        });
+        return union.estimate();
+    }
+
+    /**
+     * Estimated distinct viewers across all blogs of the author; a reader of several of
+     * them is counted once.
+     */
+    public long estimateForAuthor(Long authorId, LocalDate from, LocalDate to) {
+        LocalDate first = from != null ? from : ViewerSketch.ALL_TIME;
+        LocalDate last = to != null ? to : ViewerSketch.ALL_TIME;
+        HyperLogLog union = new HyperLogLog();
+        for (byte[] registers : sketchRepository.findRegistersByAuthor(authorId, first, last)) {
+            union.merge(HyperLogLog.fromBytes(registers));
+        }
+        pending.forEach((key, sketch) -> {
+            if (authorId.equals(blogAuthors.cached(key.blogId())) && inRange(key.day(), first, last)) {
+                union.merge(sketch);
+            }
+        });
+        return union.estimate();
+    }
+
+    @Scheduled(fixedDelayString = "${engagement.unique-viewers.flush-interval-ms:30000}")
+    public void flush() {
+        List<Key> keys = new ArrayList<>(pending.keySet());
+        for (int from = 0; from < keys.size(); from += FLUSH_CHUNK) {
+            Map<Key, HyperLogLog> chunk = new HashMap<>();
+            for (Key key : keys.subList(from, Math.min(from + FLUSH_CHUNK, keys.size()))) {
+                HyperLogLog sketch = pending.remove(key);
+                if (sketch != null) {
+                    chunk.put(key, sketch);
+                }
+            }
+            try {
+                // Look authors up before the transaction rather than while holding a connection
+                chunk.keySet().forEach(key -> blogAuthors.resolve(key.blogId()));
+                transactionTemplate.executeWithoutResult(status -> chunk.forEach(this::mergeIntoRow));
+            } catch (Exception e) {
+                // Put the additions back; merging them again next time is harmless
+                chunk.forEach((key, sketch) -> pending.merge(key, sketch, (current, failed) -> {
+                    current.merge(failed);
+                    return current;
+                }));
+                log.warn("Failed to flush {} viewer sketches: {}", chunk.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Fills in authors that could not be resolved when their sketch rows were flushed.
+     */
+    @Scheduled(fixedDelayString = "${engagement.unique-viewers.maintenance-interval-ms:600000}")
+    public void maintain() {
+        try {
+            for (Long blogId : sketchRepository.findBlogIdsWithoutAuthor(AUTHOR_FILL_BATCH)) {
+                Long authorId = blogAuthors.resolve(blogId);
+                if (authorId != null) {
+                    transactionTemplate.executeWithoutResult(status -> sketchRepository.setAuthor(blogId, authorId));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Viewer sketch maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void mergeIntoRow(Key key, HyperLogLog additions) {
+        LocalDateTime now = LocalDateTime.now();
+        ViewerSketch row = sketchRepository.findById(new ViewerSketch.Key(key.blogId(), key.day())).orElse(null);
+        if (row == null) {
+            row = ViewerSketch.builder()
+                .blogId(key.blogId())
+                .day(key.day())
+                .registers(additions.toBytes())
+                .build();
+        } else {
+            HyperLogLog merged = HyperLogLog.fromBytes(row.getRegisters());
+            merged.merge(additions);
+            row.setRegisters(merged.toBytes());
+        }
+        if (row.getAuthorId() == null) {
+            row.setAuthorId(blogAuthors.cached(key.blogId()));
+        }
+        row.setUpdatedAt(now);
+        // A concurrent update by another instance fails the version check and rolls back
+        sketchRepository.save(row);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static boolean inRange(LocalDate day, LocalDate first, LocalDate last) {
+        return !day.isBefore(first) && !day.isAfter(last);
+    }
+}
@@ -0,0 +1,244 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.archive.ViewSegment;
+import com.blogspot.engagement.dto.ArchivedViewsDto;
+import com.blogspot.engagement.dto.ViewRecord;
+import com.blogspot.engagement.model.RollupWatermark;
+import com.blogspot.engagement.model.ViewArchiveSegment;
+import com.blogspot.engagement.repository.RollupWatermarkRepository;
+import com.blogspot.engagement.repository.ViewArchiveSegmentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves {@code views} rows older than {@code age-days} into {@link ViewSegment} files.
+ * <p>
+ * Rows are archived in id order, only up to the rollup watermark so that rollups never
+ * miss them. A segment file is written and synced first; then one transaction inserts
+ * its catalog row, deletes the archived id range from {@code views} and adds the
+ * per-blog numbers to {@code archived_view_counts}, which count seeding reads alongside
+ * the hot table. If the transaction fails the file is removed again; if the process dies
+ * in between, the file is left behind but never referenced. The catalog's primary key
+ * makes concurrent archivers on several instances fail rather than overlap. With several
+ * instances the archive directory must be shared storage.
+ */
+@Service
+@Slf4j
+public class ViewArchiveService {
+
+    private static final String SCAN =
+        "SELECT id, blog_id, username, ip_address, created_at FROM views WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+    private static final String INSERT_SEGMENT =
+        "INSERT INTO view_archive_segments (segment, file_name, first_id, last_id, row_count, min_viewed_at, "
+            + "max_viewed_at, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_ARCHIVED = "DELETE FROM views WHERE id BETWEEN ? AND ?";
+    private static final String ADD_ARCHIVED_COUNT =
+        "INSERT INTO archived_view_counts (blog_id, views, updated_at) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE views = views + VALUES(views), updated_at = VALUES(updated_at)";
+    // RollupService's watermark for the views table
+    private static final String VIEWS_ROLLUP_SOURCE = "views";
+
+    private record ArchivedRow(long id, ViewRecord view) {
+    }
+
+    private final ViewArchiveSegmentRepository segmentRepository;
+    private final RollupWatermarkRepository watermarkRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final boolean enabled;
+    private final int ageDays;
+    private final int segmentRows;
+    private final int minSegmentRows;
+    private final int maxSegmentsPerRun;
+    private final Counter archived;
+
+    private final Map<Long, ViewSegment> mapped = new ConcurrentHashMap<>();
+
+    public ViewArchiveService(ViewArchiveSegmentRepository segmentRepository,
+                              RollupWatermarkRepository watermarkRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${engagement.views.archive.dir:data/view-archive}") String directory,
+                              @Value("${engagement.views.archive.enabled:true}") boolean enabled,
+                              @Value("${engagement.views.archive.age-days:30}") int ageDays,
+                              @Value("${engagement.views.archive.segment-rows:100000}") int segmentRows,
+                              @Value("${engagement.views.archive.min-segment-rows:10000}") int minSegmentRows,
+                              @Value("${engagement.views.archive.max-segments-per-run:10}") int maxSegmentsPerRun) {
+        this.segmentRepository = segmentRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Paths.get(directory);
+        this.enabled = enabled;
+        this.ageDays = ageDays;
+        this.segmentRows = segmentRows;
+        this.minSegmentRows = Math.min(minSegmentRows, segmentRows);
+        this.maxSegmentsPerRun = maxSegmentsPerRun;
+        this.archived = Counter.builder("engagement.views.archived")
+            .description("View rows moved from the views table to archive segments").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+    }
+
+    @Scheduled(fixedDelayString = "${engagement.views.archive.interval-ms:3600000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDate.now().minusDays(ageDays).atStartOfDay();
+        try {
+            for (int i = 0; i < maxSegmentsPerRun; i++) {
+                if (!archiveSegment(cutoff)) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to archive views: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Archives the next segment's worth of old rows. Returns false if there were too few.
+     */
+    private boolean archiveSegment(LocalDateTime cutoff) throws IOException {
+        long rolledUp = watermarkRepository.findById(VIEWS_ROLLUP_SOURCE).map(RollupWatermark::getLastId).orElse(0L);
+        Optional<ViewArchiveSegment> last = segmentRepository.findTopByOrderBySegmentDesc();
+        long after = last.map(ViewArchiveSegment::getLastId).orElse(0L);
+        long segment = last.map(ViewArchiveSegment::getSegment).orElse(0L) + 1;
+
+        List<ArchivedRow> rows = jdbcTemplate.query(SCAN, (rs, rowNum) -> new ArchivedRow(rs.getLong("id"),
+            new ViewRecord(rs.getLong("blog_id"), rs.getString("username"), rs.getString("ip_address"),
+                rs.getTimestamp("created_at").toLocalDateTime())), after, rolledUp, segmentRows);
+        int ready = 0;
+        while (ready < rows.size() && rows.get(ready).view().viewedAt().isBefore(cutoff)) {
+            ready++;
+        }
+        // Small leftovers wait, rather than producing many tiny segments
+        if (ready == 0 || ready < minSegmentRows) {
+            return false;
+        }
+        List<ArchivedRow> batch = rows.subList(0, ready);
+        List<ViewRecord> views = batch.stream().map(ArchivedRow::view).toList();
+
+        String fileName = String.format("views-%08d-%s.seg", segment, UUID.randomUUID());
+        Path file = directory.resolve(fileName);
+        ViewSegment.write(file, views);
+        try {
+            transactionTemplate.executeWithoutResult(status -> commitSegment(segment, fileName, batch));
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        archived.increment(ready);
+        log.info("Archived {} views (ids {} to {}) into segment {}", ready,
+            batch.get(0).id(), batch.get(ready - 1).id(), segment);
+        return true;
+    }
+
+    private void commitSegment(long segment, String fileName, List<ArchivedRow> batch) {
+        long firstId = batch.get(0).id();
+        long lastId = batch.get(batch.size() - 1).id();
+        LocalDateTime min = batch.get(0).view().viewedAt();
+        LocalDateTime max = min;
+        Map<Long, Long> perBlog = new HashMap<>();
+        for (ArchivedRow row : batch) {
+            LocalDateTime viewedAt = row.view().viewedAt();
+            min = viewedAt.isBefore(min) ? viewedAt : min;
+            max = viewedAt.isAfter(max) ? viewedAt : max;
+            perBlog.merge(row.view().blogId(), 1L, Long::sum);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        // Fails with a duplicate key if another instance archived this segment meanwhile
+        jdbcTemplate.update(INSERT_SEGMENT, segment, fileName, firstId, lastId, batch.size(),
+            Timestamp.valueOf(min), Timestamp.valueOf(max), now);
+        int deleted = jdbcTemplate.update(DELETE_ARCHIVED, firstId, lastId);
+        if (deleted != batch.size()) {
+            // Rows in the range appeared or vanished since the scan
+            throw new IllegalStateException("Expected to archive " + batch.size() + " views but deleted " + deleted);
+        }
+        List<Map.Entry<Long, Long>> counts = new ArrayList<>(perBlog.entrySet());
+        jdbcTemplate.batchUpdate(ADD_ARCHIVED_COUNT, counts, counts.size(), (statement, count) -> {
+            statement.setLong(1, count.getKey());
+            statement.setLong(2, count.getValue());
+            statement.setTimestamp(3, now);
+        });
+    }
+
+    /**
+     * Scans the archive for the blog's views between {@code from} and {@code to} inclusive.
+     */
+    public ArchivedViewsDto summarize(Long blogId, LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        long[] views = new long[1];
+        Set<String> viewers = new HashSet<>();
+        for (ViewArchiveSegment entry : segmentRepository.findOverlapping(start, end)) {
+            ViewSegment segment = segmentOf(entry);
+            if (segment == null) {
+                continue;
+            }
+            segment.scan(blogId, start, end, (viewedBlogId, viewedAt, username, ipAddress) -> {
+                views[0]++;
+                String viewer = new ViewRecord(viewedBlogId, username, ipAddress, viewedAt).viewerKey();
+                if (viewer != null) {
+                    viewers.add(viewer);
+                }
+            });
+        }
+        return ArchivedViewsDto.builder()
+            .blogId(blogId)
+            .from(from)
+            .to(to)
+            .views(views[0])
+            .distinctViewers(viewers.size())
+            .build();
+    }
+
+    private ViewSegment segmentOf(ViewArchiveSegment entry) {
+        try {
+            return mapped.computeIfAbsent(entry.getSegment(), segment -> {
+                try {
+                    return ViewSegment.open(directory.resolve(entry.getFileName()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            log.warn("View archive segment {} ({}) is not readable: {}", entry.getSegment(), entry.getFileName(),
+                e.getCause().getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.dto.ViewRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the views produced to {@value ViewIngestionService#VIEWS_TOPIC} when
+ * {@code engagement.views.ingest-mode=kafka}.
+ * <p>
+ * Each poll is written as one batch: {@link EngagementService#recordViews} inserts the
+ * views and updates each blog's counters once, in one transaction. Since views are keyed
+ * by blog, each consumer of the group counts only the blogs of its own partitions.
+ * <p>
+ * Messages that cannot be parsed, or lack a blog or time, are counted as malformed and
+ * skipped; over-long usernames and addresses are cut by {@link ViewRecord}. If the
+ * database still rejects the batch, its views are written one at a time and those it
+ * rejects are counted and skipped. Any other failure is thrown back to the container as a
+ * {@link BatchListenerFailedException} at the first unwritten record: offsets before it
+ * are committed, and it is retried with back-off while the partitions' lag grows.
+ * Delivery is at least once, so a crash between a write and its offset commit can count
+ * views twice.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "engagement.views.ingest-mode", havingValue = ViewIngestionService.MODE_KAFKA)
+public class ViewEventConsumer {
+
+    private final EngagementService engagementService;
+    private final ObjectMapper objectMapper;
+    private final DistributionSummary batchSizes;
+    private final Timer delay;
+    private final Counter malformed;
+    private final Counter rejected;
+
+    public ViewEventConsumer(EngagementService engagementService,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.engagementService = engagementService;
+        this.objectMapper = objectMapper;
+        this.batchSizes = DistributionSummary.builder("engagement.views.kafka.batch.size")
+            .description("View events consumed per poll").register(meterRegistry);
+        this.delay = Timer.builder("engagement.views.kafka.delay")
+            .description("Age of the oldest view event of a batch when it was written").register(meterRegistry);
+        this.malformed = Counter.builder("engagement.views.kafka.malformed")
+            .description("View events skipped because they could not be read").register(meterRegistry);
+        this.rejected = Counter.builder("engagement.views.kafka.rejected")
+            .description("View events skipped because the database rejected them").register(meterRegistry);
+    }
+
+    @KafkaListener(topics = ViewIngestionService.VIEWS_TOPIC, batch = "true",
+                   groupId = "${engagement.views.kafka.consumer-group:engagement-view-ingest}",
+                   concurrency = "${engagement.views.kafka.concurrency:1}")
+    public void onViews(List<ConsumerRecord<String, String>> records) {
+        List<ViewRecord> views = new ArrayList<>(records.size());
+        // Index in records of each view, to report where a failed write stopped
+        List<Integer> indexes = new ArrayList<>(records.size());
+        long oldest = Long.MAX_VALUE;
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            try {
+                ViewRecord view = objectMapper.readValue(record.value(), ViewRecord.class);
+                if (view.blogId() == null || view.viewedAt() == null) {
+                    throw new IllegalArgumentException("blogId and viewedAt are required");
+                }
+                views.add(view);
+                indexes.add(i);
+                oldest = Math.min(oldest, record.timestamp());
+            } catch (Exception e) {
+                malformed.increment();
+                log.warn("Skipping malformed view event at {}-{}@{}: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+            }
+        }
+        if (!views.isEmpty()) {
+            write(records, views, indexes);
+        }
+        batchSizes.record(records.size());
+        if (oldest != Long.MAX_VALUE) {
+            delay.record(Math.max(0, System.currentTimeMillis() - oldest), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void write(List<ConsumerRecord<String, String>> records, List<ViewRecord> views, List<Integer> indexes) {
+        try {
+            engagementService.recordViews(views);
+            return;
+        } catch (DataIntegrityViolationException e) {
+            // Retrying cannot help, and one bad row fails the whole batch
+            log.warn("Database rejected a batch of {} view events, writing them one at a time: {}",
+                views.size(), e.getMessage());
+        }
+        for (int i = 0; i < views.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(indexes.get(i));
+            try {
+                engagementService.recordViews(List.of(views.get(i)));
+            } catch (DataIntegrityViolationException e) {
+                rejected.increment();
+                log.warn("Skipping view event at {}-{}@{} rejected by the database: {}",
+                    record.topic(), record.partition(), record.offset(), e.getMessage());
+            } catch (RuntimeException e) {
+                throw new BatchListenerFailedException("Failed to write view event", e, indexes.get(i));
+            }
+        }
+    }
+}
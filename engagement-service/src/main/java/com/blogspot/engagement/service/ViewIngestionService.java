@@ -0,0 +1,262 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.dto.ViewRecord;
+import com.blogspot.engagement.ingest.RingBuffer;
+import com.blogspot.engagement.sketch.HyperLogLog;
+import com.blogspot.engagement.sketch.RotatingBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Accepts blog views into a bounded in-memory buffer and writes them in batches.
+ * <p>
+ * Request threads only enqueue, so recording a view costs no database round trip. A
+ * single drainer thread collects up to {@code batch-size} views, waiting at most
+ * {@code linger-ms} for a batch to fill, and hands each batch to
+ * {@link EngagementService#recordViews}. When the buffer is full new views are shed and
+ * the caller is told to retry later. Views still buffered when the process dies are lost,
+ * which is acceptable for view counts. A batch the database rejects as invalid is split
+ * in halves until the offending views are isolated, and only those are dropped.
+ * <p>
+ * Before buffering, repeat views of a blog by the same user (or IP address, when
+ * anonymous) within {@code dedup.window-ms} are dropped, using a
+ * {@link RotatingBloomFilter} of fixed size. Views with neither are always kept. A viewer is
+ * only remembered once the view is queued, so a shed view can be retried.
+ * <p>
+ * With {@code ingest-mode=kafka} views are instead produced to {@value #VIEWS_TOPIC},
+ * keyed by blog, and written by {@link ViewEventConsumer}; a slow database then shows up
+ * as consumer lag. A send that cannot even be queued by the producer sheds the view.
+ */
+@Service
+@Slf4j
+public class ViewIngestionService {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_ATTEMPTS = 3;
+
+    public static final String VIEWS_TOPIC = "blog-views";
+    static final String MODE_BUFFER = "buffer";
+    static final String MODE_KAFKA = "kafka";
+
+    private final EngagementService engagementService;
+    private final KafkaTemplate<String, ViewRecord> kafkaTemplate;
+    private final boolean useKafka;
+    private final RingBuffer<ViewRecord> buffer;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final Counter accepted;
+    private final Counter shed;
+    private final Counter dropped;
+    private final Counter duplicates;
+    private final RotatingBloomFilter recentViewers;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread drainer;
+
+    public ViewIngestionService(EngagementService engagementService,
+                                KafkaTemplate<String, ViewRecord> kafkaTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${engagement.views.ingest-mode:buffer}") String ingestMode,
+                                @Value("${engagement.views.queue-capacity:65536}") int queueCapacity,
+                                @Value("${engagement.views.batch-size:500}") int batchSize,
+                                @Value("${engagement.views.linger-ms:20}") long lingerMillis,
+                                @Value("${engagement.views.dedup.enabled:true}") boolean dedupEnabled,
+                                @Value("${engagement.views.dedup.window-ms:1800000}") long dedupWindowMillis,
+                                @Value("${engagement.views.dedup.slices:6}") int dedupSlices,
+                                @Value("${engagement.views.dedup.capacity-per-slice:1000000}") long dedupCapacityPerSlice,
+                                @Value("${engagement.views.dedup.false-positive-rate:0.01}") double dedupFalsePositiveRate) {
+        if (!MODE_BUFFER.equals(ingestMode) && !MODE_KAFKA.equals(ingestMode)) {
+            throw new IllegalArgumentException("engagement.views.ingest-mode must be buffer or kafka, not " + ingestMode);
+        }
+        this.engagementService = engagementService;
+        this.kafkaTemplate = kafkaTemplate;
+        this.useKafka = MODE_KAFKA.equals(ingestMode);
+        this.buffer = new RingBuffer<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.accepted = Counter.builder("engagement.views.ingest").tag("result", "accepted")
+            .description("Views accepted into the ingestion buffer").register(meterRegistry);
+        this.shed = Counter.builder("engagement.views.ingest").tag("result", "shed")
+            .description("Views rejected because the ingestion buffer was full").register(meterRegistry);
+        this.dropped = Counter.builder("engagement.views.ingest").tag("result", "dropped")
+            .description("Accepted views lost because they could not be written or produced").register(meterRegistry);
+        this.duplicates = Counter.builder("engagement.views.ingest").tag("result", "duplicate")
+            .description("Repeat views by the same viewer within the de-duplication window").register(meterRegistry);
+        this.recentViewers = dedupEnabled ? new RotatingBloomFilter(dedupWindowMillis, dedupSlices,
+            dedupCapacityPerSlice, dedupFalsePositiveRate, System.currentTimeMillis()) : null;
+        if (recentViewers != null) {
+            FunctionCounter.builder("engagement.views.dedup.early.rotations", recentViewers, RotatingBloomFilter::getEarlyRotations)
+                .description("De-duplication slices ended early because they were full, shortening the window")
+                .register(meterRegistry);
+        }
+        this.flushTimer = Timer.builder("engagement.views.flush")
+            .description("Time to write one batch of views").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("engagement.views.batch.size")
+            .description("Views written per batch").register(meterRegistry);
+        Gauge.builder("engagement.views.queue.depth", buffer, RingBuffer::size)
+            .description("Views waiting in the ingestion buffer").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        if (useKafka) {
+            return;
+        }
+        drainer = new Thread(this::drain, "view-ingest-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Enqueues a view. Returns false if the buffer is full and the view was shed; a repeat
+     * view that is dropped counts as accepted.
+     */
+    public boolean submit(Long blogId, String username, String ipAddress) {
+        ViewRecord view = new ViewRecord(blogId, username, ipAddress, LocalDateTime.now());
+        if (isRepeat(view)) {
+            duplicates.increment();
+            return true;
+        }
+        if (useKafka) {
+            if (!produce(view)) {
+                return false;
+            }
+        } else if (!running || !buffer.offer(view)) {
+            shed.increment();
+            return false;
+        }
+        accepted.increment();
+        rememberViewer(view);
+        return true;
+    }
+
+    private boolean produce(ViewRecord view) {
+        try {
+            // Blocks for at most max.block.ms when the producer has no metadata or buffer space
+            kafkaTemplate.send(VIEWS_TOPIC, view.blogId().toString(), view).whenComplete((result, e) -> {
+                if (e != null) {
+                    dropped.increment();
+                    log.debug("Failed to produce view of blog {}: {}", view.blogId(), e.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            shed.increment();
+            log.debug("Could not queue view of blog {} for Kafka: {}", view.blogId(), e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private boolean isRepeat(ViewRecord view) {
+        String viewer = view.viewerKey();
+        if (recentViewers == null || viewer == null) {
+            return false;
+        }
+        return recentViewers.contains(viewerHash(view, viewer), System.currentTimeMillis());
+    }
+
+    private void rememberViewer(ViewRecord view) {
+        String viewer = view.viewerKey();
+        if (recentViewers == null || viewer == null) {
+            return;
+        }
+        // A concurrent view by the same viewer may have been queued too; both are kept
+        recentViewers.addIfAbsent(viewerHash(view, viewer), System.currentTimeMillis());
+    }
+
+    private static long viewerHash(ViewRecord view, String viewer) {
+        return HyperLogLog.hash(view.blogId() + "|" + viewer);
+    }
+
+    private void drain() {
+        List<ViewRecord> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        while (true) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            if (batch.size() < batchSize && running) {
+                // Give a partial batch a moment to fill before paying for a round trip
+                if (deadline == 0) {
+                    deadline = System.nanoTime() + lingerNanos;
+                }
+                if (System.nanoTime() - deadline < 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+            }
+            write(batch);
+            batch.clear();
+            deadline = 0;
+        }
+    }
+
+    private void write(List<ViewRecord> batch) {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                engagementService.recordViews(batch);
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                batchSizes.record(batch.size());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                // Retrying cannot help, and one bad row fails the whole multi-row insert
+                if (batch.size() == 1) {
+                    dropped.increment();
+                    log.warn("Dropping view of blog {} rejected by the database: {}", batch.get(0).blogId(), e.getMessage());
+                    return;
+                }
+                int half = batch.size() / 2;
+                write(new ArrayList<>(batch.subList(0, half)));
+                write(new ArrayList<>(batch.subList(half, batch.size())));
+                return;
+            } catch (Exception e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    dropped.increment(batch.size());
+                    log.error("Dropping {} views after {} failed write attempts: {}", batch.size(), attempt, e.getMessage());
+                    return;
+                }
+                log.warn("Failed to write {} views (attempt {}), retrying: {}", batch.size(), attempt, e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100L * attempt));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (drainer == null) {
+            return;
+        }
+        // The drainer writes what is left in the buffer before it exits
+        drainer.join(TimeUnit.SECONDS.toMillis(30));
+        if (buffer.size() > 0) {
+            log.warn("Shutting down with {} views not written", buffer.size());
+        }
+    }
+}
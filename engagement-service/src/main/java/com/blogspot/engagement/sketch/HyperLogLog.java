@@ -0,0 +1,195 @@
+package com.blogspot.engagement.sketch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog cardinality sketch with 2^12 registers (about 1.6% standard error).
+ * <p>
+ * A sketch starts sparse, as a sorted list of its non-zero registers, and switches to a
+ * dense register array once that would be smaller. Merging takes the register-wise
+ * maximum, so it is idempotent and order-independent: the union of any sketches can be
+ * estimated, and merging the same sketch twice does no harm. Instances are thread-safe.
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 12;
+
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final int MAX_RANK = Long.SIZE - PRECISION + 1;
+    // Sparse entries take 4 bytes in memory and 3 serialized; beyond this dense is smaller
+    private static final int SPARSE_LIMIT = REGISTERS / 4;
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte SPARSE = 0;
+    private static final byte DENSE = 1;
+
+    // Sparse: (register index << 8 | rank), sorted by index; null once dense
+    private int[] sparse = new int[8];
+    private int sparseSize;
+    private byte[] dense;
+
+    /**
+     * 64-bit hash of a viewer identity. Good spread is all HyperLogLog needs.
+     */
+    public static long hash(String value) {
+        long hash = 0x9E3779B97F4A7C15L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ b) * 0x100000001B3L;
+            hash = Long.rotateLeft(hash, 27);
+        }
+        // MurmurHash3 finalizer
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public synchronized void offerHash(long hash) {
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION) + 1, MAX_RANK);
+        set(index, rank);
+    }
+
+    public void offer(String value) {
+        offerHash(hash(value));
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other == this) {
+            return;
+        }
+        int[] otherSparse;
+        int otherSize;
+        byte[] otherDense;
+        synchronized (other) {
+            otherSparse = other.sparse != null ? Arrays.copyOf(other.sparse, other.sparseSize) : null;
+            otherSize = other.sparseSize;
+            otherDense = other.dense != null ? other.dense.clone() : null;
+        }
+        synchronized (this) {
+            if (otherDense != null) {
+                for (int i = 0; i < REGISTERS; i++) {
+                    if (otherDense[i] != 0) {
+                        set(i, otherDense[i]);
+                    }
+                }
+            } else {
+                for (int i = 0; i < otherSize; i++) {
+                    set(otherSparse[i] >>> 8, otherSparse[i] & 0xFF);
+                }
+            }
+        }
+    }
+
+    public synchronized long estimate() {
+        double sum = 0;
+        int zeros;
+        if (dense != null) {
+            zeros = 0;
+            for (byte register : dense) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        } else {
+            zeros = REGISTERS - sparseSize;
+            sum = zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += 1.0 / (1L << (sparse[i] & 0xFF));
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+        double estimate = alpha * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Linear counting is more accurate while many registers are still empty
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public synchronized boolean isEmpty() {
+        return dense == null && sparseSize == 0;
+    }
+
+    public synchronized byte[] toBytes() {
+        if (dense != null) {
+            ByteBuffer buffer = ByteBuffer.allocate(3 + REGISTERS);
+            buffer.put(FORMAT_VERSION).put((byte) PRECISION).put(DENSE).put(dense);
+            return buffer.array();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(5 + sparseSize * 3);
+        buffer.put(FORMAT_VERSION).put((byte) PRECISION).put(SPARSE).putShort((short) sparseSize);
+        for (int i = 0; i < sparseSize; i++) {
+            buffer.putShort((short) (sparse[i] >>> 8)).put((byte) sparse[i]);
+        }
+        return buffer.array();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != FORMAT_VERSION || buffer.get() != PRECISION) {
+            throw new IllegalArgumentException("Unsupported HyperLogLog format");
+        }
+        HyperLogLog sketch = new HyperLogLog();
+        if (buffer.get() == DENSE) {
+            sketch.sparse = null;
+            sketch.dense = new byte[REGISTERS];
+            buffer.get(sketch.dense);
+        } else {
+            int size = Short.toUnsignedInt(buffer.getShort());
+            for (int i = 0; i < size; i++) {
+                sketch.set(Short.toUnsignedInt(buffer.getShort()), buffer.get());
+            }
+        }
+        return sketch;
+    }
+
+    private void set(int index, int rank) {
+        if (dense != null) {
+            if (dense[index] < rank) {
+                dense[index] = (byte) rank;
+            }
+            return;
+        }
+        int low = 0;
+        int high = sparseSize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midIndex = sparse[mid] >>> 8;
+            if (midIndex < index) {
+                low = mid + 1;
+            } else if (midIndex > index) {
+                high = mid - 1;
+            } else {
+                if ((sparse[mid] & 0xFF) < rank) {
+                    sparse[mid] = index << 8 | rank;
+                }
+                return;
+            }
+        }
+        if (sparseSize == SPARSE_LIMIT) {
+            toDense();
+            dense[index] = (byte) rank;
+            return;
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        System.arraycopy(sparse, low, sparse, low + 1, sparseSize - low);
+        sparse[low] = index << 8 | rank;
+        sparseSize++;
+    }
+
+    private void toDense() {
+        dense = new byte[REGISTERS];
+        for (int i = 0; i < sparseSize; i++) {
+            dense[sparse[i] >>> 8] = (byte) (sparse[i] & 0xFF);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+}
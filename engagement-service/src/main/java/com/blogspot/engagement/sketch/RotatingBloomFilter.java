@@ -0,0 +1,161 @@
+package com.blogspot.engagement.sketch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers keys for a sliding time window in fixed memory.
+ * <p>
+ * The window is split into slices, each with its own Bloom filter. New keys go into the
+ * current slice's filter; a key is a repeat if any of the retained filters may contain it.
+ * Every slice a fresh filter becomes current and the oldest is dropped, so a key is
+ * remembered for between one window and one window plus a slice. Filters are sized so
+ * that with {@code capacityPerSlice} keys in each, a lookup across all of them has the
+ * requested false positive rate. A slice that fills up is rotated early instead of being
+ * overfilled: under overload the window gets shorter (some repeats pass) rather than the
+ * false positive rate rising (new keys rejected), and memory stays the same. Instances are thread-safe; two concurrent adds of
+ * the same new key may both be reported as new.
+ */
+public class RotatingBloomFilter {
+
+    private static final class Filter {
+
+        private final AtomicLongArray words;
+        private final LongAdder size = new LongAdder();
+        private final long startedAt;
+
+        Filter(int wordCount, long startedAt) {
+            this.words = new AtomicLongArray(wordCount);
+            this.startedAt = startedAt;
+        }
+    }
+
+    private final long bitCount;
+    private final int hashCount;
+    private final long capacityPerSlice;
+    private final long sliceMillis;
+    private final AtomicLong earlyRotations = new AtomicLong();
+
+    // Newest first
+    private volatile Filter[] filters;
+
+    public RotatingBloomFilter(long windowMillis, int slices, long capacityPerSlice,
+                               double falsePositiveRate, long nowMillis) {
+        if (slices < 1 || capacityPerSlice < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid filter parameters");
+        }
+        // A lookup consults every retained filter, so each gets a share of the rate
+        double perFilterRate = falsePositiveRate / (slices + 1);
+        double bits = -capacityPerSlice * Math.log(perFilterRate) / (Math.log(2) * Math.log(2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (long) Math.ceil(bits / Long.SIZE));
+        this.bitCount = (long) wordCount * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round(bitCount / (double) capacityPerSlice * Math.log(2)));
+        this.capacityPerSlice = capacityPerSlice;
+        this.sliceMillis = Math.max(1, windowMillis / slices);
+        // One more filter than slices, so the oldest kept still covers a full window
+        this.filters = new Filter[slices + 1];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = new Filter(wordCount, nowMillis);
+        }
+    }
+
+    /**
+     * Whether the key was (probably) added within the window. Does not add it.
+     */
+    public boolean contains(long hash, long nowMillis) {
+        Filter[] current = rotateIfDue(nowMillis);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (Filter filter : current) {
+            if (mightContain(filter, h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the key unless it was (probably) added within the window. Returns true if the
+     * key is new, false if it is a repeat. Repeats are not added again, so the window runs
+     * from the key's first sighting.
+     */
+    public boolean addIfAbsent(long hash, long nowMillis) {
+        Filter[] current = rotateIfDue(nowMillis);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i < current.length; i++) {
+            if (mightContain(current[i], h1, h2)) {
+                return false;
+            }
+        }
+        if (!put(current[0], h1, h2)) {
+            return false;
+        }
+        current[0].size.increment();
+        return true;
+    }
+
+    /**
+     * Number of slices that were ended early because their filter was full.
+     */
+    public long getEarlyRotations() {
+        return earlyRotations.get();
+    }
+
+    private Filter[] rotateIfDue(long nowMillis) {
+        Filter[] current = filters;
+        boolean due = nowMillis - current[0].startedAt >= sliceMillis;
+        boolean full = current[0].size.sum() >= capacityPerSlice;
+        if (!due && !full) {
+            return current;
+        }
+        synchronized (this) {
+            current = filters;
+            due = nowMillis - current[0].startedAt >= sliceMillis;
+            full = current[0].size.sum() >= capacityPerSlice;
+            if (due || full) {
+                if (!due) {
+                    earlyRotations.incrementAndGet();
+                }
+                // After a quiet period several slices may have passed at once
+                int elapsed = (int) Math.min(current.length, Math.max(1, (nowMillis - current[0].startedAt) / sliceMillis));
+                Filter[] rotated = new Filter[current.length];
+                for (int i = 0; i < elapsed; i++) {
+                    rotated[i] = new Filter(current[0].words.length(), nowMillis);
+                }
+                System.arraycopy(current, 0, rotated, elapsed, current.length - elapsed);
+                filters = rotated;
+                current = rotated;
+            }
+        }
+        return current;
+    }
+
+    private boolean mightContain(Filter filter, int h1, int h2) {
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bitIndex(h1, h2, i);
+            if ((filter.words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Sets the key's bits; returns true if any of them was not set before. */
+    private boolean put(Filter filter, int h1, int h2) {
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bitIndex(h1, h2, i);
+            long mask = 1L << bit;
+            long previous = filter.words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+            changed |= (previous & mask) == 0;
+        }
+        return changed;
+    }
+
+    private long bitIndex(int h1, int h2, int i) {
+        // Kirsch-Mitzenmacher: k indexes from two hashes
+        return Math.floorMod(h1 + (long) i * h2, bitCount);
+    }
+}
@@ -0,0 +1,110 @@
+package com.blogspot.engagement.archive;
+
+import com.blogspot.engagement.dto.ViewRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewSegmentTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsTheViewsOfSeveralBlogs() throws IOException {
+        // Out of blog and time order, as rows come from the views table by id
+        List<ViewRecord> views = List.of(
+            new ViewRecord(20L, "bob", "10.0.0.2", T0.plusHours(2)),
+            new ViewRecord(10L, "alice", "10.0.0.1", T0.plusHours(1)),
+            new ViewRecord(30L, null, null, T0),
+            new ViewRecord(10L, null, "10.0.0.3", T0),
+            new ViewRecord(20L, "alice", null, T0.plusDays(40)));
+
+        ViewSegment segment = writeAndOpen(views);
+
+        assertEquals(5, segment.rowCount());
+        List<ViewRecord> blog10 = scan(segment, 10L, T0, T0.plusDays(1));
+        assertEquals(List.of(
+            new ViewRecord(10L, null, "10.0.0.3", T0),
+            new ViewRecord(10L, "alice", "10.0.0.1", T0.plusHours(1))), blog10);
+        assertEquals(List.of(
+            new ViewRecord(20L, "bob", "10.0.0.2", T0.plusHours(2)),
+            new ViewRecord(20L, "alice", null, T0.plusDays(40))), scan(segment, 20L, T0, T0.plusDays(41)));
+        assertEquals(List.of(new ViewRecord(30L, null, null, T0)), scan(segment, 30L, T0, T0.plusSeconds(1)));
+        assertEquals(0, segment.count(15L, T0, T0.plusDays(41)));
+        assertEquals(0, segment.count(99L, T0, T0.plusDays(41)));
+    }
+
+    @Test
+    void countsOverAHalfOpenRange() throws IOException {
+        List<ViewRecord> views = new ArrayList<>();
+        for (int minute = 0; minute < 10; minute++) {
+            views.add(new ViewRecord(1L, "user" + minute, null, T0.plusMinutes(minute)));
+        }
+        ViewSegment segment = writeAndOpen(views);
+
+        assertEquals(10, segment.count(1L, T0, T0.plusMinutes(10)));
+        assertEquals(3, segment.count(1L, T0.plusMinutes(2), T0.plusMinutes(5)));
+        assertEquals(1, segment.count(1L, T0.plusMinutes(9), T0.plusMinutes(10)));
+        assertEquals(0, segment.count(1L, T0.plusMinutes(4), T0.plusMinutes(4)));
+        assertEquals(0, segment.count(1L, T0.minusDays(1), T0));
+        assertEquals(List.of("user2", "user3", "user4"), scan(segment, 1L, T0.plusMinutes(2), T0.plusMinutes(5))
+            .stream().map(ViewRecord::username).toList());
+    }
+
+    @Test
+    void roundTripsDictionariesAtTheCodeWidthBoundaries() throws IOException {
+        for (int size : new int[] {254, 255, 65534, 65535}) {
+            List<ViewRecord> views = new ArrayList<>(size + 1);
+            for (int i = 0; i < size; i++) {
+                views.add(new ViewRecord(1L, "user" + i, "ip" + (size - 1 - i), T0.plusSeconds(i)));
+            }
+            views.add(new ViewRecord(1L, null, null, T0.plusSeconds(size)));
+
+            List<ViewRecord> read = scan(writeAndOpen(views), 1L, T0, T0.plusSeconds(size + 1));
+
+            assertEquals(views, read, "dictionary of " + size);
+        }
+    }
+
+    @Test
+    void writesAnEmptySegment() throws IOException {
+        ViewSegment segment = writeAndOpen(List.of());
+
+        assertEquals(0, segment.rowCount());
+        assertEquals(0, segment.count(1L, T0, T0.plusDays(1)));
+    }
+
+    @Test
+    void rejectsAFileThatIsNotASegment() throws IOException {
+        Path file = directory.resolve("other.seg");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IllegalArgumentException.class, () -> ViewSegment.open(file));
+    }
+
+    private ViewSegment writeAndOpen(List<ViewRecord> views) throws IOException {
+        Path file = directory.resolve("views.seg");
+        ViewSegment.write(file, views);
+        assertFalse(Files.exists(directory.resolve("views.seg.tmp")));
+        return ViewSegment.open(file);
+    }
+
+    private static List<ViewRecord> scan(ViewSegment segment, long blogId, LocalDateTime from, LocalDateTime to) {
+        List<ViewRecord> rows = new ArrayList<>();
+        segment.scan(blogId, from, to, (viewedBlogId, viewedAt, username, ipAddress) ->
+            rows.add(new ViewRecord(viewedBlogId, username, ipAddress, viewedAt)));
+        assertEquals(rows.size(), segment.count(blogId, from, to));
+        return rows;
+    }
+}
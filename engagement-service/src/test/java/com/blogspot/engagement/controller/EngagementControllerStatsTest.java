@@ -0,0 +1,80 @@
+package com.blogspot.engagement.controller;
+
+import com.blogspot.engagement.dto.BlogStatsDto;
+import com.blogspot.engagement.service.EngagementService;
+import com.blogspot.engagement.service.ViewIngestionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EngagementControllerStatsTest {
+
+    @Mock
+    private EngagementService engagementService;
+
+    @Mock
+    private ViewIngestionService viewIngestionService;
+
+    @InjectMocks
+    private EngagementController controller;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void servesAnonymousCallersAPubliclyCacheableResponse() {
+        authenticate(new AnonymousAuthenticationToken("key", "anonymousUser",
+            AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        when(engagementService.getStats(1L, null)).thenReturn(new BlogStatsDto(1L, 3, 40, 2, null));
+
+        ResponseEntity<BlogStatsDto> response = controller.getBlogStats(1L);
+
+        assertEquals("max-age=5, public", response.getHeaders().getCacheControl());
+        assertEquals("W/\"3-40-2\"", response.getHeaders().getETag());
+        assertNull(response.getBody().getLiked());
+    }
+
+    @Test
+    void keepsSignedInCallersResponsesPrivate() {
+        authenticate(new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        when(engagementService.getStats(1L, "alice")).thenReturn(new BlogStatsDto(1L, 3, 40, 2, true));
+
+        ResponseEntity<BlogStatsDto> response = controller.getBlogStats(1L);
+
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+        assertEquals("W/\"3-40-2-l\"", response.getHeaders().getETag());
+        assertEquals(List.of(HttpHeaders.AUTHORIZATION), response.getHeaders().getVary());
+    }
+
+    @Test
+    void recordsAnonymousViewsWithoutAUsername() {
+        authenticate(new AnonymousAuthenticationToken("key", "anonymousUser",
+            AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        when(viewIngestionService.submit(1L, null, "10.0.0.1")).thenReturn(true);
+
+        assertEquals(202, controller.recordView(1L, "10.0.0.1", null, null).getStatusCode().value());
+        verify(viewIngestionService).submit(1L, null, "10.0.0.1");
+    }
+
+    private static void authenticate(Authentication authentication) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+}
@@ -0,0 +1,94 @@
+package com.blogspot.engagement.counter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlogCountersTest {
+
+    @Test
+    void countsBasePlusPendingAndMovesFlushedDeltas() {
+        BlogCounters counters = new BlogCounters(new long[] {10, 100, 1}, 0);
+        counters.add(CounterType.LIKES, 2);
+        counters.add(CounterType.COMMENTS, -1);
+
+        long[] pending = counters.pendingSnapshot();
+        assertArrayEquals(new long[] {2, 0, -1}, pending);
+        counters.add(CounterType.LIKES, 1);
+        counters.applyFlushed(pending);
+
+        assertEquals(13, counters.get(CounterType.LIKES));
+        assertEquals(100, counters.get(CounterType.VIEWS));
+        assertEquals(0, counters.get(CounterType.COMMENTS));
+        assertArrayEquals(new long[] {1, 0, 0}, counters.pendingSnapshot());
+    }
+
+    @Test
+    void hasNoSnapshotWithoutPendingDeltas() {
+        BlogCounters counters = new BlogCounters(new long[] {1, 2, 3}, 0);
+        assertNull(counters.pendingSnapshot());
+
+        counters.add(CounterType.VIEWS, 1);
+        counters.add(CounterType.VIEWS, -1);
+        assertNull(counters.pendingSnapshot());
+    }
+
+    @Test
+    void readsNeverMissOrDoubleCountAFlushedDelta() throws Exception {
+        BlogCounters counters = new BlogCounters(new long[] {0, 0, 0}, 0);
+        int writers = 4;
+        int incrementsPerWriter = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            tasks.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < incrementsPerWriter; i++) {
+                    counters.add(CounterType.VIEWS, 1);
+                }
+                return null;
+            }));
+        }
+        Future<?> flusher = executor.submit(() -> {
+            start.await();
+            while (!done.get()) {
+                long[] pending = counters.pendingSnapshot();
+                if (pending != null) {
+                    counters.applyFlushed(pending);
+                }
+            }
+            return null;
+        });
+        Future<Long> reader = executor.submit(() -> {
+            start.await();
+            long previous = 0;
+            while (!done.get()) {
+                long value = counters.get(CounterType.VIEWS);
+                // Only increments happen, so a dip means a flushed delta was briefly missed
+                assertTrue(value >= previous, "count went from " + previous + " to " + value);
+                previous = value;
+            }
+            return previous;
+        });
+        start.countDown();
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        done.set(true);
+        flusher.get();
+        reader.get();
+        executor.shutdown();
+
+        assertEquals((long) writers * incrementsPerWriter, counters.get(CounterType.VIEWS));
+    }
+}
@@ -0,0 +1,128 @@
+package com.blogspot.engagement.counter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CounterJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEverySegmentAfterACrash() throws IOException {
+        CounterJournal journal = new CounterJournal(directory);
+        journal.open(0);
+        journal.append(1, CounterType.LIKES, 1);
+        long sealed = journal.roll();
+        journal.append(2, CounterType.VIEWS, 5);
+        journal.append(1, CounterType.COMMENTS, -2);
+        // No close: the process dies with the current segment unsynced
+
+        CounterJournal restarted = new CounterJournal(directory);
+        assertEquals(List.of(sealed, sealed + 1), restarted.segments());
+        assertEquals(List.of(new CounterJournal.Entry(1, CounterType.LIKES, 1)), restarted.read(sealed));
+        assertEquals(List.of(new CounterJournal.Entry(2, CounterType.VIEWS, 5),
+            new CounterJournal.Entry(1, CounterType.COMMENTS, -2)), restarted.read(sealed + 1));
+        assertEquals(journal.getInstanceId(), restarted.getInstanceId());
+    }
+
+    @Test
+    void ignoresATornRecordAtTheEnd() throws IOException {
+        CounterJournal journal = new CounterJournal(directory);
+        journal.open(0);
+        journal.append(7, CounterType.VIEWS, 3);
+        journal.close();
+        Files.write(directory.resolve("counters-1.wal"), new byte[] {0, 0, 0}, StandardOpenOption.APPEND);
+
+        assertEquals(List.of(new CounterJournal.Entry(7, CounterType.VIEWS, 3)), journal.read(1));
+    }
+
+    @Test
+    void stopsAtACorruptRecord() throws IOException {
+        CounterJournal journal = new CounterJournal(directory);
+        journal.open(0);
+        journal.append(7, CounterType.VIEWS, 3);
+        journal.close();
+        // A record with an unknown counter type
+        Files.write(directory.resolve("counters-1.wal"), new byte[] {0, 0, 0, 0, 0, 0, 0, 9, 100, 0, 0, 0, 1},
+            StandardOpenOption.APPEND);
+
+        assertEquals(1, journal.read(1).size());
+    }
+
+    @Test
+    void deletesOnlySealedSegmentsUpToTheFlushedOne() throws IOException {
+        CounterJournal journal = new CounterJournal(directory);
+        journal.open(0);
+        journal.append(1, CounterType.LIKES, 1);
+        long first = journal.roll();
+        journal.append(1, CounterType.LIKES, 1);
+        long second = journal.roll();
+
+        journal.deleteUpTo(first);
+
+        assertEquals(List.of(second, second + 1), journal.segments());
+        journal.close();
+    }
+
+    @Test
+    void keepsEveryConcurrentAppendAcrossRolls() throws Exception {
+        CounterJournal journal = new CounterJournal(directory);
+        journal.open(0);
+        int threads = 8;
+        int appendsPerThread = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long blogId = t;
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < appendsPerThread; i++) {
+                    journal.append(blogId, CounterType.VIEWS, 1);
+                }
+                return null;
+            }));
+        }
+        Future<?> roller = executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 20; i++) {
+                journal.roll();
+                Thread.sleep(1);
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        roller.get();
+        executor.shutdown();
+        journal.close();
+
+        Map<Long, Integer> totals = new HashMap<>();
+        for (long segment : journal.segments()) {
+            for (CounterJournal.Entry entry : journal.read(segment)) {
+                totals.merge(entry.blogId(), entry.delta(), Integer::sum);
+            }
+        }
+        for (long blogId = 0; blogId < threads; blogId++) {
+            assertEquals(appendsPerThread, totals.get(blogId));
+        }
+    }
+}
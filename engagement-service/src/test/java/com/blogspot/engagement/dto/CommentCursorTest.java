@@ -0,0 +1,41 @@
+package com.blogspot.engagement.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommentCursorTest {
+
+    @Test
+    void roundTripsThroughItsEncodedForm() {
+        CommentCursor cursor = new CommentCursor(LocalDateTime.of(2025, 3, 4, 5, 6, 7, 891_000_000), 42L);
+
+        String encoded = cursor.encode();
+
+        assertEquals(cursor, CommentCursor.decode(encoded));
+        assertFalse(encoded.contains("="), "URL-safe without padding");
+    }
+
+    @Test
+    void keepsWholeSecondTimestamps() {
+        CommentCursor cursor = new CommentCursor(LocalDateTime.of(2025, 3, 4, 5, 6), Long.MAX_VALUE);
+
+        assertEquals(cursor, CommentCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> CommentCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> CommentCursor.decode(encode("2025-03-04T05:06")));
+        assertThrows(IllegalArgumentException.class, () -> CommentCursor.decode(encode("yesterday|1")));
+        assertThrows(IllegalArgumentException.class, () -> CommentCursor.decode(encode("2025-03-04T05:06|x")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
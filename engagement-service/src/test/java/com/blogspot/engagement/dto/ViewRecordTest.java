@@ -0,0 +1,38 @@
+package com.blogspot.engagement.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewRecordTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Test
+    void identifiesSignedInViewersByUsername() {
+        assertEquals("u:alice", new ViewRecord(1L, "alice", "10.0.0.1", NOW).viewerKey());
+    }
+
+    @Test
+    void identifiesAnonymousViewersByClientIp() {
+        assertEquals("ip:10.0.0.1", new ViewRecord(1L, null, "10.0.0.1", NOW).viewerKey());
+        assertEquals("ip:10.0.0.1", new ViewRecord(1L, " ", " 10.0.0.1 , 172.16.0.1", NOW).viewerKey());
+    }
+
+    @Test
+    void treatsSpringsAnonymousPrincipalAsNoUsername() {
+        assertEquals("ip:10.0.0.1", new ViewRecord(1L, ViewRecord.ANONYMOUS_USERNAME, "10.0.0.1", NOW).viewerKey());
+        assertNull(new ViewRecord(1L, ViewRecord.ANONYMOUS_USERNAME, null, NOW).viewerKey());
+    }
+
+    @Test
+    void cutsHeaderValuesLongerThanTheirColumns() {
+        ViewRecord view = new ViewRecord(1L, "u".repeat(300), "1".repeat(300), NOW);
+
+        assertEquals(ViewRecord.MAX_FIELD_LENGTH, view.username().length());
+        assertEquals(ViewRecord.MAX_FIELD_LENGTH, view.ipAddress().length());
+        assertEquals("alice", new ViewRecord(1L, "alice", null, NOW).username());
+    }
+}
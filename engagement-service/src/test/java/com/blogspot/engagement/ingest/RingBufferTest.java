@@ -0,0 +1,101 @@
+package com.blogspot.engagement.ingest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void rejectsCapacityThatIsNotAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(6));
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(1));
+    }
+
+    @Test
+    void drainsInOrderAndRejectsWhenFull() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        List<Integer> sink = new ArrayList<>();
+        assertEquals(3, buffer.drainTo(sink, 3));
+        assertEquals(List.of(0, 1, 2), sink);
+        assertEquals(1, buffer.size());
+    }
+
+    @Test
+    void reusesSlotsAcrossLaps() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(2);
+        List<Integer> sink = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(i));
+            assertEquals(1, buffer.drainTo(sink, 10));
+        }
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), sink);
+        assertEquals(0, buffer.drainTo(sink, 10));
+    }
+
+    @Test
+    void deliversEveryItemOnceFromConcurrentProducers() throws Exception {
+        RingBuffer<Long> buffer = new RingBuffer<>(64);
+        int producers = 4;
+        int itemsPerProducer = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            tasks.add(executor.submit(() -> {
+                start.await();
+                for (long i = 0; i < itemsPerProducer; i++) {
+                    long item = producer * itemsPerProducer + i;
+                    while (!buffer.offer(item)) {
+                        Thread.yield();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+
+        // The test thread is the single consumer
+        long[] lastSeen = new long[producers];
+        Arrays.fill(lastSeen, -1);
+        List<Long> batch = new ArrayList<>();
+        long received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < (long) producers * itemsPerProducer) {
+            assertTrue(System.nanoTime() < deadline, "consumer stalled after " + received + " items");
+            batch.clear();
+            if (buffer.drainTo(batch, 32) == 0) {
+                Thread.yield();
+            }
+            for (long item : batch) {
+                int producer = (int) (item / itemsPerProducer);
+                long sequence = item % itemsPerProducer;
+                // Each producer's items arrive once and in the order it offered them
+                assertEquals(lastSeen[producer] + 1, sequence);
+                lastSeen[producer] = sequence;
+            }
+            received += batch.size();
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        executor.shutdown();
+        assertEquals(0, buffer.size());
+    }
+}
@@ -0,0 +1,63 @@
+package com.blogspot.engagement.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommentPathsTest {
+
+    @Test
+    void encodesEachIdAsFixedWidthBase36Segment() {
+        assertEquals("000000000000z/", CommentPaths.childPath(null, 35));
+        assertEquals("000000000000z/0000000000010/", CommentPaths.childPath("000000000000z/", 36));
+        assertEquals(CommentPaths.SEGMENT_LENGTH + 1, CommentPaths.childPath(null, Long.MAX_VALUE).length());
+    }
+
+    @Test
+    void depthCountsSegmentsBelowTheRoot() {
+        String root = CommentPaths.childPath(null, 1);
+        String child = CommentPaths.childPath(root, 2);
+        String grandchild = CommentPaths.childPath(child, 3);
+
+        assertEquals(0, CommentPaths.depthOf(root));
+        assertEquals(1, CommentPaths.depthOf(child));
+        assertEquals(2, CommentPaths.depthOf(grandchild));
+    }
+
+    @Test
+    void pathsSortInTreeOrderWithSiblingsById() {
+        String first = CommentPaths.childPath(null, 9);
+        String second = CommentPaths.childPath(null, 10);
+        String replyToFirst = CommentPaths.childPath(first, 100);
+        String laterReplyToFirst = CommentPaths.childPath(first, 1000);
+
+        List<String> paths = new ArrayList<>(List.of(second, laterReplyToFirst, replyToFirst, first));
+        paths.sort(null);
+
+        assertEquals(List.of(first, replyToFirst, laterReplyToFirst, second), paths);
+    }
+
+    @Test
+    void subtreeIsExactlyThePathsWithTheRootsPrefix() {
+        String root = CommentPaths.childPath(null, 1);
+        String reply = CommentPaths.childPath(root, 2);
+        String otherRoot = CommentPaths.childPath(null, 12);
+
+        assertTrue(reply.startsWith(root));
+        // Without the terminator, id 1 would be a prefix of id 12
+        assertFalse(otherRoot.startsWith(root));
+    }
+
+    @Test
+    void deepestAllowedPathFitsTheColumn() {
+        String path = null;
+        for (int depth = 0; depth <= CommentPaths.MAX_DEPTH; depth++) {
+            path = CommentPaths.childPath(path, Long.MAX_VALUE - depth);
+        }
+        assertEquals(CommentPaths.MAX_DEPTH, CommentPaths.depthOf(path));
+        assertTrue(path.length() <= CommentPaths.PATH_MAX_LENGTH);
+    }
+}
@@ -0,0 +1,135 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.counter.BlogCounters;
+import com.blogspot.engagement.counter.CounterType;
+import com.blogspot.engagement.model.BlogEngagementCount;
+import com.blogspot.engagement.repository.BlogEngagementCountRepository;
+import com.blogspot.engagement.repository.CounterCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EngagementCountersTest {
+
+    @Mock
+    private BlogEngagementCountRepository countRepository;
+
+    @Mock
+    private CounterCheckpointRepository checkpointRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EngagementCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        counters = new EngagementCounters(countRepository, checkpointRepository, jdbcTemplate, transactionManager,
+            "unused", 60_000, 600_000, 1000, 60_000);
+    }
+
+    @Test
+    void readsOfAnUnknownBlogInsertNothing() {
+        assertEquals(0, counters.get(404L, CounterType.VIEWS));
+        Map<Long, BlogCounters> all = counters.getAll(List.of(404L, 405L));
+        assertEquals(0, all.get(405L).get(CounterType.LIKES));
+
+        verify(jdbcTemplate, never()).update(contains("INSERT"), any(Object[].class));
+    }
+
+    @Test
+    void readsSeedABlogThatHasRawCounts() {
+        rawViews(1L, 3);
+        when(countRepository.findAllById(List.of(1L))).thenReturn(List.of(), List.of(row(1L, 0, 3, 0)));
+
+        assertEquals(3, counters.get(1L, CounterType.VIEWS));
+        assertEquals(3, counters.get(1L, CounterType.VIEWS));
+
+        verify(jdbcTemplate, times(1)).update(contains("INSERT IGNORE"), any(Object[].class));
+    }
+
+    @Test
+    void writesSeedABlogEvenWithoutRawCounts() {
+        when(countRepository.findAllById(List.of(1L))).thenReturn(List.of(), List.of(row(1L, 0, 0, 0)));
+
+        counters.preload(1L);
+
+        verify(jdbcTemplate, times(1)).update(contains("INSERT IGNORE"), any(Object[].class));
+    }
+
+    @Test
+    void repeatedReadsOfAZeroBlogCountItOnce() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, counters.get(404L, CounterType.LIKES));
+            assertEquals(0, counters.getAll(List.of(404L)).get(404L).get(CounterType.VIEWS));
+        }
+
+        verify(countRepository, times(1)).findAllById(List.of(404L));
+        verify(jdbcTemplate, times(1)).query(contains("FROM views"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void aWriteSeedsABlogThatWasReadAsZero() {
+        when(countRepository.findAllById(List.of(1L))).thenReturn(List.of(), List.of(), List.of(row(1L, 2, 0, 0)));
+        assertEquals(0, counters.get(1L, CounterType.LIKES));
+
+        counters.preload(1L);
+
+        verify(jdbcTemplate, times(1)).update(contains("INSERT IGNORE"), any(Object[].class));
+        assertEquals(2, counters.get(1L, CounterType.LIKES));
+    }
+
+    @Test
+    void countsMissingBlogsWithOneQueryPerTable() {
+        rawViews(2L, 4);
+        when(countRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(row(1L, 1, 1, 1)));
+        when(countRepository.findAllById(List.of(2L))).thenReturn(List.of(row(2L, 0, 4, 0)));
+
+        Map<Long, BlogCounters> all = counters.getAll(List.of(1L, 2L, 3L));
+
+        assertEquals(1, all.get(1L).get(CounterType.LIKES));
+        assertEquals(4, all.get(2L).get(CounterType.VIEWS));
+        assertEquals(0, all.get(3L).get(CounterType.VIEWS));
+        verify(jdbcTemplate, times(3)).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        verify(jdbcTemplate, times(1)).update(contains("INSERT IGNORE"), any(Object[].class));
+    }
+
+    // The raw view count of one blog; likes and comments come back empty
+    private void rawViews(Long blogId, long views) {
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(1)).thenReturn(blogId);
+            when(rs.getLong(2)).thenReturn(views);
+            invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM views"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    private static BlogEngagementCount row(Long blogId, long likes, long views, long comments) {
+        BlogEngagementCount row = new BlogEngagementCount();
+        row.setBlogId(blogId);
+        row.setLikeCount(likes);
+        row.setViewCount(views);
+        row.setCommentCount(comments);
+        return row;
+    }
+}
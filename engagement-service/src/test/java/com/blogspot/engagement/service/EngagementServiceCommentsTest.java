@@ -0,0 +1,181 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.dto.CommentCursor;
+import com.blogspot.engagement.dto.CommentDtos.CommentPage;
+import com.blogspot.engagement.dto.CommentDtos.CommentResponse;
+import com.blogspot.engagement.dto.CommentDtos.CreateCommentRequest;
+import com.blogspot.engagement.model.CommentEntity;
+import com.blogspot.engagement.repository.CommentReplyCount;
+import com.blogspot.engagement.repository.CommentRepository;
+import com.blogspot.engagement.repository.CommentRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EngagementServiceCommentsTest {
+
+    private static final long BLOG_ID = 7L;
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @InjectMocks
+    private EngagementServiceImpl engagementService;
+
+    @Test
+    void buildsTreeFromOneFlatQuery() {
+        when(commentRepository.findRowsByBlogId(BLOG_ID)).thenReturn(List.of(
+            row(1, null, 0),
+            row(2, null, 1),
+            row(3, 1L, 2),
+            row(4, 3L, 3),
+            row(5, 1L, 4)));
+
+        List<CommentResponse> roots = engagementService.getCommentsTree(BLOG_ID);
+
+        assertEquals(List.of(1L, 2L), ids(roots));
+        assertEquals(List.of(3L, 5L), ids(roots.get(0).getReplies()));
+        assertEquals(List.of(4L), ids(roots.get(0).getReplies().get(0).getReplies()));
+        assertTrue(roots.get(1).getReplies().isEmpty());
+        verify(commentRepository, only()).findRowsByBlogId(BLOG_ID);
+    }
+
+    @Test
+    void rejectsRepliesToAnotherBlogsComment() {
+        CommentEntity parent = CommentEntity.builder().id(5L).blogId(BLOG_ID + 1).path("5").depth(0).build();
+        when(commentRepository.findById(5L)).thenReturn(Optional.of(parent));
+        CreateCommentRequest request = CreateCommentRequest.builder().blogId(BLOG_ID).content("reply").parentId(5L).build();
+
+        assertThrows(IllegalArgumentException.class, () -> engagementService.addComment("alice", request));
+        verify(commentRepository, never()).save(any());
+    }
+
+    @Test
+    void findsParentsWhenIdsDoNotFollowCreationOrder() {
+        // Imported comments keep their original timestamps but get new ids
+        when(commentRepository.findRowsByBlogId(BLOG_ID)).thenReturn(List.of(
+            row(30, null, 0),
+            row(10, 30L, 1),
+            row(20, null, 2),
+            row(5, 20L, 3),
+            row(40, 10L, 4)));
+
+        List<CommentResponse> roots = engagementService.getCommentsTree(BLOG_ID);
+
+        assertEquals(List.of(30L, 20L), ids(roots));
+        assertEquals(List.of(10L), ids(roots.get(0).getReplies()));
+        assertEquals(List.of(40L), ids(roots.get(0).getReplies().get(0).getReplies()));
+        assertEquals(List.of(5L), ids(roots.get(1).getReplies()));
+    }
+
+    @Test
+    void treatsRepliesToMissingParentsAsRoots() {
+        when(commentRepository.findRowsByBlogId(BLOG_ID)).thenReturn(List.of(row(1, null, 0), row(2, 99L, 1)));
+
+        assertEquals(List.of(1L, 2L), ids(engagementService.getCommentsTree(BLOG_ID)));
+    }
+
+    @Test
+    void pagesRootsWithOneExtraRowAndACursorAtTheLastReturned() {
+        when(commentRepository.findRootPage(BLOG_ID, PageRequest.of(0, 3)))
+            .thenReturn(List.of(row(1, null, 0), row(2, null, 0), row(3, null, 1)));
+
+        CommentPage page = engagementService.getComments(BLOG_ID, null, 2, 0);
+
+        assertEquals(List.of(1L, 2L), ids(page.getContent()));
+        assertTrue(page.isHasNext());
+        assertEquals(new CommentCursor(T0, 2L), CommentCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void continuesAfterTheCursorPosition() {
+        when(commentRepository.findRootPageAfter(BLOG_ID, T0, 2L, PageRequest.of(0, 3)))
+            .thenReturn(List.of(row(3, null, 1)));
+
+        CommentPage page = engagementService.getComments(BLOG_ID, new CommentCursor(T0, 2L).encode(), 2, 0);
+
+        assertEquals(List.of(3L), ids(page.getContent()));
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void inlinesFirstRepliesWithACursorWhenMoreExist() {
+        when(commentRepository.findRootPage(BLOG_ID, PageRequest.of(0, 11))).thenReturn(List.of(row(1, null, 0)));
+        when(commentRepository.countRepliesGroupedByParentId(BLOG_ID, List.of(1L))).thenReturn(List.of(replyCount(1L, 3)));
+        when(commentRepository.findFirstReplies(BLOG_ID, List.of(1L), 2)).thenReturn(List.of(row(2, 1L, 1), row(3, 1L, 2)));
+        when(commentRepository.countRepliesGroupedByParentId(BLOG_ID, List.of(2L, 3L))).thenReturn(List.of());
+
+        CommentResponse root = engagementService.getComments(BLOG_ID, null, 10, 2).getContent().get(0);
+
+        assertEquals(3L, root.getReplyCount());
+        assertEquals(List.of(2L, 3L), ids(root.getReplies()));
+        assertEquals(new CommentCursor(T0.plusMinutes(2), 3L), CommentCursor.decode(root.getRepliesCursor()));
+        assertEquals(0L, root.getReplies().get(0).getReplyCount());
+    }
+
+    static CommentReplyCount replyCount(Long parentId, long total) {
+        return new CommentReplyCount() {
+            public Long getParentId() {
+                return parentId;
+            }
+
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+
+    static CommentRow row(long id, Long parentId, int minute) {
+        return new Row(id, BLOG_ID, parentId, "user" + id, "comment " + id, T0.plusMinutes(minute));
+    }
+
+    static List<Long> ids(List<CommentResponse> comments) {
+        return comments.stream().map(CommentResponse::getId).toList();
+    }
+
+    private record Row(Long id, Long blogId, Long parentId, String username, String content, LocalDateTime createdAt)
+        implements CommentRow {
+
+        public Long getId() {
+            return id;
+        }
+
+        public Long getBlogId() {
+            return blogId;
+        }
+
+        public Long getParentId() {
+            return parentId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public LocalDateTime getUpdatedAt() {
+            return createdAt;
+        }
+    }
+}
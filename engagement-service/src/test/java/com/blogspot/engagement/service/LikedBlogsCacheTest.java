@@ -0,0 +1,107 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.repository.LikeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LikedBlogsCacheTest {
+
+    @Mock
+    private LikeRepository likeRepository;
+
+    @Test
+    void loadsAUserOnceAndAnswersFromTheLoadedIds() {
+        LikedBlogsCache cache = new LikedBlogsCache(likeRepository, true, 10, 100, 60_000);
+        when(likeRepository.findBlogIdsByUsername("alice", PageRequest.of(0, 101))).thenReturn(List.of(2L, 5L, 9L));
+
+        assertEquals(List.of(9L, 2L), cache.likedAmong("alice", List.of(9L, 3L, 2L, 9L)));
+        assertTrue(cache.isLiked("alice", 5L));
+        assertFalse(cache.isLiked("alice", 4L));
+
+        verify(likeRepository, times(1)).findBlogIdsByUsername(any(), any());
+        verify(likeRepository, never()).existsByBlogIdAndUsername(any(), any());
+    }
+
+    @Test
+    void appliesLikesAndUnlikesToACachedUser() {
+        LikedBlogsCache cache = new LikedBlogsCache(likeRepository, true, 10, 100, 60_000);
+        when(likeRepository.findBlogIdsByUsername(any(), any())).thenReturn(List.of(2L, 5L));
+        cache.isLiked("alice", 2L);
+
+        cache.onChange("alice", 7L, true);
+        cache.onChange("alice", 2L, false);
+        cache.onChange("alice", 7L, true);
+        cache.onChange("bob", 1L, true);
+
+        assertEquals(List.of(5L, 7L), cache.likedAmong("alice", List.of(2L, 5L, 7L)));
+        verify(likeRepository, times(1)).findBlogIdsByUsername(any(), any());
+    }
+
+    @Test
+    void replaysWritesThatHappenWhileLoading() {
+        LikedBlogsCache cache = new LikedBlogsCache(likeRepository, true, 10, 100, 60_000);
+        when(likeRepository.findBlogIdsByUsername(any(), any())).thenAnswer(invocation -> {
+            // The load read the old rows, then these commit before it installs them
+            cache.onChange("alice", 2L, false);
+            cache.onChange("alice", 8L, true);
+            return List.of(2L, 5L);
+        });
+
+        assertEquals(List.of(5L, 8L), cache.likedAmong("alice", List.of(2L, 5L, 8L)));
+    }
+
+    @Test
+    void goesToTheDatabaseForUsersWithTooManyLikes() {
+        LikedBlogsCache cache = new LikedBlogsCache(likeRepository, true, 10, 2, 60_000);
+        when(likeRepository.findBlogIdsByUsername(any(), any())).thenReturn(List.of(1L, 2L, 3L));
+        when(likeRepository.existsByBlogIdAndUsername(3L, "alice")).thenReturn(true);
+
+        assertTrue(cache.isLiked("alice", 3L));
+        assertTrue(cache.isLiked("alice", 3L));
+
+        // Not retried until the marker expires
+        verify(likeRepository, times(1)).findBlogIdsByUsername(any(), any());
+        verify(likeRepository, times(2)).existsByBlogIdAndUsername(3L, "alice");
+    }
+
+    @Test
+    void retriesALoadThatFailed() {
+        LikedBlogsCache cache = new LikedBlogsCache(likeRepository, true, 10, 100, 60_000);
+        when(likeRepository.findBlogIdsByUsername(any(), any()))
+            .thenThrow(new IllegalStateException("database down"))
+            .thenReturn(List.of(4L));
+
+        assertThrows(IllegalStateException.class, () -> cache.isLiked("alice", 4L));
+        assertTrue(cache.isLiked("alice", 4L));
+    }
+
+    @Test
+    void reloadsExpiredUsers() {
+        LikedBlogsCache cache = new LikedBlogsCache(likeRepository, true, 10, 100, 0);
+        when(likeRepository.findBlogIdsByUsername(any(), any())).thenReturn(List.of(1L), List.of(1L, 6L));
+
+        assertFalse(cache.isLiked("alice", 6L));
+        assertTrue(cache.isLiked("alice", 6L));
+    }
+
+    @Test
+    void queriesTheDatabaseWhenDisabled() {
+        LikedBlogsCache cache = new LikedBlogsCache(likeRepository, false, 10, 100, 60_000);
+        when(likeRepository.findLikedBlogIds("alice", List.of(1L, 2L))).thenReturn(List.of(2L));
+
+        assertEquals(List.of(2L), cache.likedAmong("alice", List.of(1L, 2L)));
+        cache.onChange("alice", 1L, true);
+
+        verify(likeRepository, never()).findBlogIdsByUsername(any(), any());
+    }
+}
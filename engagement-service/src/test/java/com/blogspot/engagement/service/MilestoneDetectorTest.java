@@ -0,0 +1,120 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.dto.EngagementMilestoneEvent;
+import com.blogspot.engagement.model.MilestoneMark;
+import com.blogspot.engagement.repository.MilestoneMarkRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MilestoneDetectorTest {
+
+    @Mock
+    private MilestoneMarkRepository markRepository;
+
+    @Mock
+    private BlogServiceClient blogServiceClient;
+
+    @Mock
+    private KafkaTemplate<String, EngagementMilestoneEvent> kafkaTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    // Persisted marks, by "blogId:type"
+    private final Map<String, Long> marks = new ConcurrentHashMap<>();
+    private final List<EngagementMilestoneEvent> sent = new CopyOnWriteArrayList<>();
+    private MilestoneDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(markRepository.findById(any())).thenAnswer(invocation -> {
+            MilestoneMark.Key key = invocation.getArgument(0);
+            Long threshold = marks.get(key.getBlogId() + ":" + key.getType());
+            return Optional.ofNullable(threshold).map(value -> MilestoneMark.builder()
+                .blogId(key.getBlogId()).type(key.getType()).threshold(value).build());
+        });
+        lenient().when(markRepository.insertIfAbsent(anyLong(), anyString(), anyLong())).thenAnswer(invocation ->
+            marks.putIfAbsent(invocation.getArgument(0) + ":" + invocation.getArgument(1), invocation.getArgument(2)) == null ? 1 : 0);
+        lenient().when(markRepository.advance(anyLong(), anyString(), anyLong())).thenAnswer(invocation -> {
+            String key = invocation.getArgument(0) + ":" + invocation.getArgument(1);
+            long threshold = invocation.getArgument(2);
+            return marks.get(key) < threshold && marks.replace(key, marks.get(key), threshold) ? 1 : 0;
+        });
+        lenient().when(kafkaTemplate.send(eq(MilestoneDetector.TOPIC), any(EngagementMilestoneEvent.class))).thenAnswer(invocation -> {
+            sent.add(invocation.getArgument(1));
+            return CompletableFuture.completedFuture(null);
+        });
+        detector = new MilestoneDetector(markRepository, blogServiceClient, kafkaTemplate, transactionManager,
+            new SimpleMeterRegistry(), 64, 1000);
+        detector.start();
+    }
+
+    @Test
+    void findsTheHighestThresholdReached() {
+        assertEquals(0, MilestoneDetector.highestThresholdAtMost(0));
+        assertEquals(0, MilestoneDetector.highestThresholdAtMost(4));
+        assertEquals(5, MilestoneDetector.highestThresholdAtMost(5));
+        assertEquals(10, MilestoneDetector.highestThresholdAtMost(49));
+        assertEquals(1000, MilestoneDetector.highestThresholdAtMost(4999));
+        assertEquals(10000, MilestoneDetector.highestThresholdAtMost(19999));
+        assertEquals(20000, MilestoneDetector.highestThresholdAtMost(20000));
+    }
+
+    @Test
+    void announcesAThresholdJumpedPastOnce() throws InterruptedException {
+        marks.put("1:VIEWS", 5L);
+
+        // A batch of views takes the count from 8 straight past 10 and 50
+        detector.onCount(1L, "VIEWS", 53, 45);
+        detector.onCount(1L, "VIEWS", 54, 1);
+        detector.stop();
+
+        assertEquals(1, sent.size());
+        assertEquals(50, sent.get(0).count());
+        assertEquals("VIEWS", sent.get(0).milestoneType());
+        assertEquals(50L, marks.get("1:VIEWS"));
+    }
+
+    @Test
+    void seedsAFirstMarkFromThePreviousCount() throws InterruptedException {
+        // Both blogs are seen for the first time: thresholds before the change are history
+        detector.onCount(1L, "LIKES", 51, 2);
+        detector.onCount(2L, "LIKES", 55, 1);
+        detector.stop();
+
+        assertEquals(1, sent.size());
+        assertEquals("1", sent.get(0).blogId());
+        assertEquals(50, sent.get(0).count());
+        assertEquals(50L, marks.get("2:LIKES"));
+    }
+
+    @Test
+    void skipsCountsThatCrossNoThreshold() throws InterruptedException {
+        detector.onCount(1L, "COMMENTS", 4, 1);
+        detector.stop();
+
+        assertTrue(sent.isEmpty());
+        verifyNoInteractions(markRepository);
+    }
+}
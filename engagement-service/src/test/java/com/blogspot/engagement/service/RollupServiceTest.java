@@ -0,0 +1,220 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.dto.EngagementSeriesDto;
+import com.blogspot.engagement.model.RollupGranularity;
+import com.blogspot.engagement.model.RollupWatermark;
+import com.blogspot.engagement.repository.EngagementRollupRepository;
+import com.blogspot.engagement.repository.RollupPoint;
+import com.blogspot.engagement.repository.RollupWatermarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RollupServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private static final long LAG_SECONDS = 60;
+
+    @Mock
+    private EngagementRollupRepository rollupRepository;
+
+    @Mock
+    private RollupWatermarkRepository watermarkRepository;
+
+    @Mock
+    private BlogAuthors blogAuthors;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, RollupWatermark> watermarks = new HashMap<>();
+    // Rows of the views table as the scan sees them
+    private final List<ResultSet> views = new ArrayList<>();
+    private RollupService service;
+
+    @BeforeEach
+    void setUp() {
+        for (String source : List.of("views", "likes", "comments")) {
+            watermarks.put(source, RollupWatermark.builder().source(source).lastId(0).updatedAt(NOW).build());
+        }
+        lenient().when(watermarkRepository.findById(anyString()))
+            .thenAnswer(invocation -> Optional.of(watermarks.get(invocation.<String>getArgument(0))));
+        lenient().when(watermarkRepository.findForUpdate(anyString()))
+            .thenAnswer(invocation -> Optional.of(watermarks.get(invocation.<String>getArgument(0))));
+        service = new RollupService(rollupRepository, watermarkRepository, blogAuthors, jdbcTemplate,
+            transactionManager, LAG_SECONDS, 20, 35);
+    }
+
+    @Test
+    void stopsAtTheFirstRowInsertedWithinTheLag() throws SQLException {
+        stubScan();
+        view(1, 7L, NOW.minusHours(2), true);
+        view(2, 7L, NOW.minusMinutes(50), true);
+        // Still possibly behind an uncommitted lower id: everything from here waits
+        view(3, 8L, NOW.minusHours(1), false);
+        view(4, 8L, NOW.minusHours(3), true);
+
+        service.rollUp();
+
+        ArgumentCaptor<Collection> buckets = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), buckets.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        // Blog 7: two hourly buckets and one daily bucket
+        assertEquals(3, buckets.getValue().size());
+        assertEquals(2, watermarks.get("views").getLastId());
+        verify(blogAuthors).resolve(7L);
+        verify(blogAuthors, never()).resolve(8L);
+    }
+
+    @Test
+    void holdsBackARecentlyInsertedRowWithAnOldEventTime() throws SQLException {
+        stubScan();
+        // A view replayed from the queue long after it happened
+        view(1, 7L, NOW.minusDays(3), false);
+
+        service.rollUp();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(0, watermarks.get("views").getLastId());
+    }
+
+    @Test
+    void zeroFillsBucketsWithoutRows() {
+        LocalDate day = NOW.toLocalDate();
+        when(rollupRepository.findSeriesByBlog(7L, RollupGranularity.HOUR, day.atStartOfDay(), day.plusDays(1).atStartOfDay()))
+            .thenReturn(List.of(point(day.atTime(3, 0), 5, 1, 0), point(day.atTime(20, 0), 2, 0, 1)));
+
+        EngagementSeriesDto series = service.seriesForBlog(7L, RollupGranularity.HOUR, day, day, null);
+
+        assertEquals(7L, series.getBlogId());
+        assertEquals(1, series.getBucketsPerPoint());
+        assertEquals(24, series.getPoints().size());
+        for (int hour = 0; hour < 24; hour++) {
+            EngagementSeriesDto.Point point = series.getPoints().get(hour);
+            assertEquals(day.atTime(hour, 0), point.getStart());
+            assertEquals(hour == 3 ? 5 : hour == 20 ? 2 : 0, point.getViews());
+            assertEquals(hour == 3 ? 1 : 0, point.getLikes());
+            assertEquals(hour == 20 ? 1 : 0, point.getComments());
+        }
+    }
+
+    @Test
+    void downsamplesBySummingConsecutiveBuckets() {
+        LocalDate from = LocalDate.of(2024, 5, 1);
+        LocalDate to = LocalDate.of(2024, 5, 7);
+        when(rollupRepository.findSeriesByAuthor(3L, RollupGranularity.DAY, from.atStartOfDay(), to.plusDays(1).atStartOfDay()))
+            .thenReturn(List.of(
+                point(from.atStartOfDay(), 1, 0, 0),
+                point(from.plusDays(1).atStartOfDay(), 2, 1, 0),
+                point(from.plusDays(2).atStartOfDay(), 4, 0, 0),
+                point(to.atStartOfDay(), 8, 0, 3)));
+
+        // Seven days into at most three points: three days per point, the last one short
+        EngagementSeriesDto series = service.seriesForAuthor(3L, RollupGranularity.DAY, from, to, 3);
+
+        assertEquals(3L, series.getAuthorId());
+        assertEquals(3, series.getBucketsPerPoint());
+        List<EngagementSeriesDto.Point> points = series.getPoints();
+        assertEquals(3, points.size());
+        assertEquals(from.atStartOfDay(), points.get(0).getStart());
+        assertEquals(7, points.get(0).getViews());
+        assertEquals(1, points.get(0).getLikes());
+        assertEquals(from.plusDays(3).atStartOfDay(), points.get(1).getStart());
+        assertEquals(0, points.get(1).getViews());
+        assertEquals(to.atStartOfDay(), points.get(2).getStart());
+        assertEquals(8, points.get(2).getViews());
+        assertEquals(3, points.get(2).getComments());
+    }
+
+    @Test
+    void keepsEveryBucketWhenAskedForMorePoints() {
+        LocalDate from = LocalDate.of(2024, 5, 1);
+        LocalDate to = LocalDate.of(2024, 5, 3);
+        when(rollupRepository.findSeriesByBlog(7L, RollupGranularity.DAY, from.atStartOfDay(), to.plusDays(1).atStartOfDay()))
+            .thenReturn(List.of());
+
+        EngagementSeriesDto series = service.seriesForBlog(7L, RollupGranularity.DAY, from, to, 100);
+
+        assertEquals(1, series.getBucketsPerPoint());
+        assertEquals(3, series.getPoints().size());
+        assertTrue(series.getPoints().stream().allMatch(point -> point.getViews() == 0));
+    }
+
+    private static RollupPoint point(LocalDateTime bucketStart, long views, long likes, long comments) {
+        return new RollupPoint() {
+            @Override
+            public LocalDateTime getBucketStart() {
+                return bucketStart;
+            }
+
+            @Override
+            public long getViews() {
+                return views;
+            }
+
+            @Override
+            public long getLikes() {
+                return likes;
+            }
+
+            @Override
+            public long getComments() {
+                return comments;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubScan() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            assertEquals(LAG_SECONDS, (long) invocation.getArgument(2));
+            List<Object> rows = new ArrayList<>();
+            if (sql.contains("FROM views")) {
+                for (int i = 0; i < views.size(); i++) {
+                    rows.add(mapper.mapRow(views.get(i), i));
+                }
+            }
+            return rows;
+        });
+    }
+
+    private void view(long id, long blogId, LocalDateTime createdAt, boolean settled) throws SQLException {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("id")).thenReturn(id);
+        when(row.getLong("blog_id")).thenReturn(blogId);
+        when(row.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(createdAt));
+        when(row.getBoolean("settled")).thenReturn(settled);
+        views.add(row);
+    }
+}
@@ -0,0 +1,76 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.dto.ViewRecord;
+import com.blogspot.engagement.repository.ViewerSketchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UniqueViewerServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Mock
+    private ViewerSketchRepository sketchRepository;
+
+    @Mock
+    private BlogAuthors blogAuthors;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UniqueViewerService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UniqueViewerService(sketchRepository, blogAuthors, transactionManager);
+    }
+
+    @Test
+    void countsAnonymousViewersByIp() {
+        service.recordAfterCommit(List.of(
+            new ViewRecord(1L, ViewRecord.ANONYMOUS_USERNAME, "10.0.0.1", NOW),
+            new ViewRecord(1L, ViewRecord.ANONYMOUS_USERNAME, "10.0.0.2", NOW),
+            new ViewRecord(1L, null, "10.0.0.3", NOW),
+            new ViewRecord(1L, ViewRecord.ANONYMOUS_USERNAME, "10.0.0.1", NOW)));
+
+        assertEquals(3, service.estimateForBlog(1L, null, null));
+        assertEquals(3, service.estimateForBlog(1L, NOW.toLocalDate(), NOW.toLocalDate()));
+    }
+
+    @Test
+    void countsASignedInViewerOnceAcrossAddresses() {
+        service.recordAfterCommit(List.of(
+            new ViewRecord(1L, "alice", "10.0.0.1", NOW),
+            new ViewRecord(1L, "alice", "10.0.0.2", NOW.plusDays(1)),
+            new ViewRecord(2L, "bob", "10.0.0.1", NOW)));
+
+        assertEquals(1, service.estimateForBlog(1L, null, null));
+        assertEquals(1, service.estimateForBlog(1L, NOW.toLocalDate(), NOW.toLocalDate()));
+    }
+
+    @Test
+    void fillsInAuthorsThatWereMissingAtFlushTime() {
+        when(sketchRepository.findBlogIdsWithoutAuthor(anyInt())).thenReturn(List.of(1L, 2L));
+        when(blogAuthors.resolve(1L)).thenReturn(10L);
+        when(blogAuthors.resolve(2L)).thenReturn(null);
+
+        service.maintain();
+
+        verify(sketchRepository).setAuthor(1L, 10L);
+        verify(sketchRepository, never()).setAuthor(eq(2L), any());
+    }
+}
@@ -0,0 +1,199 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.archive.ViewSegment;
+import com.blogspot.engagement.dto.ArchivedViewsDto;
+import com.blogspot.engagement.model.RollupWatermark;
+import com.blogspot.engagement.model.ViewArchiveSegment;
+import com.blogspot.engagement.repository.RollupWatermarkRepository;
+import com.blogspot.engagement.repository.ViewArchiveSegmentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ViewArchiveServiceTest {
+
+    private static final LocalDateTime OLD = LocalDateTime.of(2020, 1, 1, 12, 0);
+    private static final long ROLLED_UP = 500L;
+
+    @Mock
+    private ViewArchiveSegmentRepository segmentRepository;
+
+    @Mock
+    private RollupWatermarkRepository watermarkRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ResultSet> views = new ArrayList<>();
+    private ViewArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        when(watermarkRepository.findById("views")).thenReturn(Optional.of(
+            RollupWatermark.builder().source("views").lastId(ROLLED_UP).updatedAt(OLD).build()));
+        // Segment rows of 4 views at least, one segment per run
+        service = new ViewArchiveService(segmentRepository, watermarkRepository, jdbcTemplate, transactionManager,
+            meterRegistry, directory.toString(), true, 30, 10, 4, 1);
+    }
+
+    @Test
+    void commitsASegmentWithItsCatalogRowDeletionAndCounts() throws Exception {
+        when(segmentRepository.findTopByOrderBySegmentDesc()).thenReturn(Optional.of(
+            ViewArchiveSegment.builder().segment(6L).fileName("views-6.seg").firstId(1).lastId(100).build()));
+        stubScan();
+        view(101, 7L, "alice", OLD.plusHours(2));
+        view(102, 8L, null, OLD);
+        view(104, 7L, "bob", OLD.plusDays(3));
+        view(105, 7L, "alice", OLD.plusHours(1));
+        // Too recent: ends the segment
+        view(106, 7L, "carol", LocalDateTime.now());
+        view(107, 7L, "dave", OLD);
+        when(jdbcTemplate.update(startsWith("INSERT INTO view_archive_segments"), any(Object[].class))).thenReturn(1);
+        when(jdbcTemplate.update(startsWith("DELETE FROM views"), any(Object[].class))).thenReturn(4);
+        Map<Long, Long> counts = captureCounts();
+
+        service.archive();
+
+        ArgumentCaptor<Object[]> segment = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO view_archive_segments"), segment.capture());
+        Object[] row = segment.getValue();
+        String fileName = (String) row[1];
+        assertEquals(7L, row[0]);
+        assertEquals(101L, row[2]);
+        assertEquals(105L, row[3]);
+        assertEquals(4, row[4]);
+        assertEquals(Timestamp.valueOf(OLD), row[5]);
+        assertEquals(Timestamp.valueOf(OLD.plusDays(3)), row[6]);
+        verify(jdbcTemplate).update(startsWith("DELETE FROM views"), eq(101L), eq(105L));
+        assertEquals(Map.of(7L, 3L, 8L, 1L), counts);
+        assertEquals(4, meterRegistry.counter("engagement.views.archived").count());
+
+        ViewSegment written = ViewSegment.open(directory.resolve(fileName));
+        assertEquals(4, written.rowCount());
+        assertEquals(3, written.count(7L, OLD, OLD.plusDays(4)));
+
+        when(segmentRepository.findOverlapping(any(), any())).thenReturn(List.of(ViewArchiveSegment.builder()
+            .segment(7L).fileName(fileName).build()));
+        ArchivedViewsDto summary = service.summarize(7L, OLD.toLocalDate(), OLD.toLocalDate().plusDays(3));
+        assertEquals(3, summary.getViews());
+        assertEquals(2, summary.getDistinctViewers());
+    }
+
+    @Test
+    void removesTheFileWhenTheCommitFails() throws Exception {
+        when(segmentRepository.findTopByOrderBySegmentDesc()).thenReturn(Optional.empty());
+        stubScan();
+        for (int id = 1; id <= 4; id++) {
+            view(id, 7L, "user" + id, OLD);
+        }
+        when(jdbcTemplate.update(startsWith("INSERT INTO view_archive_segments"), any(Object[].class))).thenReturn(1);
+        // A row of the range was deleted since the scan
+        when(jdbcTemplate.update(startsWith("DELETE FROM views"), any(Object[].class))).thenReturn(3);
+
+        service.archive();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(Collection.class), anyInt(),
+            any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(0, meterRegistry.counter("engagement.views.archived").count());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void leavesTooFewOldRowsForLater() throws Exception {
+        when(segmentRepository.findTopByOrderBySegmentDesc()).thenReturn(Optional.empty());
+        stubScan();
+        view(1, 7L, "alice", OLD);
+        view(2, 7L, "bob", OLD);
+        view(3, 7L, "carol", LocalDateTime.now());
+
+        service.archive();
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubScan() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            assertEquals(ROLLED_UP, (long) invocation.getArgument(3));
+            List<Object> rows = new ArrayList<>();
+            for (int i = 0; i < views.size(); i++) {
+                rows.add(mapper.mapRow(views.get(i), i));
+            }
+            return rows;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> captureCounts() {
+        Map<Long, Long> counts = new HashMap<>();
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO archived_view_counts"), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            Collection<Map.Entry<Long, Long>> rows = invocation.getArgument(1);
+            ParameterizedPreparedStatementSetter<Map.Entry<Long, Long>> setter = invocation.getArgument(3);
+            for (Map.Entry<Long, Long> row : rows) {
+                PreparedStatement statement = mock(PreparedStatement.class);
+                setter.setValues(statement, row);
+                verify(statement).setLong(1, row.getKey());
+                verify(statement).setLong(2, row.getValue());
+                counts.put(row.getKey(), row.getValue());
+            }
+            return new int[][] {};
+        });
+        return counts;
+    }
+
+    private void view(long id, long blogId, String username, LocalDateTime viewedAt) throws SQLException {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong("id")).thenReturn(id);
+        when(row.getLong("blog_id")).thenReturn(blogId);
+        when(row.getString("username")).thenReturn(username);
+        when(row.getString("ip_address")).thenReturn(null);
+        when(row.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(viewedAt));
+        views.add(row);
+    }
+}
@@ -0,0 +1,116 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.dto.ViewRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ViewEventConsumerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private static final long REJECTED_BLOG_ID = 666L;
+
+    @Mock
+    private EngagementService engagementService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ViewRecord> written = new ArrayList<>();
+    private ViewEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new ViewEventConsumer(engagementService, objectMapper, meterRegistry);
+    }
+
+    @Test
+    void skipsMalformedEventsAndCutsOverlongFields() throws Exception {
+        String longName = "u".repeat(ViewRecord.MAX_FIELD_LENGTH + 50);
+        List<ConsumerRecord<String, String>> records = List.of(
+            record(0, view(1L, longName)),
+            record(1, "not json"),
+            record(2, "{\"username\":\"bob\"}"),
+            record(3, view(2L, "carol")));
+
+        consumer.onViews(records);
+
+        ArgumentCaptor<List<ViewRecord>> views = ArgumentCaptor.captor();
+        verify(engagementService).recordViews(views.capture());
+        assertEquals(2, views.getValue().size());
+        assertEquals(ViewRecord.MAX_FIELD_LENGTH, views.getValue().get(0).username().length());
+        assertEquals("carol", views.getValue().get(1).username());
+        assertEquals(2, meterRegistry.counter("engagement.views.kafka.malformed").count());
+    }
+
+    @Test
+    void skipsOnlyTheEventsTheDatabaseRejects() throws Exception {
+        stubWrites(null);
+
+        consumer.onViews(List.of(
+            record(0, view(1L, "alice")),
+            record(1, view(REJECTED_BLOG_ID, "bob")),
+            record(2, view(2L, "carol"))));
+
+        assertEquals(List.of(1L, 2L), written.stream().map(ViewRecord::blogId).toList());
+        assertEquals(1, meterRegistry.counter("engagement.views.kafka.rejected").count());
+    }
+
+    @Test
+    void reportsWhereAFailedWriteStopped() throws Exception {
+        // The database goes away while the batch is written one event at a time
+        stubWrites(3L);
+
+        BatchListenerFailedException failure = assertThrows(BatchListenerFailedException.class, () ->
+            consumer.onViews(List.of(
+                record(0, view(1L, "alice")),
+                record(1, "not json"),
+                record(2, view(REJECTED_BLOG_ID, "bob")),
+                record(3, view(3L, "carol")),
+                record(4, view(4L, "dave")))));
+
+        assertEquals(3, failure.getIndex());
+        assertInstanceOf(QueryTimeoutException.class, failure.getCause());
+        assertEquals(List.of(1L), written.stream().map(ViewRecord::blogId).toList());
+    }
+
+    /** Writes fail as a whole if they include a rejected view, or a view of {@code unavailableBlogId}. */
+    private void stubWrites(Long unavailableBlogId) {
+        doAnswer(invocation -> {
+            List<ViewRecord> views = invocation.getArgument(0);
+            if (views.stream().anyMatch(view -> view.blogId() == REJECTED_BLOG_ID)) {
+                throw new DataIntegrityViolationException("Data too long");
+            }
+            if (views.stream().anyMatch(view -> view.blogId().equals(unavailableBlogId))) {
+                throw new QueryTimeoutException("Lock wait timeout");
+            }
+            written.addAll(views);
+            return null;
+        }).when(engagementService).recordViews(anyList());
+    }
+
+    private String view(long blogId, String username) throws Exception {
+        return objectMapper.writeValueAsString(new ViewRecord(blogId, username, "10.0.0.1", NOW));
+    }
+
+    private static ConsumerRecord<String, String> record(long offset, String value) {
+        return new ConsumerRecord<>(ViewIngestionService.VIEWS_TOPIC, 0, offset, "key", value);
+    }
+}
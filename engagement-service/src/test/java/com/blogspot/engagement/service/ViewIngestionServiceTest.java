@@ -0,0 +1,133 @@
+package com.blogspot.engagement.service;
+
+import com.blogspot.engagement.dto.ViewRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ViewIngestionServiceTest {
+
+    @Mock
+    private EngagementService engagementService;
+
+    @Mock
+    private KafkaTemplate<String, ViewRecord> kafkaTemplate;
+
+    // Views of this blog are rejected by the database, failing any batch they are in
+    private static final long REJECTED_BLOG_ID = 666L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ViewRecord> written = new CopyOnWriteArrayList<>();
+    private ViewIngestionService service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> {
+            List<ViewRecord> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(view -> view.blogId() == REJECTED_BLOG_ID)) {
+                throw new DataIntegrityViolationException("Data too long for column");
+            }
+            return written.addAll(batch);
+        }).when(engagementService).recordViews(anyList());
+        service = new ViewIngestionService(engagementService, kafkaTemplate, meterRegistry,
+            "buffer", 1024, 500, 20, true, 1_800_000, 6, 1_000, 0.01);
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.stop();
+    }
+
+    @Test
+    void keepsViewsOfTheSameBlogFromDifferentAnonymousIps() throws InterruptedException {
+        assertTrue(service.submit(1L, ViewRecord.ANONYMOUS_USERNAME, "10.0.0.1"));
+        assertTrue(service.submit(1L, ViewRecord.ANONYMOUS_USERNAME, "10.0.0.2"));
+        assertTrue(service.submit(1L, null, "10.0.0.3, 172.16.0.1"));
+        service.stop();
+
+        assertEquals(3, written.size());
+        assertEquals(0, duplicates());
+    }
+
+    @Test
+    void dropsRepeatViewsByTheSameViewer() throws InterruptedException {
+        assertTrue(service.submit(1L, ViewRecord.ANONYMOUS_USERNAME, "10.0.0.1"));
+        assertTrue(service.submit(1L, null, "10.0.0.1"));
+        assertTrue(service.submit(1L, "alice", "10.0.0.1"));
+        assertTrue(service.submit(1L, "alice", "10.0.0.2"));
+        assertTrue(service.submit(2L, "alice", "10.0.0.2"));
+        service.stop();
+
+        assertEquals(3, written.size());
+        assertEquals(2, duplicates());
+    }
+
+    @Test
+    void dropsOnlyTheViewsTheDatabaseRejects() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(service.submit(i == 3 || i == 7 ? REJECTED_BLOG_ID : i, null, "10.0.0." + i));
+        }
+        service.stop();
+
+        assertEquals(8, written.size());
+        assertTrue(written.stream().noneMatch(view -> view.blogId() == REJECTED_BLOG_ID));
+        assertEquals(2, meterRegistry.get("engagement.views.ingest").tag("result", "dropped").counter().count());
+    }
+
+    @Test
+    void acceptsTheRetryOfAShedView() throws InterruptedException {
+        // Not started yet, so every view is shed
+        ViewIngestionService stopped = new ViewIngestionService(engagementService, kafkaTemplate, meterRegistry,
+            "buffer", 1024, 500, 20, true, 1_800_000, 6, 1_000, 0.01);
+        assertFalse(stopped.submit(1L, "alice", "10.0.0.1"));
+
+        stopped.start();
+        assertTrue(stopped.submit(1L, "alice", "10.0.0.1"));
+        stopped.stop();
+
+        assertEquals(1, written.size());
+        assertEquals(0, duplicates());
+    }
+
+    @Test
+    void acceptsTheRetryOfAViewKafkaCouldNotQueue() {
+        ViewIngestionService kafka = new ViewIngestionService(engagementService, kafkaTemplate, meterRegistry,
+            "kafka", 1024, 500, 20, true, 1_800_000, 6, 1_000, 0.01);
+        kafka.start();
+        when(kafkaTemplate.send(eq(ViewIngestionService.VIEWS_TOPIC), eq("1"), any()))
+            .thenThrow(new IllegalStateException("buffer exhausted"))
+            .thenReturn(new CompletableFuture<>());
+
+        assertFalse(kafka.submit(1L, "alice", "10.0.0.1"));
+        assertTrue(kafka.submit(1L, "alice", "10.0.0.1"));
+        assertTrue(kafka.submit(1L, "alice", "10.0.0.1"));
+
+        verify(kafkaTemplate, times(2)).send(eq(ViewIngestionService.VIEWS_TOPIC), eq("1"), any());
+        assertEquals(1, duplicates());
+    }
+
+    private double duplicates() {
+        return meterRegistry.get("engagement.views.ingest").tag("result", "duplicate").counter().count();
+    }
+}
@@ -0,0 +1,68 @@
+package com.blogspot.engagement.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesWithinTheExpectedError() {
+        for (int count : new int[] {10, 1_000, 20_000, 200_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < count; i++) {
+                sketch.offer("ip:" + i);
+                // Repeat views never add to the estimate
+                sketch.offer("ip:" + i);
+            }
+            // About four standard errors
+            assertEquals(count, sketch.estimate(), Math.max(1, count * 0.065), "count " + count);
+        }
+    }
+
+    @Test
+    void roundTripsSparseAndDenseSketches() {
+        for (int count : new int[] {0, 50, 5_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < count; i++) {
+                sketch.offer("u:" + i);
+            }
+            byte[] bytes = sketch.toBytes();
+            HyperLogLog copy = HyperLogLog.fromBytes(bytes);
+
+            assertEquals(sketch.estimate(), copy.estimate());
+            assertEquals(sketch.isEmpty(), copy.isEmpty());
+            assertArrayEquals(bytes, copy.toBytes());
+        }
+    }
+
+    @Test
+    void rejectsAnUnknownFormat() {
+        byte[] bytes = new HyperLogLog().toBytes();
+        bytes[0] = 9;
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(bytes));
+    }
+
+    @Test
+    void mergesToTheUnionAndIsIdempotent() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog both = new HyperLogLog();
+        for (int i = 0; i < 3_000; i++) {
+            first.offer("ip:" + i);
+            both.offer("ip:" + i);
+        }
+        for (int i = 2_000; i < 6_000; i++) {
+            second.offer("ip:" + i);
+            both.offer("ip:" + i);
+        }
+
+        first.merge(second);
+        long merged = first.estimate();
+        first.merge(second);
+        first.merge(first);
+
+        assertEquals(both.estimate(), merged);
+        assertEquals(merged, first.estimate());
+    }
+}
@@ -0,0 +1,92 @@
+package com.blogspot.engagement.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RotatingBloomFilterTest {
+
+    private static final long WINDOW = 60_000;
+    private static final int SLICES = 6;
+    private static final long SLICE = WINDOW / SLICES;
+
+    @Test
+    void reportsRepeatsWithinTheWindow() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW, SLICES, 1_000, 0.01, 0);
+        long key = HyperLogLog.hash("1|ip:10.0.0.1");
+
+        assertTrue(filter.addIfAbsent(key, 0));
+        assertFalse(filter.addIfAbsent(key, 1));
+        assertTrue(filter.addIfAbsent(HyperLogLog.hash("1|ip:10.0.0.2"), 2));
+        // Still remembered after a full window, across rotations
+        for (long now = SLICE; now <= WINDOW; now += SLICE) {
+            assertFalse(filter.addIfAbsent(key, now), "at " + now);
+        }
+    }
+
+    @Test
+    void containsDoesNotAddTheKey() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW, SLICES, 1_000, 0.01, 0);
+        long key = HyperLogLog.hash("1|u:alice");
+
+        assertFalse(filter.contains(key, 0));
+        assertFalse(filter.contains(key, 1));
+        assertTrue(filter.addIfAbsent(key, 2));
+        assertTrue(filter.contains(key, 3));
+    }
+
+    @Test
+    void forgetsKeysAfterTheWindowAndASlice() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW, SLICES, 1_000, 0.01, 0);
+        long key = HyperLogLog.hash("1|u:alice");
+        assertTrue(filter.addIfAbsent(key, 0));
+
+        // A quiet period rotates several slices at once
+        assertTrue(filter.addIfAbsent(key, WINDOW + SLICE));
+        assertFalse(filter.addIfAbsent(key, WINDOW + SLICE + 1));
+    }
+
+    @Test
+    void rotatesEarlyWhenASliceIsFull() {
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW, SLICES, 100, 0.01, 0);
+        for (int i = 0; i < 100; i++) {
+            filter.addIfAbsent(HyperLogLog.hash("ip:" + i), 0);
+        }
+        assertEquals(0, filter.getEarlyRotations());
+
+        filter.addIfAbsent(HyperLogLog.hash("ip:100"), 0);
+
+        assertEquals(1, filter.getEarlyRotations());
+        // Earlier keys are still remembered by the older filters
+        assertFalse(filter.addIfAbsent(HyperLogLog.hash("ip:0"), 0));
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheRequestedRate() {
+        int capacity = 10_000;
+        RotatingBloomFilter filter = new RotatingBloomFilter(WINDOW, SLICES, capacity, 0.01, 0);
+        // Fill every older filter to capacity
+        for (int slice = 0; slice < SLICES; slice++) {
+            for (int i = 0; i < capacity - 1; i++) {
+                filter.addIfAbsent(HyperLogLog.hash(slice + ":" + i), slice * SLICE);
+            }
+        }
+
+        // The probes fill the newest filter, staying just under its capacity
+        int probes = capacity - 1;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (!filter.addIfAbsent(HyperLogLog.hash("probe:" + i), WINDOW)) {
+                falsePositives++;
+            }
+        }
+        assertEquals(0, filter.getEarlyRotations());
+        assertTrue(falsePositives < probes * 0.02, falsePositives + " false positives in " + probes);
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new RotatingBloomFilter(WINDOW, 0, 100, 0.01, 0));
+        assertThrows(IllegalArgumentException.class, () -> new RotatingBloomFilter(WINDOW, SLICES, 100, 1, 0));
+    }
+}
@@ -1,5 +1,6 @@
 package com.blogspot.user.service;
 
+import com.blogspot.user.model.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -18,6 +19,9 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String ROLE_CLAIM = "role";
+
     @Value("${spring.security.oauth2.jwt.secret}")
     private String secret;
 
@@ -31,6 +35,17 @@ public class JwtService {
         return createToken(claims, username);
     }
 
+    /**
+     * Generates a token carrying the user's id and role so that other services
+     * can authorize requests without calling back into user-service.
+     */
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLE_CLAIM, user.getRole().name());
+        return createToken(claims, user.getUsername());
+    }
+
     private String createToken(Map<String, Object> claims, String username) {
         return Jwts.builder()
                 .setClaims(claims)